@@ -0,0 +1,178 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.uwsoft.editor.renderer.components.*;
+import com.uwsoft.editor.renderer.components.particle.ParticleComponent;
+import com.uwsoft.editor.renderer.utils.ComponentRetriever;
+
+/**
+ * Cost of looking up components through {@link ComponentRetriever}, compared to a synchronized class to mapper map
+ * it used before, and to a plain {@link ComponentMapper} as the lower bound.
+ * Run with -t 4 to see the synchronized lookup under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ComponentRetrieverBenchmark {
+
+    public static final int ENTITIES = 1024;
+
+    private final Entity[] entities = new Entity[ENTITIES];
+
+    private final ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+    private final ComponentMapper<ParticleComponent> particleMapper = ComponentMapper.getFor(ParticleComponent.class);
+
+    @State(Scope.Thread)
+    public static class Output {
+        final Array<Component> components = new Array<Component>();
+    }
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ENTITIES; i++) {
+            Entity entity = new Entity();
+            entity.add(new MainItemComponent());
+            entity.add(new TransformComponent());
+            entity.add(new DimensionsComponent());
+            entity.add(new TintComponent());
+            entity.add(new ZIndexComponent());
+            if(i % 4 == 0) entity.add(new ParticleComponent());
+            entities[i] = entity;
+        }
+    }
+
+    /**
+     * Two lookups per entity, one of them usually missing, as in ParticleSystem and the removal listener
+     */
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public int getRetriever() {
+        int found = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            if(ComponentRetriever.get(entities[i], TransformComponent.class) != null) found++;
+            if(ComponentRetriever.get(entities[i], ParticleComponent.class) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public int getSynchronizedMap() {
+        int found = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            if(SynchronizedMapRetriever.get(entities[i], TransformComponent.class) != null) found++;
+            if(SynchronizedMapRetriever.get(entities[i], ParticleComponent.class) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public int getMapper() {
+        int found = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            if(transformMapper.get(entities[i]) != null) found++;
+            if(particleMapper.get(entities[i]) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public int getComponentsRetriever(Output output) {
+        int found = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            output.components.clear();
+            found += ComponentRetriever.getComponents(entities[i], output.components).size;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public int getComponentsSynchronizedMap() {
+        int found = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            found += SynchronizedMapRetriever.getComponents(entities[i]).size();
+        }
+        return found;
+    }
+
+    /**
+     * Lookup as ComponentRetriever did it before, kept here as a baseline
+     */
+    private static class SynchronizedMapRetriever {
+        private static SynchronizedMapRetriever instance;
+
+        private final Map<Class, ComponentMapper<? extends Component>> mappers = new HashMap<Class, ComponentMapper<? extends Component>>();
+
+        private static synchronized SynchronizedMapRetriever self() {
+            if(instance == null) {
+                instance = new SynchronizedMapRetriever();
+                Class[] types = {MainItemComponent.class, TransformComponent.class, DimensionsComponent.class, TintComponent.class,
+                        ZIndexComponent.class, ParticleComponent.class, NodeComponent.class, ParentNodeComponent.class,
+                        TextureRegionComponent.class, BoundingBoxComponent.class, ScriptComponent.class, PolygonComponent.class};
+                for (Class type : types) {
+                    instance.mappers.put(type, ComponentMapper.getFor(type));
+                }
+            }
+            return instance;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T extends Component> T get(Entity entity, Class<T> type) {
+            return (T) self().mappers.get(type).get(entity);
+        }
+
+        static Collection<Component> getComponents(Entity entity) {
+            Collection<Component> components = new ArrayList<Component>();
+            for (ComponentMapper<? extends Component> mapper : self().mappers.values()) {
+                if(mapper.get(entity) != null) components.add(mapper.get(entity));
+            }
+            return components;
+        }
+    }
+}
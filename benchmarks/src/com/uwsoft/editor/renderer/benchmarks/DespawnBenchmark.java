@@ -0,0 +1,85 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.uwsoft.editor.renderer.SceneLoader;
+
+/**
+ * Time to clear one big composite from a loaded scene, removing it from engine versus removing it as a subtree.
+ * Every invocation removes a freshly spawned instance of a library item with the given number of children.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DespawnBenchmark {
+
+    /** Number of children of the removed composite */
+    @Param({"1000", "5000"})
+    public int items;
+
+    private SceneLoader sceneLoader;
+    private Entity instance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.init();
+        SyntheticResources resources = new SyntheticResources();
+        resources.addLibraryItem("benchmark", items);
+        resources.addScene("despawn", 0);
+        sceneLoader = new SceneLoader(resources, true);
+        sceneLoader.loadScene("despawn", new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera()));
+    }
+
+    @Setup(Level.Invocation)
+    public void spawn() {
+        instance = sceneLoader.instantiateFromLibrary("benchmark", sceneLoader.getRoot());
+    }
+
+    @Benchmark
+    public void removeEntity() {
+        sceneLoader.getEngine().removeEntity(instance);
+    }
+
+    @Benchmark
+    public void removeSubtree() {
+        sceneLoader.removeSubtree(instance);
+    }
+}
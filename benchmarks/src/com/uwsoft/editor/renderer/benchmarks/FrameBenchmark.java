@@ -0,0 +1,118 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.uwsoft.editor.renderer.SceneLoader;
+import com.uwsoft.editor.renderer.systems.CompositeSystem;
+import com.uwsoft.editor.renderer.systems.LabelSystem;
+import com.uwsoft.editor.renderer.systems.LayerSystem;
+import com.uwsoft.editor.renderer.systems.render.Overlap2dRenderer;
+
+/**
+ * Per frame cost of the stock systems on a loaded scene, with the renderer drawing into a {@link RecordingBatch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FrameBenchmark {
+
+    private static final float DELTA = 1f / 60f;
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    private SceneLoader sceneLoader;
+    private Engine engine;
+    private Overlap2dRenderer renderer;
+
+    private LayerSystem layerSystem;
+    private CompositeSystem compositeSystem;
+    private LabelSystem labelSystem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.init();
+        SyntheticResources resources = new SyntheticResources();
+        resources.addScene("benchmark", items);
+        sceneLoader = new SceneLoader(resources);
+        engine = sceneLoader.getEngine();
+
+        // replace GL batch with the recording one
+        engine.removeSystem(engine.getSystem(Overlap2dRenderer.class));
+        renderer = new Overlap2dRenderer(new RecordingBatch());
+        renderer.setRayHandler(sceneLoader.rayHandler);
+        engine.addSystem(renderer);
+
+        sceneLoader.loadScene("benchmark", new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera()));
+        // first frame does all one time work (sorting, transforms, label layout)
+        engine.update(DELTA);
+
+        layerSystem = engine.getSystem(LayerSystem.class);
+        compositeSystem = engine.getSystem(CompositeSystem.class);
+        labelSystem = engine.getSystem(LabelSystem.class);
+    }
+
+    @Benchmark
+    public void engineUpdate() {
+        engine.update(DELTA);
+    }
+
+    @Benchmark
+    public void layerSystem() {
+        layerSystem.update(DELTA);
+    }
+
+    @Benchmark
+    public void compositeSystem() {
+        compositeSystem.update(DELTA);
+    }
+
+    @Benchmark
+    public void labelSystem() {
+        labelSystem.update(DELTA);
+    }
+
+    @Benchmark
+    public void renderer() {
+        renderer.update(DELTA);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Sets up libGDX without a window or GPU, so runtime systems can be benchmarked on any machine.
+ * Every GL call is a no-op, only reporting successful shader compilation and complete frame buffers,
+ * so shaders, meshes, textures and RayHandler can still be created.
+ */
+public class HeadlessEnvironment {
+
+    private static boolean initialized = false;
+
+    private HeadlessEnvironment() {
+
+    }
+
+    public static synchronized void init() {
+        if(initialized) return;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // we never render through the application loop
+        config.renderInterval = 1f;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+
+        GL20 gl = createNoopGL();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+
+        initialized = true;
+    }
+
+    private static GL20 createNoopGL() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                Class<?> type = method.getReturnType();
+
+                if(method.getDeclaringClass() == Object.class) {
+                    if(name.equals("equals")) return proxy == args[0];
+                    if(name.equals("hashCode")) return System.identityHashCode(proxy);
+                    return "NoopGL20";
+                }
+
+                if(name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+                    int pname = (Integer) args[1];
+                    IntBuffer params = (IntBuffer) args[2];
+                    params.put(params.position(), pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+                    return null;
+                }
+                if(name.equals("glCheckFramebufferStatus")) {
+                    return GL20.GL_FRAMEBUFFER_COMPLETE;
+                }
+                if(type == int.class) {
+                    // handles of generated objects must not be 0
+                    return name.startsWith("glGen") || name.startsWith("glCreate") ? 1 : 0;
+                }
+                if(type == boolean.class) return false;
+                if(type == float.class) return 0f;
+                if(type == String.class) return "";
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Batch that draws nothing, only recording what a real batch would have to do:
+ * number of draws, and number of flushes caused by texture, transform, blending and shader changes.
+ */
+public class RecordingBatch implements Batch {
+
+    private final Color color = new Color(1, 1, 1, 1);
+    private float packedColor = Color.WHITE.toFloatBits();
+    private final Matrix4 projectionMatrix = new Matrix4();
+    private final Matrix4 transformMatrix = new Matrix4();
+    private ShaderProgram shader;
+    private boolean blendingEnabled = true;
+    private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+    private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private boolean drawing = false;
+
+    private Texture lastTexture;
+    private int pending;
+
+    public int drawCount;
+    public int flushCount;
+    public int textureSwitchCount;
+
+    public void reset() {
+        drawCount = 0;
+        flushCount = 0;
+        textureSwitchCount = 0;
+    }
+
+    private void record(Texture texture) {
+        if(texture != lastTexture) {
+            if(lastTexture != null) textureSwitchCount++;
+            flush();
+            lastTexture = texture;
+        }
+        drawCount++;
+        pending++;
+    }
+
+    @Override
+    public void begin() {
+        if(drawing) throw new IllegalStateException("RecordingBatch.end must be called before begin.");
+        drawing = true;
+        lastTexture = null;
+    }
+
+    @Override
+    public void end() {
+        if(!drawing) throw new IllegalStateException("RecordingBatch.begin must be called before end.");
+        flush();
+        drawing = false;
+    }
+
+    @Override
+    public void flush() {
+        if(pending > 0) flushCount++;
+        pending = 0;
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+        packedColor = tint.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+        packedColor = color.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float color) {
+        int intBits = NumberUtils.floatToIntColor(color);
+        this.color.set((intBits & 0xff) / 255f, ((intBits >>> 8) & 0xff) / 255f, ((intBits >>> 16) & 0xff) / 255f, ((intBits >>> 24) & 0xff) / 255f);
+        packedColor = color;
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public float getPackedColor() {
+        return packedColor;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        record(texture);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        record(region.getTexture());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        record(region.getTexture());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        record(region.getTexture());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        record(region.getTexture());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        record(region.getTexture());
+    }
+
+    @Override
+    public void disableBlending() {
+        if(!blendingEnabled) return;
+        flush();
+        blendingEnabled = false;
+    }
+
+    @Override
+    public void enableBlending() {
+        if(blendingEnabled) return;
+        flush();
+        blendingEnabled = true;
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        if(blendSrcFunc == srcFunc && blendDstFunc == dstFunc) return;
+        flush();
+        blendSrcFunc = srcFunc;
+        blendDstFunc = dstFunc;
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return transformMatrix;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        if(drawing) flush();
+        projectionMatrix.set(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        if(drawing) flush();
+        transformMatrix.set(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if(drawing) flush();
+        this.shader = shader;
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader;
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return blendingEnabled;
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    @Override
+    public void dispose() {
+
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.uwsoft.editor.renderer.SceneLoader;
+import com.uwsoft.editor.renderer.systems.render.Overlap2dRenderer;
+
+/**
+ * Renderer pass alone, with and without texture sorting, also printing draws and flushes of the last frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RendererBenchmark {
+
+    private static final float DELTA = 1f / 60f;
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean textureSorting;
+
+    @Param({"true"})
+    public boolean frustumCulling;
+
+    private RecordingBatch batch;
+    private Overlap2dRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.init();
+        SyntheticResources resources = new SyntheticResources();
+        resources.addScene("benchmark", items);
+        SceneLoader sceneLoader = new SceneLoader(resources);
+        Engine engine = sceneLoader.getEngine();
+
+        engine.removeSystem(engine.getSystem(Overlap2dRenderer.class));
+        batch = new RecordingBatch();
+        renderer = new Overlap2dRenderer(batch);
+        renderer.setRayHandler(sceneLoader.rayHandler);
+        renderer.setTextureSorting(textureSorting);
+        renderer.setFrustumCulling(frustumCulling);
+        engine.addSystem(renderer);
+
+        sceneLoader.loadScene("benchmark", new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera()));
+        engine.update(DELTA);
+    }
+
+    @Benchmark
+    public void render() {
+        batch.reset();
+        renderer.update(DELTA);
+    }
+
+    @TearDown(Level.Trial)
+    public void printFrameStatistics() {
+        System.out.println();
+        System.out.println("Last frame: " + batch.drawCount + " draws, " + batch.flushCount + " flushes, "
+                + batch.textureSwitchCount + " texture switches, " + renderer.getCulledCount() + " culled");
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.uwsoft.editor.renderer.SceneLoader;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.factory.EntityFactory;
+
+/**
+ * Cost of turning scene data into entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SceneLoadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    private SyntheticResources resources;
+    private SceneLoader sceneLoader;
+    private SceneVO sceneVO;
+    private Viewport viewport;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.init();
+        resources = new SyntheticResources();
+        sceneVO = resources.addScene("benchmark", items);
+        sceneLoader = new SceneLoader(resources);
+        viewport = new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetEntityFactory() {
+        // entity factory keeps every entity it ever created, don't let it grow between invocations
+        sceneLoader.entityFactory = new EntityFactory(sceneLoader.rayHandler, sceneLoader.world, resources);
+    }
+
+    /**
+     * Whole scene load, including removal of previously loaded scene entities
+     */
+    @Benchmark
+    public SceneVO loadScene() {
+        return sceneLoader.loadScene("benchmark", viewport);
+    }
+
+    /**
+     * Entity creation only, into an empty engine without systems
+     */
+    @Benchmark
+    public Engine initAllChildren() {
+        Engine engine = new Engine();
+        EntityFactory entityFactory = sceneLoader.entityFactory;
+        Entity root = entityFactory.createRootEntity(sceneVO.composite, viewport);
+        engine.addEntity(root);
+        entityFactory.initAllChildren(engine, root, sceneVO.composite);
+        return engine;
+    }
+}
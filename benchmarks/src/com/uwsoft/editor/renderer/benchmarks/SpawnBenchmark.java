@@ -0,0 +1,155 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.uwsoft.editor.renderer.SceneLoader;
+import com.uwsoft.editor.renderer.data.CompositeItemVO;
+import com.uwsoft.editor.renderer.factory.EntityFactory;
+import com.uwsoft.editor.renderer.factory.EntityPrefab;
+
+/**
+ * Throughput of spawning library items, walking item data for every instance versus instantiating a compiled prefab.
+ * Every invocation spawns a batch of instances into an empty engine without systems.
+ * Spawn and remove benchmarks churn instances in a loaded scene, with and without pooling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpawnBenchmark {
+
+    public static final int INSTANCES_PER_INVOCATION = 100;
+
+    /** Number of items inside spawned library item */
+    @Param({"1", "10", "50"})
+    public int items;
+
+    private SyntheticResources resources;
+    private SceneLoader sceneLoader;
+    private CompositeItemVO libraryItem;
+    private EntityPrefab prefab;
+    private Entity[] spawned = new Entity[INSTANCES_PER_INVOCATION];
+
+    private SceneLoader allocatingLoader;
+    private SceneLoader pooledLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.init();
+        resources = new SyntheticResources();
+        libraryItem = resources.addLibraryItem("benchmark", items);
+        sceneLoader = new SceneLoader(resources);
+
+        resources.addScene("spawn", 0);
+        allocatingLoader = new SceneLoader(resources, false);
+        allocatingLoader.loadScene("spawn", new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera()));
+        pooledLoader = new SceneLoader(resources, true);
+        pooledLoader.loadScene("spawn", new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera()));
+    }
+
+    @Setup(Level.Invocation)
+    public void resetEntityFactory() {
+        // entity factory keeps every entity it ever created, don't let it grow between invocations
+        sceneLoader.entityFactory = new EntityFactory(sceneLoader.rayHandler, sceneLoader.world, resources);
+        if(prefab != null) prefab.dispose();
+        prefab = sceneLoader.entityFactory.createPrefab(libraryItem);
+    }
+
+    /**
+     * Creating instances from library item data, as loadFromLibrary and initAllChildren did before prefabs
+     */
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES_PER_INVOCATION)
+    public Engine spawnFromData() {
+        Engine engine = new Engine();
+        EntityFactory entityFactory = sceneLoader.entityFactory;
+        for (int i = 0; i < INSTANCES_PER_INVOCATION; i++) {
+            Entity entity = entityFactory.createEntity(null, libraryItem);
+            engine.addEntity(entity);
+            entityFactory.initAllChildren(engine, entity, libraryItem.composite);
+        }
+        return engine;
+    }
+
+    /**
+     * Creating instances from compiled prefab
+     */
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES_PER_INVOCATION)
+    public Engine spawnFromPrefab() {
+        Engine engine = new Engine();
+        for (int i = 0; i < INSTANCES_PER_INVOCATION; i++) {
+            prefab.instantiate(engine, null);
+        }
+        return engine;
+    }
+
+    /**
+     * Spawning instances into a scene and removing them again, every instance is allocated
+     */
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES_PER_INVOCATION)
+    public Entity[] spawnAndRemove() {
+        return churn(allocatingLoader);
+    }
+
+    /**
+     * Spawning instances into a scene and removing them again, entities and components come from pools
+     */
+    @Benchmark
+    @OperationsPerInvocation(INSTANCES_PER_INVOCATION)
+    public Entity[] spawnAndRemovePooled() {
+        return churn(pooledLoader);
+    }
+
+    private Entity[] churn(SceneLoader loader) {
+        for (int i = 0; i < INSTANCES_PER_INVOCATION; i++) {
+            spawned[i] = loader.instantiateFromLibrary("benchmark", loader.getRoot());
+        }
+        for (int i = 0; i < INSTANCES_PER_INVOCATION; i++) {
+            loader.getEngine().removeEntity(spawned[i]);
+        }
+        // children of removed composites are removed on update
+        loader.getEngine().update(0);
+        return spawned;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brashmonkey.spriter.BakedEntity;
+import com.brashmonkey.spriter.Data;
+import com.brashmonkey.spriter.Entity;
+import com.brashmonkey.spriter.Player;
+import com.brashmonkey.spriter.SCMLReader;
+
+/**
+ * Updating a crowd of Spriter players of one generated character, tweened every frame versus sampled from a baked animation.
+ * One operation is one frame of the whole crowd.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpriterBenchmark {
+
+    public static final int BONES = 8;
+    public static final int SPRITES = 16;
+    public static final int KEYS = 5;
+    public static final int LENGTH = 1000;
+
+    @Param({"500"})
+    public int players;
+
+    /** Baking rate in frames per second, 0 to tween */
+    @Param({"0", "30", "60"})
+    public float bakedFramesPerSecond;
+
+    private Player[] crowd;
+
+    @Setup
+    public void setUp() {
+        Data data = new SCMLReader(generateScml()).getData();
+        Entity entity = data.getEntity(0);
+        BakedEntity baked = bakedFramesPerSecond > 0 ? new BakedEntity(entity, bakedFramesPerSecond) : null;
+
+        crowd = new Player[players];
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(entity);
+            player.setBakedEntity(baked);
+            player.setPosition(i % 50 * 40, i / 50 * 60);
+            player.setTime(i * 37 % LENGTH);
+            crowd[i] = player;
+        }
+    }
+
+    @Benchmark
+    public Player[] updateCrowd() {
+        for (int i = 0; i < crowd.length; i++) {
+            crowd[i].update();
+        }
+        return crowd;
+    }
+
+    /**
+     * Character with a chain of bones and sprites attached to them, all moving between every mainline key
+     */
+    private static String generateScml() {
+        StringBuilder scml = new StringBuilder();
+        scml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        scml.append("<spriter_data scml_version=\"1.0\" generator=\"BrashMonkey Spriter\" generator_version=\"r5\">\n");
+        scml.append("<folder id=\"0\">\n");
+        for (int i = 0; i < SPRITES; i++) {
+            scml.append("<file id=\"").append(i).append("\" name=\"part").append(i).append(".png\" width=\"32\" height=\"16\" pivot_x=\"0\" pivot_y=\"1\"/>\n");
+        }
+        scml.append("</folder>\n<entity id=\"0\" name=\"character\">\n");
+        for (int i = 0; i < BONES; i++) {
+            scml.append("<obj_info name=\"bone").append(i).append("\" type=\"bone\" w=\"40\" h=\"10\"/>\n");
+        }
+        scml.append("<animation id=\"0\" name=\"walk\" length=\"").append(LENGTH).append("\">\n<mainline>\n");
+        for (int k = 0; k < KEYS; k++) {
+            scml.append("<key id=\"").append(k).append("\" time=\"").append(k * LENGTH / KEYS).append("\">\n");
+            for (int i = 0; i < BONES; i++) {
+                scml.append("<bone_ref id=\"").append(i).append("\"");
+                if(i > 0) scml.append(" parent=\"").append(i - 1).append("\"");
+                scml.append(" timeline=\"").append(i).append("\" key=\"").append(k).append("\"/>\n");
+            }
+            for (int i = 0; i < SPRITES; i++) {
+                scml.append("<object_ref id=\"").append(i).append("\" parent=\"").append(i % BONES).append("\" timeline=\"").append(BONES + i)
+                        .append("\" key=\"").append(k).append("\" z_index=\"").append(i).append("\"/>\n");
+            }
+            scml.append("</key>\n");
+        }
+        scml.append("</mainline>\n");
+        for (int t = 0; t < BONES + SPRITES; t++) {
+            boolean bone = t < BONES;
+            scml.append("<timeline id=\"").append(t).append("\" name=\"").append(bone ? "bone" + t : "sprite" + (t - BONES)).append("\"");
+            if(bone) scml.append(" object_type=\"bone\"");
+            scml.append(">\n");
+            for (int k = 0; k < KEYS; k++) {
+                float angle = (k % 2 == 0 ? 10 : -10) + t * 7;
+                scml.append("<key id=\"").append(k).append("\" time=\"").append(k * LENGTH / KEYS).append("\" spin=\"").append(k % 2 == 0 ? -1 : 1).append("\">");
+                scml.append(bone ? "<bone" : "<object folder=\"0\" file=\"" + (t - BONES) + "\"");
+                scml.append(" x=\"").append(bone ? 30 : 5 + k).append("\" y=\"").append(k).append("\" angle=\"").append(angle).append("\"/>");
+                scml.append("</key>\n");
+            }
+            scml.append("</timeline>\n");
+        }
+        scml.append("</animation>\n</entity>\n</spriter_data>\n");
+        return scml.toString();
+    }
+}
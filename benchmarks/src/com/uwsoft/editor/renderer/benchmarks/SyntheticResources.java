@@ -0,0 +1,240 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.benchmarks;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.uwsoft.editor.renderer.data.CompositeItemVO;
+import com.uwsoft.editor.renderer.data.CompositeVO;
+import com.uwsoft.editor.renderer.data.LabelVO;
+import com.uwsoft.editor.renderer.data.LayerItemVO;
+import com.uwsoft.editor.renderer.data.MainItemVO;
+import com.uwsoft.editor.renderer.data.ProjectInfoVO;
+import com.uwsoft.editor.renderer.data.ResolutionEntryVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.data.SimpleImageVO;
+import com.uwsoft.editor.renderer.resources.IResourceRetriever;
+import com.uwsoft.editor.renderer.utils.MySkin;
+
+/**
+ * Resource retriever serving generated scenes, made of images spread over several textures
+ * (like pack atlas pages) and labels, grouped in composites.
+ * Scenes are two screens wide and high, so about a quarter of the items is visible at once.
+ * Requires {@link HeadlessEnvironment} to be initialized.
+ */
+public class SyntheticResources implements IResourceRetriever {
+
+    public static final int TEXTURE_COUNT = 4;
+    public static final int REGIONS_PER_TEXTURE = 4;
+    public static final int ITEMS_PER_COMPOSITE = 100;
+    public static final float SCENE_WIDTH = 3840;
+    public static final float SCENE_HEIGHT = 2160;
+
+    private final ProjectInfoVO projectVO = new ProjectInfoVO();
+    private final HashMap<String, SceneVO> scenes = new HashMap<String, SceneVO>();
+    private final HashMap<String, TextureRegion> regions = new HashMap<String, TextureRegion>();
+    private final BitmapFont font;
+
+    public SyntheticResources() {
+        ResolutionEntryVO resolution = new ResolutionEntryVO();
+        resolution.name = "orig";
+        resolution.width = 1920;
+        resolution.height = 1080;
+        projectVO.originalResolution = resolution;
+
+        Pixmap pixmap = new Pixmap(128, 128, Pixmap.Format.RGBA8888);
+        for (int i = 0; i < TEXTURE_COUNT; i++) {
+            Texture texture = new Texture(pixmap);
+            for (int j = 0; j < REGIONS_PER_TEXTURE; j++) {
+                regions.put(getImageName(i * REGIONS_PER_TEXTURE + j), new TextureRegion(texture, (j % 2) * 64, (j / 2) * 64, 64, 64));
+            }
+        }
+        pixmap.dispose();
+
+        font = new BitmapFont();
+    }
+
+    public static String getImageName(int index) {
+        return "image" + index;
+    }
+
+    /**
+     * Generates scene with given number of items, always the same for the same parameters.
+     * Items are grouped in composites of {@link #ITEMS_PER_COMPOSITE} (composites are not counted),
+     * every 20th item is a label, and every 5th is on the "Top" layer.
+     */
+    public SceneVO addScene(String sceneName, int itemCount) {
+        Random random = new Random(itemCount);
+
+        SceneVO sceneVO = new SceneVO();
+        sceneVO.sceneName = sceneName;
+        sceneVO.composite = new CompositeVO();
+        addLayers(sceneVO.composite);
+
+        int item = 0;
+        while (item < itemCount) {
+            CompositeItemVO compositeItemVO = new CompositeItemVO();
+            compositeItemVO.itemName = "composite" + sceneVO.composite.sComposites.size();
+            compositeItemVO.layerName = "Default";
+            compositeItemVO.x = random.nextFloat() * (SCENE_WIDTH - 800);
+            compositeItemVO.y = random.nextFloat() * (SCENE_HEIGHT - 450);
+            compositeItemVO.zIndex = sceneVO.composite.sComposites.size();
+            compositeItemVO.composite = new CompositeVO();
+            addLayers(compositeItemVO.composite);
+
+            for (int i = 0; i < ITEMS_PER_COMPOSITE && item < itemCount; i++, item++) {
+                if(item % 20 == 19) {
+                    LabelVO labelVO = new LabelVO();
+                    labelVO.text = "Label " + item;
+                    labelVO.width = 100;
+                    labelVO.height = 20;
+                    setCommon(labelVO, item, i, random);
+                    compositeItemVO.composite.sLabels.add(labelVO);
+                } else {
+                    SimpleImageVO imageVO = new SimpleImageVO();
+                    imageVO.imageName = getImageName(random.nextInt(TEXTURE_COUNT * REGIONS_PER_TEXTURE));
+                    setCommon(imageVO, item, i, random);
+                    compositeItemVO.composite.sImages.add(imageVO);
+                }
+            }
+            sceneVO.composite.sComposites.add(compositeItemVO);
+        }
+
+        scenes.put(sceneName, sceneVO);
+        return sceneVO;
+    }
+
+    /**
+     * Generates library item with given number of items, an outer composite holding one nested composite
+     * with half of the items, labels and layers distributed like in {@link #addScene}.
+     */
+    public CompositeItemVO addLibraryItem(String libraryName, int itemCount) {
+        Random random = new Random(itemCount);
+
+        CompositeItemVO libraryItem = new CompositeItemVO();
+        libraryItem.itemName = libraryName;
+        libraryItem.composite = new CompositeVO();
+        addLayers(libraryItem.composite);
+
+        CompositeItemVO nested = new CompositeItemVO();
+        nested.itemName = libraryName + "Nested";
+        nested.layerName = "Default";
+        nested.composite = new CompositeVO();
+        addLayers(nested.composite);
+        libraryItem.composite.sComposites.add(nested);
+
+        for (int item = 0; item < itemCount; item++) {
+            CompositeVO target = item % 2 == 0 ? libraryItem.composite : nested.composite;
+            if(item % 20 == 19) {
+                LabelVO labelVO = new LabelVO();
+                labelVO.text = "Label " + item;
+                labelVO.width = 100;
+                labelVO.height = 20;
+                setCommon(labelVO, item, item, random);
+                target.sLabels.add(labelVO);
+            } else {
+                SimpleImageVO imageVO = new SimpleImageVO();
+                imageVO.imageName = getImageName(random.nextInt(TEXTURE_COUNT * REGIONS_PER_TEXTURE));
+                setCommon(imageVO, item, item, random);
+                target.sImages.add(imageVO);
+            }
+        }
+
+        projectVO.libraryItems.put(libraryName, libraryItem);
+        return libraryItem;
+    }
+
+    private void addLayers(CompositeVO compositeVO) {
+        compositeVO.layers.add(new LayerItemVO("Default"));
+        compositeVO.layers.add(new LayerItemVO("Top"));
+    }
+
+    private void setCommon(MainItemVO vo, int item, int zIndex, Random random) {
+        vo.itemName = "item" + item;
+        vo.layerName = item % 5 == 4 ? "Top" : "Default";
+        vo.x = random.nextFloat() * 800;
+        vo.y = random.nextFloat() * 450;
+        vo.rotation = random.nextInt(4) == 0 ? random.nextFloat() * 360 : 0;
+        vo.zIndex = zIndex;
+    }
+
+    @Override
+    public TextureRegion getTextureRegion(String name) {
+        return regions.get(name);
+    }
+
+    @Override
+    public ParticleEffect getParticleEffect(String name) {
+        return null;
+    }
+
+    @Override
+    public TextureAtlas getSkeletonAtlas(String name) {
+        return null;
+    }
+
+    @Override
+    public FileHandle getSkeletonJSON(String name) {
+        return null;
+    }
+
+    @Override
+    public FileHandle getSCMLFile(String name) {
+        return null;
+    }
+
+    @Override
+    public TextureAtlas getSpriteAnimation(String name) {
+        return null;
+    }
+
+    @Override
+    public BitmapFont getBitmapFont(String name, int size) {
+        return font;
+    }
+
+    @Override
+    public MySkin getSkin() {
+        return null;
+    }
+
+    @Override
+    public SceneVO getSceneVO(String sceneName) {
+        return scenes.get(sceneName);
+    }
+
+    @Override
+    public ProjectInfoVO getProjectVO() {
+        return projectVO;
+    }
+
+    @Override
+    public ResolutionEntryVO getLoadedResolution() {
+        return projectVO.originalResolution;
+    }
+}
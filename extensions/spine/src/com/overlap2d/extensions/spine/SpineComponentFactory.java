@@ -39,6 +39,7 @@ import com.uwsoft.editor.renderer.utils.ComponentRetriever;
 public class SpineComponentFactory extends ComponentFactory {
 
     private SpineObjectComponent spineObjectComponent;
+    private SpineDataCache dataCache;
 
     public SpineComponentFactory() {
         super();
@@ -48,6 +49,15 @@ public class SpineComponentFactory extends ComponentFactory {
         super(rayHandler, world, rm);
     }
 
+    @Override
+    public void injectDependencies(RayHandler rayHandler, World world, IResourceRetriever rm) {
+        super.injectDependencies(rayHandler, world, rm);
+        // cached data belongs to resources of the retriever, so it goes away with it
+        if(dataCache == null || dataCache.getResourceRetriever() != rm) {
+            dataCache = rm != null ? new SpineDataCache(rm) : null;
+        }
+    }
+
     @Override
     public void createComponents(Entity root, Entity entity, MainItemVO vo) {
         createCommonComponents(entity, vo, EntityFactory.SPINE_TYPE);
@@ -60,7 +70,7 @@ public class SpineComponentFactory extends ComponentFactory {
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
 
         entity.add(component);
         return component;
@@ -69,20 +79,23 @@ public class SpineComponentFactory extends ComponentFactory {
     protected SpineObjectComponent createSpineObjectComponent(Entity entity, SpineVO vo) {
         ProjectInfoVO projectInfoVO = rm.getProjectVO();
 
-        SpineObjectComponent component = new SpineObjectComponent();
-        component.skeletonJson = new SkeletonJson(rm.getSkeletonAtlas(vo.animationName));
-        component.skeletonData = component.skeletonJson.readSkeletonData((rm.getSkeletonJSON(vo.animationName)));
+        SpineObjectComponent component = createComponent(SpineObjectComponent.class);
+        // skeleton data, mixing and setup pose bounds are shared by all entities of the animation
+        SpineDataCache.Entry data = dataCache.obtain(vo.animationName);
+        component.skeletonData = data.skeletonData;
 
-        BoneData rootBone = component.skeletonData.getBones().get(0); // this has to be the root bone.
-        rootBone.setScale(vo.scaleX / projectInfoVO.pixelToWorld, vo.scaleY / projectInfoVO.pixelToWorld); // TODO: resolution part and multipliers
         component.skeleton = new Skeleton(component.skeletonData); // Skeleton holds skeleton state (bone positions, slot attachments, etc).
-        AnimationStateData stateData = new AnimationStateData(component.skeletonData); // Defines mixing (crossfading) between animations.
-        component.state = new AnimationState(stateData); // Holds the animation state for a skeleton (current animation, time, etc).
+        // applied to this skeleton's root bone after every pose, shared bone data stays untouched
+        component.scaleX = vo.scaleX / projectInfoVO.pixelToWorld; // TODO: resolution part and multipliers
+        component.scaleY = vo.scaleY / projectInfoVO.pixelToWorld;
+        component.state = new AnimationState(data.stateData); // Holds the animation state for a skeleton (current animation, time, etc).
 
         DimensionsComponent dimensionsComponent = ComponentRetriever.get(entity, DimensionsComponent.class);
-        component.computeBoundBox(dimensionsComponent);
+        component.computeBoundBox(data, dimensionsComponent);
 
         component.setAnimation(vo.currentAnimationName.isEmpty() ? component.skeletonData.getAnimations().get(0).getName() : vo.currentAnimationName);
+        component.apply();
+        component.skeleton.updateWorldTransform();
 
         entity.add(component);
 
@@ -90,7 +103,7 @@ public class SpineComponentFactory extends ComponentFactory {
     }
 
     protected SpineDataComponent createSpineDataComponent(Entity entity, SpineVO vo) {
-        SpineDataComponent component = new SpineDataComponent();
+        SpineDataComponent component = createComponent(SpineDataComponent.class);
         component.animationName = vo.animationName;
 
         component.currentAnimationName = vo.currentAnimationName.isEmpty() ? spineObjectComponent.skeletonData.getAnimations().get(0).getName() : vo.currentAnimationName;
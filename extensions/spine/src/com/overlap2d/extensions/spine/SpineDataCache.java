@@ -0,0 +1,144 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.overlap2d.extensions.spine;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+import com.uwsoft.editor.renderer.resources.IResourceRetriever;
+
+/**
+ * Cache of parsed Spine {@link SkeletonData} of a single resource retriever, keyed by animation name.
+ * Every Spine entity of the same animation shares one entry, so skeleton JSON is parsed and setup pose measured only once,
+ * and spawning only has to create a {@link Skeleton} and an {@link com.esotericsoftware.spine.AnimationState}.
+ * Shared data must not be modified per entity, per entity scale is applied to the root bone of the entity's own skeleton.
+ * Entries of animations the retriever no longer has loaded are dropped the next time an animation is parsed.
+ */
+public class SpineDataCache {
+
+    /**
+     * Shared data of a single Spine animation
+     */
+    public static class Entry {
+        public SkeletonData skeletonData;
+        /** Default mixing between animations, shared by animation states of all entities */
+        public AnimationStateData stateData;
+        /** Setup pose bounds at scale 1, relative to root bone position */
+        public float minX, minY, maxX, maxY;
+        private String animationName;
+        private TextureAtlas atlas;
+    }
+
+    private final IResourceRetriever rm;
+    private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+    /**
+     * @param rm resource retriever providing atlases and JSON of animations
+     */
+    public SpineDataCache(IResourceRetriever rm) {
+        this.rm = rm;
+    }
+
+    public IResourceRetriever getResourceRetriever() {
+        return rm;
+    }
+
+    /**
+     * Returns shared data for animation, parsing skeleton JSON only if it was not done before with the same atlas.
+     *
+     * @param animationName name of Spine animation
+     * @return shared entry
+     */
+    public synchronized Entry obtain(String animationName) {
+        TextureAtlas atlas = rm.getSkeletonAtlas(animationName);
+        Entry entry = entries.get(animationName);
+        // attachments point into the atlas, so data of a reloaded atlas can't be reused
+        if(entry != null && entry.atlas == atlas) return entry;
+
+        removeUnloaded();
+        entry = new Entry();
+        entry.animationName = animationName;
+        entry.atlas = atlas;
+        entry.skeletonData = new SkeletonJson(atlas).readSkeletonData(rm.getSkeletonJSON(animationName));
+        entry.stateData = new AnimationStateData(entry.skeletonData);
+        computeSetupBounds(entry);
+        entries.put(animationName, entry);
+
+        return entry;
+    }
+
+    /**
+     * Drops all cached data, next spawn of every animation parses it again
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Drops entries whose atlas was unloaded or reloaded, so they don't keep skeleton data and old atlas from being collected
+     */
+    private void removeUnloaded() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if(rm.getSkeletonAtlas(entry.animationName) != entry.atlas) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void computeSetupBounds(Entry entry) {
+        Skeleton skeleton = new Skeleton(entry.skeletonData);
+        skeleton.updateWorldTransform();
+        Bone root = skeleton.getRootBone();
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0, n = skeleton.getSlots().size; i < n; i++) {
+            Slot slot = skeleton.getSlots().get(i);
+            Attachment attachment = slot.getAttachment();
+            if (!(attachment instanceof RegionAttachment)) continue;
+            RegionAttachment imageRegion = (RegionAttachment) attachment;
+            imageRegion.updateWorldVertices(slot, false);
+            float[] vertices = imageRegion.getWorldVertices();
+            for (int ii = 0, nn = vertices.length; ii < nn; ii += 5) {
+                minX = Math.min(minX, vertices[ii] - root.getWorldX());
+                minY = Math.min(minY, vertices[ii + 1] - root.getWorldY());
+                maxX = Math.max(maxX, vertices[ii] - root.getWorldX());
+                maxY = Math.max(maxY, vertices[ii + 1] - root.getWorldY());
+            }
+        }
+        if(minX > maxX) {
+            // no region attachments
+            minX = minY = maxX = maxY = 0;
+        }
+        entry.minX = minX;
+        entry.minY = minY;
+        entry.maxX = maxX;
+        entry.maxY = maxY;
+    }
+}
@@ -2,18 +2,19 @@ package com.overlap2d.extensions.spine;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.esotericsoftware.spine.*;
-import com.esotericsoftware.spine.attachments.Attachment;
-import com.esotericsoftware.spine.attachments.RegionAttachment;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 
-public class SpineObjectComponent extends Component {
+public class SpineObjectComponent extends Component implements Poolable {
 	public SkeletonData skeletonData;
 	public Skeleton skeleton;
-	public SkeletonJson skeletonJson;
     public AnimationState state;
     public float minX;
     public float minY;
+    /** Scale of this entity, multiplied into root bone scale every time the skeleton is posed */
+    public float scaleX = 1;
+    public float scaleY = 1;
 
 
     public Array<Animation> getAnimations() {
@@ -28,28 +29,41 @@ public class SpineObjectComponent extends Component {
         return state;
     }
 
-    public void computeBoundBox(DimensionsComponent dimensionsComponent) {
-        skeleton.updateWorldTransform();
-        minX = Float.MAX_VALUE;
-        minY = Float.MAX_VALUE;
-        float maxX = Float.MIN_VALUE, maxY = Float.MIN_VALUE;
-        for (int i = 0, n = skeleton.getSlots().size; i < n; i++) {
-            Slot slot = skeleton.getSlots().get(i);
-            Attachment attachment = slot.getAttachment();
-            if (attachment == null) continue;
-            if (!(attachment instanceof RegionAttachment)) continue;
-            RegionAttachment imageRegion = (RegionAttachment) attachment;
-            imageRegion.updateWorldVertices(slot, false);
-            float[] vertices = imageRegion.getWorldVertices();
-            for (int ii = 0, nn = vertices.length; ii < nn; ii += 5) {
-                minX = Math.min(minX, vertices[ii]);
-                minY = Math.min(minY, vertices[ii + 1]);
-                maxX = Math.max(maxX, vertices[ii]);
-                maxY = Math.max(maxY, vertices[ii + 1]);
-            }
-        }
-
-        dimensionsComponent.width = (maxX - minX);
-        dimensionsComponent.height = (maxY - minY);
+    /**
+     * Poses skeleton by current animations, and scales root bone by scale of this entity.
+     * Scale can't be set on root bone once, as scale timelines overwrite it.
+     */
+    public void apply() {
+        Bone root = skeleton.getRootBone();
+        // without root scale timeline the scale of previous frame would be kept, and multiplied again
+        root.setScale(root.getData().getScaleX(), root.getData().getScaleY());
+        state.apply(skeleton);
+        root.setScale(root.getScaleX() * scaleX, root.getScaleY() * scaleY);
     }
+
+    /**
+     * Sets dimensions from setup pose bounds measured once per animation, scaled by scale of this entity.
+     * Assumes root bone is not rotated in setup pose.
+     */
+    public void computeBoundBox(SpineDataCache.Entry data, DimensionsComponent dimensionsComponent) {
+        Bone root = skeleton.getRootBone();
+        float x1 = root.getX() + data.minX * scaleX, x2 = root.getX() + data.maxX * scaleX;
+        float y1 = root.getY() + data.minY * scaleY, y2 = root.getY() + data.maxY * scaleY;
+        minX = Math.min(x1, x2);
+        minY = Math.min(y1, y2);
+
+        dimensionsComponent.width = Math.abs(x2 - x1);
+        dimensionsComponent.height = Math.abs(y2 - y1);
+    }
+
+	@Override
+	public void reset() {
+		skeletonData = null;
+		skeleton = null;
+		state = null;
+		minX = 0;
+		minY = 0;
+		scaleX = 1;
+		scaleY = 1;
+	}
 }
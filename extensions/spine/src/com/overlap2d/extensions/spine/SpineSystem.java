@@ -6,6 +6,7 @@ import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.uwsoft.editor.renderer.components.SpineDataComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.systems.AnimationLodSystem;
 
 public class SpineSystem extends IteratingSystem {
 
@@ -18,13 +19,15 @@ public class SpineSystem extends IteratingSystem {
 
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
+		deltaTime = AnimationLodSystem.advance(entity, deltaTime);
+		if(deltaTime == AnimationLodSystem.SKIP) return;
 		
 		TransformComponent transformComponent =  transformComponentMapper.get(entity);
 		SpineObjectComponent spineObjectComponent =  spineObjectComponentMapper.get(entity);
 
-		spineObjectComponent.skeleton.updateWorldTransform(); //
 		spineObjectComponent.state.update(deltaTime); // Update the animation time.
-		spineObjectComponent.state.apply(spineObjectComponent.skeleton); // Poses skeleton using current animations. This sets the bones' local SRT.
+		spineObjectComponent.apply(); // Poses skeleton using current animations and entity scale. This sets the bones' local SRT.
 		spineObjectComponent.skeleton.setPosition(transformComponent.x - spineObjectComponent.minX, transformComponent.y - spineObjectComponent.minY);
+		spineObjectComponent.skeleton.updateWorldTransform(); // world transforms drawn this frame follow the new pose
 	}
 }
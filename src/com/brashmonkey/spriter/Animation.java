@@ -90,7 +90,7 @@ public class Animation {
     public void update(int time, Bone root){
     	if(!this.prepared) throw new SpriterException("This animation is not ready yet to animate itself. Please call prepare()!");
     	if(root == null) throw new SpriterException("The root can not be null! Set a root bone to apply this animation relative to the root bone.");
-    	this.currentKey = mainline.getKeyBeforeTime(time);
+    	this.currentKey = mainline.getKeyBeforeTime(time, currentKey);
     	
     	for(Timeline.Key timelineKey: this.unmappedTweenedKeys)
 			timelineKey.active = false;
@@ -197,6 +197,8 @@ public class Animation {
 			this.tweenedKeys[i].setObject(new Timeline.Key.Object(new Point(0,0)));
 			this.unmappedTweenedKeys[i].setObject(new Timeline.Key.Object(new Point(0,0)));
 		}
+		for(Key key: mainline.keys)
+			if(key != null) key.prepare(timelines.length);
 		if(mainline.keys.length > 0) currentKey = mainline.getKey(0);
 		this.prepared = true;
 	}
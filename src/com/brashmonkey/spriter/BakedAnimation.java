@@ -0,0 +1,124 @@
+package com.brashmonkey.spriter;
+
+import com.brashmonkey.spriter.Timeline.Key.Bone;
+import com.brashmonkey.spriter.Timeline.Key.Object;
+
+/**
+ * Holds an {@link Animation} sampled at a fixed rate into flat arrays.
+ * For every sample and every time line the unmapped position, angle, scale, pivot, alpha and file reference are stored,
+ * relative to an identity root (no translation, rotation or scale).
+ * A baked animation does not depend on any {@link Player} state, so one instance can be shared by all players of the animation.
+ * See {@link Player#setBakedEntity(BakedEntity)}.
+ *
+ */
+public class BakedAnimation {
+	
+	static final int X = 0, Y = 1, ANGLE = 2, SCALE_X = 3, SCALE_Y = 4, PIVOT_X = 5, PIVOT_Y = 6, ALPHA = 7, STRIDE = 8;
+	
+	public final Animation animation;
+	public final float framesPerSecond;
+	/**
+	 * The number of sampled intervals, there is one sample more than frames, the last one at {@link Animation#length}.
+	 */
+	public final int frames;
+	final int timelines;
+	final float[] values;
+	final int[] files;
+	final boolean[] active;
+	
+	/**
+	 * Samples the given animation.
+	 * This updates the given animation, so it must not be called while the animation is being updated somewhere else.
+	 * @param animation the animation to sample, has to be prepared
+	 * @param framesPerSecond the sampling rate, has to be positive
+	 */
+	public BakedAnimation(Animation animation, float framesPerSecond){
+		if(framesPerSecond <= 0) throw new SpriterException("framesPerSecond has to be positive!");
+		this.animation = animation;
+		this.framesPerSecond = framesPerSecond;
+		this.frames = Math.max(1, (int)Math.ceil(animation.length*framesPerSecond/1000f));
+		this.timelines = animation.timelines();
+		int samples = (frames+1)*timelines;
+		this.values = new float[samples*STRIDE];
+		this.files = new int[samples*2];
+		this.active = new boolean[samples];
+		
+		Bone root = new Bone(new Point(0,0));
+		for(int frame = 0; frame <= frames; frame++){
+			animation.update(Math.round((float)frame*animation.length/frames), root);
+			for(int t = 0; t < timelines; t++){
+				int sample = frame*timelines+t;
+				Timeline.Key key = animation.unmappedTweenedKeys[t];
+				active[sample] = key.active;
+				if(!key.active) continue;
+				Object object = (Object)key.object();
+				int i = sample*STRIDE;
+				values[i+X] = object.position.x;
+				values[i+Y] = object.position.y;
+				values[i+ANGLE] = object.angle;
+				values[i+SCALE_X] = object.scale.x;
+				values[i+SCALE_Y] = object.scale.y;
+				values[i+PIVOT_X] = object.pivot.x;
+				values[i+PIVOT_Y] = object.pivot.y;
+				values[i+ALPHA] = object.alpha;
+				files[sample*2] = object.ref.folder;
+				files[sample*2+1] = object.ref.file;
+			}
+		}
+	}
+	
+	/**
+	 * Writes the pose of a time line at the given time into the given object, relative to an identity root.
+	 * @param time the animation time, between 0 and {@link Animation#length}
+	 * @param timeline the time line index
+	 * @param interpolate whether to interpolate between the two nearest samples or to take the preceding one
+	 * @param target the object to write to
+	 * @return <code>false</code> if the time line is active in none of the two nearest samples, target is untouched then
+	 */
+	public boolean sample(int time, int timeline, boolean interpolate, Object target){
+		float position = animation.length > 0 ? (float)time*frames/animation.length : 0f;
+		if(position < 0) position = 0;
+		int frame = Math.min((int)position, frames);
+		int next = Math.min(frame+1, frames);
+		int sample = frame*timelines+timeline, nextSample = next*timelines+timeline;
+		if(!active[sample]){
+			if(!active[nextSample]) return false;
+			sample = nextSample;
+		}
+		int i = sample*STRIDE;
+		float alpha = values[i+ALPHA];
+		if(interpolate && sample != nextSample && active[nextSample]){
+			float t = position-frame;
+			int j = nextSample*STRIDE;
+			float angle = values[j+ANGLE]-values[i+ANGLE];
+			// unmapped angles are not normalized, take the shorter way
+			angle -= Math.round(angle/360f)*360f;
+			target.set(values[i+X]+(values[j+X]-values[i+X])*t,
+					values[i+Y]+(values[j+Y]-values[i+Y])*t,
+					values[i+ANGLE]+angle*t,
+					values[i+SCALE_X]+(values[j+SCALE_X]-values[i+SCALE_X])*t,
+					values[i+SCALE_Y]+(values[j+SCALE_Y]-values[i+SCALE_Y])*t,
+					values[i+PIVOT_X]+(values[j+PIVOT_X]-values[i+PIVOT_X])*t,
+					values[i+PIVOT_Y]+(values[j+PIVOT_Y]-values[i+PIVOT_Y])*t,
+					alpha+(values[j+ALPHA]-alpha)*t,
+					files[sample*2], files[sample*2+1]);
+		}
+		else
+			target.set(values[i+X], values[i+Y], values[i+ANGLE], values[i+SCALE_X], values[i+SCALE_Y],
+					values[i+PIVOT_X], values[i+PIVOT_Y], alpha, files[sample*2], files[sample*2+1]);
+		return true;
+	}
+	
+	/**
+	 * Returns the number of bytes held by the sample arrays of this animation.
+	 * @return the size of the sample arrays in bytes
+	 */
+	public int getByteSize(){
+		return values.length*4+files.length*4+active.length;
+	}
+	
+	public String toString(){
+		return getClass().getSimpleName()+"|[animation: "+animation.name+", frames: "+frames+", fps: "+framesPerSecond+"]";
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.brashmonkey.spriter;
+
+import java.util.HashMap;
+
+/**
+ * Holds a {@link BakedAnimation} for every animation of an {@link Entity}, sampled at the same rate.
+ * Can be shared by all players of the entity, see {@link Player#setBakedEntity(BakedEntity)}.
+ *
+ */
+public class BakedEntity {
+	
+	public final Entity entity;
+	public final float framesPerSecond;
+	private final HashMap<Animation, BakedAnimation> animations = new HashMap<Animation, BakedAnimation>();
+	
+	/**
+	 * Samples all animations of the given entity.
+	 * @param entity the entity to bake
+	 * @param framesPerSecond the sampling rate, has to be positive
+	 */
+	public BakedEntity(Entity entity, float framesPerSecond){
+		this.entity = entity;
+		this.framesPerSecond = framesPerSecond;
+		for(int i = 0; i < entity.animations(); i++){
+			Animation animation = entity.getAnimation(i);
+			this.animations.put(animation, new BakedAnimation(animation, framesPerSecond));
+		}
+	}
+	
+	/**
+	 * Returns the baked version of the given animation.
+	 * @param animation the animation
+	 * @return the baked animation or <code>null</code> if the animation is not part of {@link #entity} (e.g. a {@link TweenedAnimation})
+	 */
+	public BakedAnimation getAnimation(Animation animation){
+		return this.animations.get(animation);
+	}
+
+}
@@ -64,6 +64,15 @@ public abstract class Loader<R> {
 	 * @param root the root folder of the previously loaded Spriter SCML file
 	 */
 	public void load(String root){
+		this.loadResources(root);
+		this.finishLoading();
+	}
+	
+	/**
+	 * Loads all resources indicated by {@link #data}, without calling {@link #finishLoading()}.
+	 * @param root the root folder of the previously loaded Spriter SCML file
+	 */
+	protected void loadResources(String root){
 		this.root = root;
 		this.beginLoading();
 		for(Folder folder: data.folders){
@@ -75,7 +84,6 @@ public abstract class Loader<R> {
 			}
 		}
 		this.disposed = false;
-		this.finishLoading();
 	}
 	
 	/**
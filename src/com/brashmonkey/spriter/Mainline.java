@@ -26,6 +26,7 @@ public class Mainline {
     }
     
     public void addKey(Key key){
+    	key.index = keyPointer;
     	this.keys[keyPointer++] = key;
     }
     
@@ -46,12 +47,36 @@ public class Mainline {
      * The first key is returned if no key was found.
      */
     public Key getKeyBeforeTime(int time){
-    	Key found = this.keys[0];
-    	for(Key key: this.keys){
-    		if(key.time <= time) found = key;
-    		else break;
+    	int low = 0, high = this.keys.length-1, found = 0;
+    	while(low <= high){
+    		int mid = (low+high) >>> 1;
+    		if(this.keys[mid].time <= time){
+    			found = mid;
+    			low = mid+1;
+    		}
+    		else high = mid-1;
     	}
-    	return found;
+    	return this.keys[found];
+    }
+    
+    /**
+     * Returns a {@link Key} before the given time, starting the search at the given key.
+     * While playing, time mostly stays within the key found last or moves to one of the next keys,
+     * so these are checked first. Any other time (seeking, looping) falls back to {@link #getKeyBeforeTime(int)}.
+     * @param time the time a key has to be before
+     * @param cursor the key returned by the last lookup, may be <code>null</code> or a key of another mainline
+     * @return a key which has a time value before the given one.
+     * The first key is returned if no key was found.
+     */
+    public Key getKeyBeforeTime(int time, Key cursor){
+    	if(cursor == null || cursor.index < 0 || cursor.index >= keyPointer || this.keys[cursor.index] != cursor || cursor.time > time)
+    		return getKeyBeforeTime(time);
+    	int index = cursor.index;
+    	for(int step = 0; step < 3; step++){
+    		if(index+1 >= keyPointer || this.keys[index+1].time > time) return this.keys[index];
+    		index++;
+    	}
+    	return getKeyBeforeTime(time);
     }
     
     /**
@@ -67,6 +92,8 @@ public class Mainline {
     	final BoneRef[] boneRefs;
     	final ObjectRef[] objectRefs;
     	private int bonePointer = 0, objectPointer = 0;
+    	private int[] boneRefByTimeline, objectRefByTimeline;
+    	int index = -1;
     	public final Curve curve;
     	
     	public Key(int id, int time, Curve curve, int boneRefs, int objectRefs){
@@ -93,6 +120,24 @@ public class Mainline {
     		this.objectRefs[objectPointer++] = ref;
     	}
     	
+    	/**
+    	 * Builds the time line lookup tables used by {@link #getBoneRefTimeline(int)} and {@link #getObjectRefTimeline(int)}.
+    	 * @param timelines the number of time lines of the animation this key belongs to
+    	 */
+    	void prepare(int timelines){
+    		this.boneRefByTimeline = buildTimelineTable(this.boneRefs, timelines);
+    		this.objectRefByTimeline = buildTimelineTable(this.objectRefs, timelines);
+    	}
+    	
+    	private static int[] buildTimelineTable(BoneRef[] refs, int timelines){
+    		int[] table = new int[timelines];
+    		for(int i = 0; i < table.length; i++) table[i] = -1;
+    		// the first reference wins, same as a linear search
+    		for(int i = refs.length-1; i >= 0; i--)
+    			if(refs[i] != null && refs[i].timeline >= 0 && refs[i].timeline < timelines) table[refs[i].timeline] = i;
+    		return table;
+    	}
+    	
     	/**
     	 * Returns a {@link BoneRef} with the given index.
     	 * @param index the index of the bone reference
@@ -128,6 +173,9 @@ public class Mainline {
          * @return the bone reference with the given time line index or null if no reference exists with the given time line index
          */
         public BoneRef getBoneRefTimeline(int timeline){
+        	if(this.boneRefByTimeline != null)
+        		return (timeline < 0 || timeline >= this.boneRefByTimeline.length || this.boneRefByTimeline[timeline] == -1) ?
+        				null : this.boneRefs[this.boneRefByTimeline[timeline]];
     		for(BoneRef boneRef: this.boneRefs)
     			if(boneRef.timeline == timeline) return boneRef;
         	return null;
@@ -148,6 +196,9 @@ public class Mainline {
          * @return the object reference with the given time line index or null if no reference exists with the given time line index
          */
         public ObjectRef getObjectRefTimeline(int timeline){
+        	if(this.objectRefByTimeline != null)
+        		return (timeline < 0 || timeline >= this.objectRefByTimeline.length || this.objectRefByTimeline[timeline] == -1) ?
+        				null : this.objectRefs[this.objectRefByTimeline[timeline]];
     		for(ObjectRef objRef: this.objectRefs)
     			if(objRef.timeline == timeline) return objRef;
         	return null;
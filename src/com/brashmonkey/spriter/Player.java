@@ -47,6 +47,11 @@ public class Player {
 	private ObjectIterator objectIterator;
 	private Mainline.Key currentKey, prevKey;
 	public boolean copyObjects = true;
+	/**
+	 * Whether poses of a baked animation get interpolated between the two nearest samples. See {@link #setBakedEntity(BakedEntity)}.
+	 */
+	public boolean interpolateBaked = true;
+	private BakedEntity bakedEntity;
 	
 	/**
 	 * Creates a {@link Player} instance with the given entity.
@@ -70,21 +75,34 @@ public class Player {
 		for(PlayerListener listener: listeners)
 			listener.preProcess(this);
 		if(dirty) this.updateRoot();
-		this.animation.update(time, root);
-		this.currentKey = this.animation.currentKey;
+		BakedAnimation baked = bakedEntity == null ? null : bakedEntity.getAnimation(animation);
+		if(baked != null){
+			this.currentKey = this.animation.mainline.getKeyBeforeTime(time, currentKey);
+			tweenedKeys = tempTweenedKeys;
+			unmappedTweenedKeys = tempUnmappedTweenedKeys;
+			this.sampleBaked(baked);
+		}
+		else{
+			// the animation may be shared with other players, so continue key lookup from where this player stopped
+			if(this.currentKey != null) this.animation.currentKey = this.currentKey;
+			this.animation.update(time, root);
+			this.currentKey = this.animation.currentKey;
+		}
 		if(prevKey != currentKey){
 			for(PlayerListener listener: listeners)
 				listener.mainlineKeyChanged(prevKey, currentKey);
 			prevKey = currentKey;
 		}
-		if(copyObjects){
-			tweenedKeys = tempTweenedKeys;
-			unmappedTweenedKeys = tempUnmappedTweenedKeys;
-			this.copyObjects();
-		}
-		else{
-			tweenedKeys = animation.tweenedKeys;
-			unmappedTweenedKeys = animation.unmappedTweenedKeys;
+		if(baked == null){
+			if(copyObjects){
+				tweenedKeys = tempTweenedKeys;
+				unmappedTweenedKeys = tempUnmappedTweenedKeys;
+				this.copyObjects();
+			}
+			else{
+				tweenedKeys = animation.tweenedKeys;
+				unmappedTweenedKeys = animation.unmappedTweenedKeys;
+			}
 		}
 		
 		for(Attachment attach: attachments)
@@ -95,6 +113,54 @@ public class Player {
 		this.increaseTime();
 	}
 	
+	/**
+	 * Sets the unmapped time line objects of the current key from the given baked animation, and maps them to the root.
+	 * Applying the root afterwards is exact as long as the root scale is uniform, which {@link #setScale(float)} and {@link #flip(boolean, boolean)} keep.
+	 */
+	private void sampleBaked(BakedAnimation baked){
+		for(Timeline.Key key: unmappedTweenedKeys)
+			key.active = false;
+		float cos = Calculator.cosDeg(root.angle), sin = Calculator.sinDeg(root.angle);
+		float angleSign = Math.signum(root.scale.x)*Math.signum(root.scale.y);
+		for(BoneRef ref: currentKey.boneRefs)
+			sampleBaked(baked, ref.timeline, cos, sin, angleSign);
+		for(ObjectRef ref: currentKey.objectRefs)
+			sampleBaked(baked, ref.timeline, cos, sin, angleSign);
+	}
+	
+	private void sampleBaked(BakedAnimation baked, int timeline, float cos, float sin, float angleSign){
+		Timeline.Key key = unmappedTweenedKeys[timeline];
+		Object object = (Object)key.object();
+		if(!baked.sample(time, timeline, interpolateBaked, object)) return;
+		key.active = true;
+		object.angle = object.angle*angleSign+root.angle;
+		object.scale.scale(root.scale);
+		float x = object.position.x*root.scale.x, y = object.position.y*root.scale.y;
+		object.position.set(x*cos-y*sin+root.position.x, x*sin+y*cos+root.position.y);
+	}
+	
+	/**
+	 * Sets pre-sampled poses for the animations of this player's entity.
+	 * While the current animation has a baked counterpart, {@link #update()} reads the poses of the current time from it,
+	 * instead of tweening all time lines and mapping them through the bone hierarchy.
+	 * Bones and objects changed with {@link #setBone(String, Bone)} or the setObject methods
+	 * are overwritten on every update then.
+	 * @param bakedEntity the baked entity or <code>null</code> to tween animations again
+	 * @throws SpriterException if the baked entity was not baked from the entity of this player
+	 */
+	public void setBakedEntity(BakedEntity bakedEntity){
+		if(bakedEntity != null && bakedEntity.entity != this.entity) throw new SpriterException("baked entity has to be baked from the entity of this player!");
+		this.bakedEntity = bakedEntity;
+	}
+	
+	/**
+	 * Returns the baked animations this player samples poses from.
+	 * @return the baked entity or <code>null</code> if animations get tweened
+	 */
+	public BakedEntity getBakedEntity(){
+		return this.bakedEntity;
+	}
+	
 	private void copyObjects(){
 		for(int i = 0; i < animation.tweenedKeys.length; i++){
 			this.tweenedKeys[i].active = animation.tweenedKeys[i].active;
@@ -150,9 +216,13 @@ public class Player {
 	 * @return the index of the bone or -1 if no bone exists with the given name
 	 */
 	public int getBoneIndex(String name){
-		for(BoneRef ref: getCurrentKey().boneRefs)
-			if(animation.getTimeline(ref.timeline).name.equals(name))
-				return ref.id;
+		Timeline timeline = animation.getTimeline(name);
+		BoneRef ref = timeline == null ? null : getCurrentKey().getBoneRefTimeline(timeline.id);
+		if(ref != null) return ref.id;
+		// the name may belong to an object time line as well, which hides the bone in the name table
+		for(BoneRef boneRef: getCurrentKey().boneRefs)
+			if(animation.getTimeline(boneRef.timeline).name.equals(name))
+				return boneRef.id;
 		return -1;
 	}
 	
@@ -183,9 +253,13 @@ public class Player {
 	 * @return the index of the object or -1 if no object exists with the given name
 	 */
 	public int getObjectIndex(String name){
-		for(ObjectRef ref: getCurrentKey().objectRefs)
-			if(animation.getTimeline(ref.timeline).name.equals(name))
-				return ref.id;
+		Timeline timeline = animation.getTimeline(name);
+		ObjectRef ref = timeline == null ? null : getCurrentKey().getObjectRefTimeline(timeline.id);
+		if(ref != null) return ref.id;
+		// the name may belong to a bone time line as well, which hides the object in the name table
+		for(ObjectRef objectRef: getCurrentKey().objectRefs)
+			if(animation.getTimeline(objectRef.timeline).name.equals(name))
+				return objectRef.id;
 		return -1;
 	}
 	
@@ -553,6 +627,7 @@ public class Player {
 	public void setEntity(Entity entity){
 		if(entity == null) throw new SpriterException("entity can not be null!");
 		this.entity = entity;
+		if(bakedEntity != null && bakedEntity.entity != entity) bakedEntity = null;
 		int maxAnims = entity.getAnimationWithMostTimelines().timelines();
 		tweenedKeys = new Timeline.Key[maxAnims];
 		unmappedTweenedKeys = new Timeline.Key[maxAnims];
@@ -0,0 +1,209 @@
+package com.uwsoft.editor.renderer;
+
+import java.util.ArrayList;
+
+import com.badlogic.ashley.core.ComponentType;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.uwsoft.editor.renderer.components.*;
+import com.uwsoft.editor.renderer.components.physics.PhysicsBodyPropertiesComponent;
+import com.uwsoft.editor.renderer.components.sprite.AnimationComponent;
+import com.uwsoft.editor.renderer.components.sprite.SpriteAnimationComponent;
+import com.uwsoft.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import com.uwsoft.editor.renderer.data.CompositeItemVO;
+import com.uwsoft.editor.renderer.data.CompositeVO;
+import com.uwsoft.editor.renderer.data.MainItemVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.factory.EntityFactory;
+import com.uwsoft.editor.renderer.resources.AsyncResourceManager;
+import com.uwsoft.editor.renderer.resources.IResourceRetriever;
+
+/**
+ * Scene built in background as a detached entity tree, ready to be swapped into the engine of a {@link SceneLoader}
+ * with {@link SceneLoader#swapScene(PreparedScene)}. Created by {@link SceneLoader#prepareScene(String, Viewport)}.
+ *
+ * If resources are loaded by {@link AsyncResourceManager}, scene assets are loaded first, by {@link #update(int)} calls.
+ * Then all entities that don't need the render thread (images, nine patches, sprite animations, composites)
+ * are created on a worker thread, without being added to engine.
+ * Lights (which create meshes), Spriter animations (which may pack textures), labels and particle effects (which use
+ * pools shared with the running scene) and external item types are only recorded, and created during the swap.
+ * Viewport is not touched before the swap, as the running scene may still render with it.
+ */
+public class PreparedScene {
+
+	private final String sceneName;
+	private final IResourceRetriever rm;
+	private final EntityFactory entityFactory;
+	private final EntityFactory workerFactory;
+	final Viewport viewport;
+
+	SceneVO sceneVO;
+	Entity root;
+	/** Entities created on the worker, parents before children, without root */
+	final Array<Entity> entities = new Array<Entity>();
+	/** Parent and item data of every entity left for the render thread, in pairs */
+	final Array<Object> deferred = new Array<Object>();
+	/** Index each deferred entity has among children of its parent when the scene is loaded directly, in increasing order per parent */
+	final IntArray deferredIndices = new IntArray();
+
+	/** Worker thread of this scene, disposed once the scene is prepared */
+	private AsyncExecutor executor;
+	private AsyncResult<Void> result;
+	private long prepareNanos;
+
+	/**
+	 * @param entityFactory factory of the scene loader, root is created by it on the render thread
+	 * @param workerFactory factory used only by the worker thread
+	 */
+	PreparedScene(String sceneName, Viewport viewport, IResourceRetriever rm, EntityFactory entityFactory, EntityFactory workerFactory) {
+		this.sceneName = sceneName;
+		this.viewport = viewport;
+		this.rm = rm;
+		this.entityFactory = entityFactory;
+		this.workerFactory = workerFactory;
+	}
+
+	/**
+	 * Continues preparation, must be called on the render thread every frame until it returns true.
+	 *
+	 * @param budgetMillis time that can be spent on texture uploads in this call, if assets are still being loaded
+	 * @return true if scene is ready to be swapped
+	 */
+	public boolean update(int budgetMillis) {
+		if(result == null) {
+			if(rm instanceof AsyncResourceManager && !((AsyncResourceManager) rm).update(budgetMillis)) {
+				return false;
+			}
+			start();
+			return false;
+		}
+		if(!result.isDone()) {
+			return false;
+		}
+		finish();
+		return true;
+	}
+
+	/**
+	 * Blocks until scene is ready to be swapped
+	 */
+	public void finish() {
+		if(result == null) {
+			if(rm instanceof AsyncResourceManager) ((AsyncResourceManager) rm).finishLoading();
+			start();
+		}
+		try {
+			// rethrows what failed on the worker
+			result.get();
+		} finally {
+			if(executor != null) {
+				executor.dispose();
+				executor = null;
+			}
+		}
+	}
+
+	private void start() {
+		sceneVO = rm.getSceneVO(sceneName);
+		if(sceneVO == null) throw new GdxRuntimeException("Scene " + sceneName + " is not loaded");
+		if(sceneVO.composite == null) sceneVO.composite = new CompositeVO();
+		// viewport may be the one current scene renders with, it is updated by the swap
+		root = entityFactory.createRootEntity(sceneVO.composite, viewport, false);
+
+		registerComponentTypes();
+		executor = new AsyncExecutor(1);
+		result = executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				long start = TimeUtils.nanoTime();
+				build(root, sceneVO.composite);
+				prepareNanos = TimeUtils.nanoTime() - start;
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Ashley assigns component types in a static map that is not synchronized, so all types the worker adds
+	 * are assigned here on the render thread, and the worker only reads them
+	 */
+	private static void registerComponentTypes() {
+		ComponentType.getFor(BoundingBoxComponent.class);
+		ComponentType.getFor(CompositeTransformComponent.class);
+		ComponentType.getFor(DimensionsComponent.class);
+		ComponentType.getFor(LayerMapComponent.class);
+		ComponentType.getFor(MainItemComponent.class);
+		ComponentType.getFor(NinePatchComponent.class);
+		ComponentType.getFor(NodeComponent.class);
+		ComponentType.getFor(ParentNodeComponent.class);
+		ComponentType.getFor(PolygonComponent.class);
+		ComponentType.getFor(ScriptComponent.class);
+		ComponentType.getFor(TextureRegionComponent.class);
+		ComponentType.getFor(TintComponent.class);
+		ComponentType.getFor(TransformComponent.class);
+		ComponentType.getFor(ZIndexComponent.class);
+		ComponentType.getFor(PhysicsBodyPropertiesComponent.class);
+		ComponentType.getFor(AnimationComponent.class);
+		ComponentType.getFor(SpriteAnimationComponent.class);
+		ComponentType.getFor(SpriteAnimationStateComponent.class);
+	}
+
+	/**
+	 * Creates children in the same order as {@link EntityFactory#initAllChildren}, so deferred ones can be put back to their place
+	 */
+	private void build(Entity parent, CompositeVO vo) {
+		for (int i = 0; i < vo.sImages.size(); i++) {
+			entities.add(workerFactory.createEntity(parent, vo.sImages.get(i)));
+		}
+		for (int i = 0; i < vo.sImage9patchs.size(); i++) {
+			entities.add(workerFactory.createEntity(parent, vo.sImage9patchs.get(i)));
+		}
+		int index = vo.sImages.size() + vo.sImage9patchs.size();
+		index = defer(parent, vo.sLabels, index);
+		index = defer(parent, vo.sParticleEffects, index);
+		index = defer(parent, vo.sLights, index);
+		index = defer(parent, vo.sSpineAnimations, index);
+		for (int i = 0; i < vo.sSpriteAnimations.size(); i++) {
+			entities.add(workerFactory.createEntity(parent, vo.sSpriteAnimations.get(i)));
+		}
+		index += vo.sSpriteAnimations.size();
+		defer(parent, vo.sSpriterAnimations, index);
+		for (int i = 0; i < vo.sComposites.size(); i++) {
+			CompositeItemVO compositeVO = vo.sComposites.get(i);
+			Entity child = workerFactory.createEntity(parent, compositeVO);
+			entities.add(child);
+			build(child, compositeVO.composite);
+		}
+	}
+
+	/**
+	 * @param index child index of the first item
+	 * @return child index after the items
+	 */
+	private int defer(Entity parent, ArrayList<? extends MainItemVO> items, int index) {
+		for (int i = 0; i < items.size(); i++) {
+			deferred.add(parent);
+			deferred.add(items.get(i));
+			deferredIndices.add(index++);
+		}
+		return index;
+	}
+
+	public String getSceneName() {
+		return sceneName;
+	}
+
+	/**
+	 * @return time spent creating entities on the worker thread, in milliseconds
+	 */
+	public float getPrepareMillis() {
+		return prepareNanos / 1000000f;
+	}
+}
@@ -1,29 +1,43 @@
 package com.uwsoft.editor.renderer;
 
+import java.util.HashMap;
+
 import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.uwsoft.editor.renderer.commons.IExternalItemType;
 import com.uwsoft.editor.renderer.components.*;
 import com.uwsoft.editor.renderer.components.light.LightObjectComponent;
+import com.uwsoft.editor.renderer.components.physics.PhysicsBodyComponent;
+import com.uwsoft.editor.renderer.components.spriter.SpriterComponent;
 import com.uwsoft.editor.renderer.data.*;
 import com.uwsoft.editor.renderer.factory.EntityFactory;
+import com.uwsoft.editor.renderer.factory.EntityPrefab;
+import com.uwsoft.editor.renderer.resources.AsyncResourceManager;
 import com.uwsoft.editor.renderer.resources.IResourceRetriever;
 import com.uwsoft.editor.renderer.resources.ResourceManager;
+import com.uwsoft.editor.renderer.resources.SpriterDataCache;
 import com.uwsoft.editor.renderer.scripts.IScript;
 import com.uwsoft.editor.renderer.systems.*;
 import com.uwsoft.editor.renderer.systems.render.Overlap2dRenderer;
 import com.uwsoft.editor.renderer.utils.ComponentRetriever;
+import com.uwsoft.editor.renderer.utils.SceneIndex;
 
 /**
  * SceneLoader is important part of runtime that utilizes provided
@@ -33,6 +47,9 @@ import com.uwsoft.editor.renderer.utils.ComponentRetriever;
  */
 public class SceneLoader {
 
+	/** Maximum number of free entities, and of free components of each type, kept in pools of pooled scene loader */
+	public static final int MAX_POOL_SIZE = 4096;
+
 	private String curResolution = "orig";
 	private SceneVO sceneVO;
 	private IResourceRetriever rm = null;
@@ -45,9 +62,21 @@ public class SceneLoader {
 	public EntityFactory entityFactory;
 
 	private float pixesPerWU = 1;
+	private float lastSceneStallMillis;
 	private Overlap2dRenderer renderer;
+	private SpatialIndexSystem spatialIndexSystem;
+	private AnimationLodSystem animationLodSystem;
+	private SceneStreamer sceneStreamer;
 	private Entity root;
 
+	private HashMap<String, EntityPrefab> libraryPrefabs = new HashMap<String, EntityPrefab>();
+
+	private final SceneIndex sceneIndex = new SceneIndex();
+
+	private final Array<Entity> removalBatch = new Array<Entity>();
+	private final ObjectSet<Entity> removalSet = new ObjectSet<Entity>();
+	private final ObjectSet<Entity> removalParents = new ObjectSet<Entity>();
+
 	public SceneLoader() {
 		ResourceManager rm = new ResourceManager();
         rm.initAllResources();
@@ -59,10 +88,18 @@ public class SceneLoader {
     }
 
     public SceneLoader(IResourceRetriever rm) {
-        this.engine = new Engine();
+        this(rm, false);
+    }
+
+	/**
+	 * @param pooled if true, entities and components are obtained from pools and returned to them when removed from engine,
+	 *               so spawning and removing entities does not allocate. Removed entities must not be used afterwards.
+	 */
+	public SceneLoader(IResourceRetriever rm, boolean pooled) {
+		this.engine = pooled ? new HierarchyPooledEngine(MAX_POOL_SIZE) : new Engine();
 		this.rm = rm;
 		initSceneLoader();
-    }
+	}
 
 	/**
 	 * this method is called when rm has loaded all data
@@ -81,8 +118,15 @@ public class SceneLoader {
         addSystems();
 
         entityFactory = new EntityFactory(rayHandler, world, rm);
+        if(isPooled()) {
+            entityFactory.setPooledEngine((PooledEngine) engine);
+        }
     }
 
+	public boolean isPooled() {
+		return engine instanceof PooledEngine;
+	}
+
 	public void setResolution(String resolutionName) {
 		ResolutionEntryVO resolution = getRm().getProjectVO().getResolution(resolutionName);
 		if(resolution != null) {
@@ -96,10 +140,13 @@ public class SceneLoader {
 	}
 
 	public SceneVO loadScene(String sceneName, Viewport viewport) {
+		long start = TimeUtils.nanoTime();
 
 		pixesPerWU = rm.getProjectVO().pixelToWorld;
 
-		engine.removeAllEntities();
+		clearScene();
+		// resources may have been reloaded for this scene
+		clearLibraryPrefabs();
 
 		sceneVO = rm.getSceneVO(sceneName);
 
@@ -115,9 +162,154 @@ public class SceneLoader {
 
 		setAmbienceInfo(sceneVO);
 
+		lastSceneStallMillis = (TimeUtils.nanoTime() - start) / 1000000f;
+		return sceneVO;
+	}
+
+	/**
+	 * Loads only root of the scene, top level items are instantiated and removed by chunks around the camera,
+	 * see {@link SceneStreamer}. Meant for scenes too big to keep all of their entities and assets loaded at once.
+	 * Scene data has to be loaded, with ResourceManager the scene is unscheduled, so its assets are only loaded for chunks
+	 * that need them. Schedule it again (for example with {@link ResourceManager#initScene(String)}) to load it whole later.
+	 *
+	 * @param chunkSize side of square chunks top level items are sorted into by their position, in world units
+	 */
+	public SceneStreamer loadSceneStreamed(String sceneName, Viewport viewport, float chunkSize) {
+		long start = TimeUtils.nanoTime();
+
+		pixesPerWU = rm.getProjectVO().pixelToWorld;
+
+		clearScene();
+		clearLibraryPrefabs();
+
+		sceneVO = rm.getSceneVO(sceneName);
+		if(rm instanceof ResourceManager) {
+			// scheduled scene would keep all of its assets loaded, they are released by first streamer update
+			((ResourceManager) rm).unScheduleScene(sceneName);
+		}
+
+		if(sceneVO.composite == null) {
+			sceneVO.composite = new CompositeVO();
+		}
+		rootEntity = entityFactory.createRootEntity(sceneVO.composite, viewport);
+		engine.addEntity(rootEntity);
+
+		sceneStreamer = new SceneStreamer(this, rm, sceneVO.composite, chunkSize);
+		engine.addSystem(sceneStreamer);
+
+		setAmbienceInfo(sceneVO);
+
+		lastSceneStallMillis = (TimeUtils.nanoTime() - start) / 1000000f;
+		return sceneStreamer;
+	}
+
+	/**
+	 * Starts building scene in background, while current scene keeps running.
+	 * Call {@link PreparedScene#update(int)} every frame until it returns true, and then {@link #swapScene(PreparedScene)}.
+	 * If resource manager is {@link AsyncResourceManager}, scene assets are loaded by those update calls too,
+	 * otherwise they must already be loaded.
+	 *
+	 * @param viewport viewport of the new scene, can be the one of current scene
+	 */
+	public PreparedScene prepareScene(String sceneName, Viewport viewport) {
+		if(rm instanceof AsyncResourceManager && rm.getSceneVO(sceneName) == null) {
+			((AsyncResourceManager) rm).initSceneAsync(sceneName);
+		}
+		// worker has its own factory, entities it creates are not pooled
+		EntityFactory workerFactory = new EntityFactory(rayHandler, world, rm);
+		return new PreparedScene(sceneName, viewport, rm, entityFactory, workerFactory);
+	}
+
+	/**
+	 * Replaces current scene with the prepared one. Only removal of current scene, adding of prepared entities to engine
+	 * and creation of entities that need the render thread happen here, see {@link #getLastSceneStallMillis()}.
+	 * Blocks until scene is prepared, if it is not yet, the time spent waiting counts into the stall.
+	 */
+	public SceneVO swapScene(PreparedScene scene) {
+		long start = TimeUtils.nanoTime();
+		scene.finish();
+
+		pixesPerWU = rm.getProjectVO().pixelToWorld;
+
+		clearScene();
+		clearLibraryPrefabs();
+
+		sceneVO = scene.sceneVO;
+		rootEntity = scene.root;
+		// left as it was while the previous scene used it
+		scene.viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
+		engine.addEntity(rootEntity);
+
+		Array<Entity> entities = scene.entities;
+		for (int i = 0; i < entities.size; i++) {
+			Entity entity = entities.get(i);
+			// unique ids given by worker factory mean nothing here
+			entityFactory.postProcessEntity(entity);
+			engine.addEntity(entity);
+		}
+
+		Array<Object> deferred = scene.deferred;
+		// deferred items of one parent are next to each other, those that did not become children shift the following ones
+		Entity lastParent = null;
+		int missing = 0;
+		for (int i = 0; i < deferred.size; i += 2) {
+			Entity parent = (Entity) deferred.get(i);
+			if(parent != lastParent) {
+				lastParent = parent;
+				missing = 0;
+			}
+			Entity entity = createDeferredEntity(parent, (MainItemVO) deferred.get(i + 1));
+			// factory appended it after the worker built children, move it where loadScene would have created it
+			if(entity == null || !moveChild(parent, entity, scene.deferredIndices.get(i / 2) - missing)) missing++;
+			if(entity != null) engine.addEntity(entity);
+		}
+
+		setAmbienceInfo(sceneVO);
+
+		lastSceneStallMillis = (TimeUtils.nanoTime() - start) / 1000000f;
 		return sceneVO;
 	}
 
+	private void clearScene() {
+		if(sceneStreamer != null) {
+			engine.removeSystem(sceneStreamer);
+			sceneStreamer.releaseAll();
+			sceneStreamer = null;
+		}
+		// scene tree goes first in one batch, one by one every child would be searched for in its parent
+		if(rootEntity != null && engine.getEntity(rootEntity.getId()) == rootEntity) {
+			removeSubtree(rootEntity);
+		}
+		engine.removeAllEntities();
+	}
+
+	/**
+	 * @return false if entity is not a child of the parent
+	 */
+	private boolean moveChild(Entity parent, Entity child, int index) {
+		SnapshotArray<Entity> children = parent.getComponent(NodeComponent.class).children;
+		if(children.size > 0 && children.peek() == child) children.pop();
+		else if(!children.removeValue(child, true)) return false;
+		children.insert(Math.min(index, children.size), child);
+		return true;
+	}
+
+	private Entity createDeferredEntity(Entity parent, MainItemVO vo) {
+		if(vo instanceof LabelVO) return entityFactory.createEntity(parent, (LabelVO) vo);
+		if(vo instanceof ParticleEffectVO) return entityFactory.createEntity(parent, (ParticleEffectVO) vo);
+		if(vo instanceof LightVO) return entityFactory.createEntity(parent, (LightVO) vo);
+		if(vo instanceof SpineVO) return entityFactory.createEntity(parent, (SpineVO) vo);
+		if(vo instanceof SpriterVO) return entityFactory.createEntity(parent, (SpriterVO) vo);
+		return null;
+	}
+
+	/**
+	 * @return time in milliseconds the last {@link #loadScene} or {@link #swapScene} call took, during which nothing could be rendered
+	 */
+	public float getLastSceneStallMillis() {
+		return lastSceneStallMillis;
+	}
+
 	public SceneVO loadScene(String sceneName) {
 		ProjectInfoVO projectVO = rm.getProjectVO();
 		Viewport viewport = new ScalingViewport(Scaling.stretch, (float)projectVO.originalResolution.width/pixesPerWU, (float)projectVO.originalResolution.height/pixesPerWU, new OrthographicCamera());
@@ -140,21 +332,33 @@ public class SceneLoader {
 		PhysicsSystem physicsSystem = new PhysicsSystem();
 		CompositeSystem compositeSystem = new CompositeSystem();
 		LabelSystem labelSystem = new LabelSystem();
+		SpriterSystem spriterSystem = new SpriterSystem();
         ScriptSystem scriptSystem = new ScriptSystem();
+		TransformSystem transformSystem = new TransformSystem();
+		spatialIndexSystem = new SpatialIndexSystem();
+		animationLodSystem = new AnimationLodSystem();
 		renderer = new Overlap2dRenderer(new PolygonSpriteBatch());
 		renderer.setRayHandler(rayHandler);
 		
+		// decides which animations are advanced this frame, so it runs before all of them
+		engine.addSystem(animationLodSystem);
 		engine.addSystem(animationSystem);
-		engine.addSystem(particleSystem);
-		engine.addSystem(lightSystem);
 		engine.addSystem(layerSystem);
 		engine.addSystem(physicsSystem);
-		engine.addSystem(compositeSystem);
 		engine.addSystem(labelSystem);
         engine.addSystem(scriptSystem);
+		engine.addSystem(spriterSystem);
+		// world transforms are updated after everything that moves entities, and before everything that reads them
+		engine.addSystem(transformSystem);
+		// fits composites to children moved, resized, added or removed this frame, as reported by transform system
+		engine.addSystem(compositeSystem);
+		engine.addSystem(spatialIndexSystem);
+		engine.addSystem(particleSystem);
+		engine.addSystem(lightSystem);
 		engine.addSystem(renderer);
 
 		addEntityRemoveListener();
+		engine.addEntityListener(sceneIndex);
 	}
 
 	private void addEntityRemoveListener() {
@@ -184,6 +388,8 @@ public class SceneLoader {
 
 			@Override
 			public void entityRemoved(Entity entity) {
+				entityFactory.removeFromMap(entity);
+
 				ParentNodeComponent parentComponent = ComponentRetriever.get(entity, ParentNodeComponent.class);
 
 				if (parentComponent == null) {
@@ -191,8 +397,12 @@ public class SceneLoader {
 				}
 
 				Entity parentEntity = parentComponent.parentEntity;
-				NodeComponent parentNodeComponent = ComponentRetriever.get(parentEntity, NodeComponent.class);
-				parentNodeComponent.removeChild(entity);
+				if (parentEntity != null) {
+					NodeComponent parentNodeComponent = ComponentRetriever.get(parentEntity, NodeComponent.class);
+					if (parentNodeComponent != null) {
+						parentNodeComponent.removeChild(entity);
+					}
+				}
 
 				// check if composite and remove all children
 				NodeComponent nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
@@ -208,22 +418,171 @@ public class SceneLoader {
                 if(lightObjectComponent != null) {
                     lightObjectComponent.lightObject.remove(true);
                 }
+
+                // destroy physics body, it is not owned by anything else
+                PhysicsBodyComponent physicsBodyComponent = ComponentRetriever.get(entity, PhysicsBodyComponent.class);
+                if(physicsBodyComponent != null && physicsBodyComponent.body != null) {
+                    physicsBodyComponent.body.getWorld().destroyBody(physicsBodyComponent.body);
+                    physicsBodyComponent.body = null;
+                }
+
+                // release shared spriter data
+                SpriterComponent spriterComponent = ComponentRetriever.get(entity, SpriterComponent.class);
+                if(spriterComponent != null) {
+                    SpriterDataCache.release(spriterComponent.animationName);
+                }
 			}
 		});
 	}
 
+	/**
+	 * Removes entity and all of its descendants from engine. Same as {@link Engine#removeEntity(Entity)},
+	 * but parent children array is compacted once, instead of removing every entity from it one by one.
+	 */
+	public void removeSubtree(Entity entity) {
+		collectSubtree(entity);
+		removeCollected();
+	}
+
+	/**
+	 * Removes all given entities and their descendants from engine at once, compacting children array
+	 * of every remaining parent in a single pass. Use it for mass despawns, e.g. when clearing big composites.
+	 */
+	public void removeAll(Iterable<Entity> entities) {
+		for (Entity entity : entities) {
+			collectSubtree(entity);
+		}
+		removeCollected();
+	}
+
+	private void collectSubtree(Entity entity) {
+		if(!removalSet.add(entity)) return;
+		removalBatch.add(entity);
+		NodeComponent nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
+		if(nodeComponent != null) {
+			for (int i = 0; i < nodeComponent.children.size; i++) {
+				collectSubtree(nodeComponent.children.get(i));
+			}
+		}
+	}
+
+	private void removeCollected() {
+		// detach every collected entity whose parent stays, each of those parents is compacted only once
+		for (int i = 0; i < removalBatch.size; i++) {
+			Entity entity = removalBatch.get(i);
+			ParentNodeComponent parentNodeComponent = ComponentRetriever.get(entity, ParentNodeComponent.class);
+			if(parentNodeComponent == null || parentNodeComponent.parentEntity == null) continue;
+			Entity parent = parentNodeComponent.parentEntity;
+			if(removalSet.contains(parent)) continue;
+			if(removalParents.add(parent)) {
+				NodeComponent nodeComponent = ComponentRetriever.get(parent, NodeComponent.class);
+				if(nodeComponent != null) nodeComponent.removeChildren(removalSet);
+			}
+			parentNodeComponent.parentEntity = null;
+		}
+
+		// everything below is removed too, so nothing has to be taken out of child arrays one by one
+		for (int i = 0; i < removalBatch.size; i++) {
+			NodeComponent nodeComponent = ComponentRetriever.get(removalBatch.get(i), NodeComponent.class);
+			if(nodeComponent != null) nodeComponent.children.clear();
+		}
+
+		// parents first, the order entities were added in, engine looks up every removed entity from the front of its arrays
+		for (int i = 0; i < removalBatch.size; i++) {
+			engine.removeEntity(removalBatch.get(i));
+		}
+
+		removalBatch.clear();
+		removalSet.clear();
+		removalParents.clear();
+	}
+
+	/**
+	 * Pooled engine resets entities right after they are removed, so children of a composite are removed
+	 * together with it, instead of being scheduled for later when their parent is already reused.
+	 */
+	private static class HierarchyPooledEngine extends PooledEngine {
+		HierarchyPooledEngine(int maxPoolSize) {
+			super(10, maxPoolSize, 10, maxPoolSize);
+		}
+
+		@Override
+		protected void removeEntityInternal(Entity entity) {
+			NodeComponent nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
+			if (nodeComponent != null) {
+				Entity[] children = nodeComponent.children.begin();
+				for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+					Entity child = children[i];
+					if (child.isScheduledForRemoval()) {
+						// will be removed by its own pending operation, after this entity is gone
+						ParentNodeComponent parentNodeComponent = ComponentRetriever.get(child, ParentNodeComponent.class);
+						if (parentNodeComponent != null) parentNodeComponent.parentEntity = null;
+						nodeComponent.removeChild(child);
+					} else if (getEntity(child.getId()) == child) {
+						removeEntityInternal(child);
+					}
+				}
+				nodeComponent.children.end();
+			}
+			super.removeEntityInternal(entity);
+		}
+	}
+
 	public Entity loadFromLibrary(String libraryName) {
-		ProjectInfoVO projectInfoVO = getRm().getProjectVO();
-		CompositeItemVO compositeItemVO = projectInfoVO.libraryItems.get(libraryName);
+		EntityPrefab prefab = getLibraryPrefab(libraryName);
 
-		if(compositeItemVO != null) {
-			Entity entity = entityFactory.createEntity(null, compositeItemVO);
+		if(prefab != null) {
+			Entity entity = prefab.createRoot(null);
 			return entity;
 		}
 
 		return null;
 	}
 
+	/**
+	 * Creates complete instance of library item, with all of its children, and adds it to engine.
+	 *
+	 * @param libraryName name of library item
+	 * @param parent composite to add instance to, or null
+	 * @return root entity of the instance, or null if there is no such library item
+	 */
+	public Entity instantiateFromLibrary(String libraryName, Entity parent) {
+		EntityPrefab prefab = getLibraryPrefab(libraryName);
+		if(prefab == null) {
+			return null;
+		}
+		return prefab.instantiate(engine, parent);
+	}
+
+	/**
+	 * Returns compiled prefab of library item, compiling it on first use
+	 *
+	 * @param libraryName name of library item
+	 * @return prefab, or null if there is no such library item
+	 */
+	public EntityPrefab getLibraryPrefab(String libraryName) {
+		EntityPrefab prefab = libraryPrefabs.get(libraryName);
+		if(prefab == null) {
+			CompositeItemVO compositeItemVO = getRm().getProjectVO().libraryItems.get(libraryName);
+			if(compositeItemVO == null) {
+				return null;
+			}
+			prefab = entityFactory.createPrefab(compositeItemVO);
+			libraryPrefabs.put(libraryName, prefab);
+		}
+		return prefab;
+	}
+
+	/**
+	 * Disposes compiled library prefabs, must be called when resources they use are reloaded
+	 */
+	public void clearLibraryPrefabs() {
+		for (EntityPrefab prefab : libraryPrefabs.values()) {
+			prefab.dispose();
+		}
+		libraryPrefabs.clear();
+	}
+
 	/**
 	 * Sets ambient light to the one specified in scene from editor
 	 *
@@ -258,4 +617,32 @@ public class SceneLoader {
 	public Entity getRoot() {
 		return rootEntity;
 	}
+
+	/**
+	 * @return index of entities in engine by item identifier path, tag and library link
+	 */
+	public SceneIndex getSceneIndex() {
+		return sceneIndex;
+	}
+
+	/**
+	 * @return system answering point, rectangle and radius queries against world bounds of entities
+	 */
+	public SpatialIndexSystem getSpatialIndex() {
+		return spatialIndexSystem;
+	}
+
+	/**
+	 * @return system deciding how often animations outside of the view are advanced, disabled until {@link AnimationLodSystem#setEnabled(boolean)} is called
+	 */
+	public AnimationLodSystem getAnimationLod() {
+		return animationLodSystem;
+	}
+
+	/**
+	 * @return streamer of the scene loaded by {@link #loadSceneStreamed}, null if current scene is not streamed
+	 */
+	public SceneStreamer getSceneStreamer() {
+		return sceneStreamer;
+	}
 }
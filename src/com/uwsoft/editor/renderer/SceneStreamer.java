@@ -0,0 +1,350 @@
+package com.uwsoft.editor.renderer;
+
+import java.util.ArrayList;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ViewPortComponent;
+import com.uwsoft.editor.renderer.data.*;
+import com.uwsoft.editor.renderer.resources.AsyncResourceManager;
+import com.uwsoft.editor.renderer.resources.IResourceRetriever;
+import com.uwsoft.editor.renderer.resources.ResourceManager;
+
+/**
+ * Streams items of a big scene by spatial chunks, created by {@link SceneLoader#loadSceneStreamed}.
+ * Top level items of the scene are sorted into a grid of square chunks by their position. Chunks whose items get within
+ * load distance of the camera view are instantiated, and chunks farther than unload distance are removed again,
+ * the gap between the two keeps chunks on the border from being loaded and unloaded every other frame.
+ * Distances are measured from bounds of the chunk items, so items bigger than a chunk are loaded as soon as any part of them
+ * gets close. Sizes of sprite, Spine and Spriter animations are not known before they are loaded, they count as points.
+ *
+ * If resource manager is a {@link ResourceManager}, assets of every chunk are retained while it is loaded,
+ * so only assets of chunks around the camera are in memory (main pack is always loaded).
+ * With {@link AsyncResourceManager} chunks are instantiated once their assets are loaded in background.
+ * Chunks are instantiated from scene data every time, changes made to their entities are not kept after unloading.
+ */
+public class SceneStreamer extends EntitySystem {
+
+	private static final int UNLOADED = 0;
+	private static final int LOADING = 1;
+	private static final int LOADED = 2;
+
+	private static class Chunk {
+		final int x, y;
+		/** Grid cell of the chunk merged with bounds of all of its items */
+		final Rectangle bounds = new Rectangle();
+		/** Items of the chunk, in the same lists as in scene composite */
+		final CompositeVO composite = new CompositeVO();
+		/** Unique ids of top level entities, entities removed meanwhile are not found by them anymore */
+		final IntArray entityIds = new IntArray();
+		int state = UNLOADED;
+
+		Chunk(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		float getOverhang(float chunkSize) {
+			float left = x * chunkSize - bounds.x;
+			float bottom = y * chunkSize - bounds.y;
+			float right = bounds.x + bounds.width - (x + 1) * chunkSize;
+			float top = bounds.y + bounds.height - (y + 1) * chunkSize;
+			return Math.max(Math.max(left, bottom), Math.max(right, top));
+		}
+	}
+
+	/** Time that can be spent uploading chunk assets every frame, when they are loaded by AsyncResourceManager */
+	public int assetBudgetMillis = 4;
+
+	private final SceneLoader sceneLoader;
+	private final IResourceRetriever rm;
+	private final float chunkSize;
+	/** How far bounds of any chunk reach out of its grid cell */
+	private float overhang;
+	private final float imageMultiplier;
+	private float loadDistance;
+	private float unloadDistance;
+
+	private final LongMap<Chunk> chunks = new LongMap<Chunk>();
+	/** Chunks that are loading or loaded */
+	private final Array<Chunk> activeChunks = new Array<Chunk>();
+	private final Array<Entity> removedEntities = new Array<Entity>();
+
+	private final Rectangle viewBounds = new Rectangle();
+	private final Rectangle chunkBounds = new Rectangle();
+	private final Rectangle itemBounds = new Rectangle();
+	private boolean assetsChanged;
+	private int loadedCount;
+
+	SceneStreamer(SceneLoader sceneLoader, IResourceRetriever rm, CompositeVO composite, float chunkSize) {
+		this.sceneLoader = sceneLoader;
+		this.rm = rm;
+		this.chunkSize = chunkSize;
+		// the way images are sized by their factory
+		imageMultiplier = rm.getLoadedResolution().getMultiplier(rm.getProjectVO().originalResolution) / rm.getProjectVO().pixelToWorld;
+		setDistances(chunkSize, chunkSize * 1.5f);
+		// assets loaded for the whole scene are unloaded by first update
+		assetsChanged = true;
+
+		for (SimpleImageVO item : composite.sImages) getChunk(item).composite.sImages.add(item);
+		for (Image9patchVO item : composite.sImage9patchs) getChunk(item).composite.sImage9patchs.add(item);
+		for (LabelVO item : composite.sLabels) getChunk(item).composite.sLabels.add(item);
+		for (ParticleEffectVO item : composite.sParticleEffects) getChunk(item).composite.sParticleEffects.add(item);
+		for (LightVO item : composite.sLights) getChunk(item).composite.sLights.add(item);
+		for (SpineVO item : composite.sSpineAnimations) getChunk(item).composite.sSpineAnimations.add(item);
+		for (SpriteAnimationVO item : composite.sSpriteAnimations) getChunk(item).composite.sSpriteAnimations.add(item);
+		for (SpriterVO item : composite.sSpriterAnimations) getChunk(item).composite.sSpriterAnimations.add(item);
+		for (CompositeItemVO item : composite.sComposites) getChunk(item).composite.sComposites.add(item);
+	}
+
+	private Chunk getChunk(MainItemVO item) {
+		int x = MathUtils.floor(item.x / chunkSize);
+		int y = MathUtils.floor(item.y / chunkSize);
+		long key = getKey(x, y);
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			chunk = new Chunk(x, y);
+			chunk.bounds.set(x * chunkSize, y * chunkSize, chunkSize, chunkSize);
+			chunks.put(key, chunk);
+		}
+		getItemBounds(item, itemBounds);
+		chunk.bounds.merge(itemBounds);
+		overhang = Math.max(overhang, chunk.getOverhang(chunkSize));
+		return chunk;
+	}
+
+	/**
+	 * Sets out to bounds of the item in its parent space, as far as scene data tells them
+	 */
+	private void getItemBounds(MainItemVO item, Rectangle out) {
+		if(item instanceof LightVO) {
+			float distance = ((LightVO) item).distance;
+			out.set(item.x - distance, item.y - distance, distance * 2, distance * 2);
+			return;
+		}
+		if(item instanceof ParticleEffectVO) {
+			// effects are emitted around their position
+			ParticleEffectVO effect = (ParticleEffectVO) item;
+			out.set(item.x - effect.particleWidth / 2, item.y - effect.particleHeight / 2, effect.particleWidth, effect.particleHeight);
+			return;
+		}
+
+		float localX = 0, localY = 0, width = 0, height = 0;
+		if(item instanceof SimpleImageVO) {
+			TextureRegion region = rm.getTextureRegion(((SimpleImageVO) item).imageName);
+			if(region != null) {
+				width = region.getRegionWidth() * imageMultiplier;
+				height = region.getRegionHeight() * imageMultiplier;
+			}
+		} else if(item instanceof Image9patchVO) {
+			width = ((Image9patchVO) item).width;
+			height = ((Image9patchVO) item).height;
+		} else if(item instanceof LabelVO) {
+			width = ((LabelVO) item).width;
+			height = ((LabelVO) item).height;
+		} else if(item instanceof CompositeItemVO) {
+			Rectangle content = getCompositeBounds(((CompositeItemVO) item).composite);
+			localX = content.x;
+			localY = content.y;
+			width = content.width;
+			height = content.height;
+		}
+
+		// corners transformed the way the batch does it: translate to origin, scale, rotate, translate back
+		float originX = Float.isNaN(item.originX) ? width / 2f : item.originX;
+		float originY = Float.isNaN(item.originY) ? height / 2f : item.originY;
+		float cos = MathUtils.cosDeg(item.rotation);
+		float sin = MathUtils.sinDeg(item.rotation);
+		for (int i = 0; i < 4; i++) {
+			float dx = ((i == 1 || i == 2) ? localX + width - originX : localX - originX) * item.scaleX;
+			float dy = ((i >= 2) ? localY + height - originY : localY - originY) * item.scaleY;
+			float x = dx * cos - dy * sin + item.x + originX;
+			float y = dx * sin + dy * cos + item.y + originY;
+			if(i == 0) out.set(x, y, 0, 0);
+			else out.merge(x, y);
+		}
+	}
+
+	/**
+	 * @return bounds of all items of the composite in its own space, including its origin
+	 */
+	private Rectangle getCompositeBounds(CompositeVO composite) {
+		Rectangle bounds = new Rectangle();
+		Rectangle child = new Rectangle();
+		mergeItemBounds(composite.sImages, bounds, child);
+		mergeItemBounds(composite.sImage9patchs, bounds, child);
+		mergeItemBounds(composite.sLabels, bounds, child);
+		mergeItemBounds(composite.sParticleEffects, bounds, child);
+		mergeItemBounds(composite.sLights, bounds, child);
+		mergeItemBounds(composite.sSpineAnimations, bounds, child);
+		mergeItemBounds(composite.sSpriteAnimations, bounds, child);
+		mergeItemBounds(composite.sSpriterAnimations, bounds, child);
+		mergeItemBounds(composite.sComposites, bounds, child);
+		return bounds;
+	}
+
+	private void mergeItemBounds(ArrayList<? extends MainItemVO> items, Rectangle bounds, Rectangle child) {
+		for (MainItemVO item : items) {
+			getItemBounds(item, child);
+			bounds.merge(child);
+		}
+	}
+
+	private static long getKey(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	/**
+	 * @param loadDistance chunks closer than this to the camera view are loaded
+	 * @param unloadDistance chunks farther than this from the camera view are unloaded, has to be bigger than load distance
+	 */
+	public void setDistances(float loadDistance, float unloadDistance) {
+		if(unloadDistance < loadDistance) throw new IllegalArgumentException("Unload distance " + unloadDistance + " is smaller than load distance " + loadDistance);
+		this.loadDistance = loadDistance;
+		this.unloadDistance = unloadDistance;
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		Entity root = sceneLoader.getRoot();
+		ViewPortComponent viewPortComponent = root != null ? root.getComponent(ViewPortComponent.class) : null;
+		if(viewPortComponent == null) return;
+
+		Vector3[] points = viewPortComponent.viewPort.getCamera().frustum.planePoints;
+		viewBounds.set(points[0].x, points[0].y, 0, 0);
+		for (int i = 1; i < points.length; i++) {
+			viewBounds.merge(points[i].x, points[i].y);
+		}
+
+		unloadFarChunks();
+		startNearChunks();
+
+		if(assetsChanged && rm instanceof ResourceManager) {
+			((ResourceManager) rm).loadRetainedAssets();
+		}
+		assetsChanged = false;
+
+		if(rm instanceof AsyncResourceManager && !((AsyncResourceManager) rm).update(assetBudgetMillis)) {
+			return;
+		}
+		for (int i = 0; i < activeChunks.size; i++) {
+			Chunk chunk = activeChunks.get(i);
+			if(chunk.state == LOADING) instantiate(chunk, root);
+		}
+	}
+
+	private void unloadFarChunks() {
+		for (int i = activeChunks.size - 1; i >= 0; i--) {
+			Chunk chunk = activeChunks.get(i);
+			if(overlaps(chunk, unloadDistance)) continue;
+
+			if(chunk.state == LOADED) {
+				for (int j = 0; j < chunk.entityIds.size; j++) {
+					Entity entity = sceneLoader.entityFactory.getEntityByUniqueId(chunk.entityIds.get(j));
+					if(entity != null) removedEntities.add(entity);
+				}
+				chunk.entityIds.clear();
+				loadedCount--;
+			}
+			release(chunk);
+			activeChunks.removeIndex(i);
+		}
+		if(removedEntities.size > 0) {
+			sceneLoader.removeAll(removedEntities);
+			removedEntities.clear();
+		}
+	}
+
+	private void startNearChunks() {
+		// chunks in cells farther away can still have items that reach close enough
+		float reach = loadDistance + overhang;
+		int minX = MathUtils.floor((viewBounds.x - reach) / chunkSize);
+		int minY = MathUtils.floor((viewBounds.y - reach) / chunkSize);
+		int maxX = MathUtils.floor((viewBounds.x + viewBounds.width + reach) / chunkSize);
+		int maxY = MathUtils.floor((viewBounds.y + viewBounds.height + reach) / chunkSize);
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				Chunk chunk = chunks.get(getKey(x, y));
+				if(chunk == null || chunk.state != UNLOADED || !overlaps(chunk, loadDistance)) continue;
+				if(rm instanceof ResourceManager) {
+					((ResourceManager) rm).retainAssets(chunk.composite);
+					assetsChanged = true;
+				}
+				chunk.state = LOADING;
+				activeChunks.add(chunk);
+			}
+		}
+	}
+
+	private void instantiate(Chunk chunk, Entity root) {
+		SnapshotArray<Entity> children = root.getComponent(NodeComponent.class).children;
+		int first = children.size;
+		sceneLoader.entityFactory.initAllChildren(sceneLoader.engine, root, chunk.composite);
+		// top level entities of the chunk were appended to root children
+		for (int i = first; i < children.size; i++) {
+			chunk.entityIds.add(children.get(i).getComponent(MainItemComponent.class).uniqueId);
+		}
+		chunk.state = LOADED;
+		loadedCount++;
+	}
+
+	private void release(Chunk chunk) {
+		if(rm instanceof ResourceManager) {
+			((ResourceManager) rm).releaseAssets(chunk.composite);
+			assetsChanged = true;
+		}
+		chunk.state = UNLOADED;
+	}
+
+	/**
+	 * @return true if chunk bounds expanded by distance overlap camera view
+	 */
+	private boolean overlaps(Chunk chunk, float distance) {
+		Rectangle bounds = chunk.bounds;
+		chunkBounds.set(bounds.x - distance, bounds.y - distance, bounds.width + distance * 2, bounds.height + distance * 2);
+		return chunkBounds.overlaps(viewBounds);
+	}
+
+	/**
+	 * Releases assets of all chunks, their entities are left to whoever clears the scene
+	 */
+	void releaseAll() {
+		for (int i = 0; i < activeChunks.size; i++) {
+			release(activeChunks.get(i));
+			activeChunks.get(i).entityIds.clear();
+		}
+		activeChunks.clear();
+		loadedCount = 0;
+		if(rm instanceof ResourceManager) {
+			((ResourceManager) rm).loadRetainedAssets();
+		}
+	}
+
+	/**
+	 * @return number of chunks that have at least one item
+	 */
+	public int getChunkCount() {
+		return chunks.size;
+	}
+
+	/**
+	 * @return number of chunks whose entities are currently in engine
+	 */
+	public int getLoadedChunkCount() {
+		return loadedCount;
+	}
+
+	public float getChunkSize() {
+		return chunkSize;
+	}
+}
@@ -0,0 +1,27 @@
+package com.uwsoft.editor.renderer.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
+import com.uwsoft.editor.renderer.systems.AnimationLodSystem;
+
+/**
+ * Animation level of detail state of an animated entity, added and maintained by AnimationLodSystem once it is enabled.
+ */
+public class AnimationLodComponent extends Component implements Poolable {
+	/** System that decides when the entity is advanced */
+	public AnimationLodSystem system;
+	/** Tier of the entity during last update, one of AnimationLodSystem TIER_ constants */
+	public int tier = 0;
+	/** Delta time accumulated since animation of the entity was last advanced */
+	public float pendingDelta = 0;
+	/** Frames passed since animation of the entity was last advanced */
+	public int skippedFrames = 0;
+
+	@Override
+	public void reset() {
+		system = null;
+		tier = 0;
+		pendingDelta = 0;
+		skippedFrames = 0;
+	}
+}
@@ -0,0 +1,92 @@
+package com.uwsoft.editor.renderer.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * World space axis aligned bounds of an entity, cached by the renderer for frustum culling.
+ */
+public class BoundingBoxComponent extends Component implements Poolable {
+	/** World space bounds, only meaningful when {@link #bounded} is true */
+	public final Rectangle rectangle = new Rectangle();
+	/** False if entity can draw outside of its dimensions (particles, skeletal animations), such entities are never culled */
+	public boolean bounded = true;
+	/** False if entity is drawn at its position and dimensions ignoring its own scale and rotation (nine patches) */
+	public boolean transformed = true;
+	/** True if entity was outside of camera frustum during last render pass */
+	public boolean culled = false;
+	/** Leaf of this entity in the tree of SpatialIndexSystem, -1 if it is not indexed */
+	public int spatialProxy = -1;
+
+	private int transformVersion;
+	private float localX, localY, localWidth, localHeight;
+	private boolean valid = false;
+
+	/**
+	 * Recalculates world bounds of the entity local rectangle (boundBox if set, otherwise 0,0,width,height),
+	 * but only if transform version or dimensions changed since last call.
+	 * @param parentWorld cached world transform of parent composite
+	 */
+	public void update(TransformComponent transform, DimensionsComponent dimensions, Affine2 parentWorld) {
+		float lx = 0, ly = 0, lw = dimensions.width, lh = dimensions.height;
+		if(dimensions.boundBox != null) {
+			lx = dimensions.boundBox.x;
+			ly = dimensions.boundBox.y;
+			lw = dimensions.boundBox.width;
+			lh = dimensions.boundBox.height;
+		}
+
+		if(valid && transformVersion == transform.version && localX == lx && localY == ly && localWidth == lw && localHeight == lh) {
+			return;
+		}
+		transformVersion = transform.version;
+		localX = lx;
+		localY = ly;
+		localWidth = lw;
+		localHeight = lh;
+		valid = true;
+
+		// local transform is the same the batch uses: translate to origin, scale, rotate, translate back
+		float rotation = transformed ? transform.rotation : 0;
+		float scaleX = transformed ? transform.scaleX : 1;
+		float scaleY = transformed ? transform.scaleY : 1;
+		float cos = MathUtils.cosDeg(rotation);
+		float sin = MathUtils.sinDeg(rotation);
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			float px = (i == 1 || i == 2) ? lx + lw : lx;
+			float py = (i >= 2) ? ly + lh : ly;
+			float dx = (px - transform.originX) * scaleX;
+			float dy = (py - transform.originY) * scaleY;
+			float localX = dx * cos - dy * sin + transform.x + transform.originX;
+			float localY = dx * sin + dy * cos + transform.y + transform.originY;
+			float worldX = parentWorld.m00 * localX + parentWorld.m01 * localY + parentWorld.m02;
+			float worldY = parentWorld.m10 * localX + parentWorld.m11 * localY + parentWorld.m12;
+			if(worldX < minX) minX = worldX;
+			if(worldX > maxX) maxX = worldX;
+			if(worldY < minY) minY = worldY;
+			if(worldY > maxY) maxY = worldY;
+		}
+		rectangle.set(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/** Forces recalculation on next {@link #update} call */
+	public void invalidate() {
+		valid = false;
+	}
+
+	@Override
+	public void reset() {
+		rectangle.set(0, 0, 0, 0);
+		bounded = true;
+		transformed = true;
+		culled = false;
+		spatialProxy = -1;
+		transformVersion = 0;
+		localX = localY = localWidth = localHeight = 0;
+		valid = false;
+	}
+}
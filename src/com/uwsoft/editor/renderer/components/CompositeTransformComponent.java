@@ -3,10 +3,19 @@ package com.uwsoft.editor.renderer.components;
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class CompositeTransformComponent extends Component {
+public class CompositeTransformComponent extends Component implements Poolable {
 	public boolean transform = true;
 	public final Affine2 worldTransform = new Affine2();
 	public final Matrix4 computedTransform = new Matrix4();
 	public final Matrix4 oldTransform = new Matrix4();
+
+	@Override
+	public void reset() {
+		transform = true;
+		worldTransform.idt();
+		computedTransform.idt();
+		oldTransform.idt();
+	}
 }
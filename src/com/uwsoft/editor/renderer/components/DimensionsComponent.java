@@ -2,13 +2,17 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class DimensionsComponent extends Component {
+public class DimensionsComponent extends Component implements Poolable {
 	public float width = 0;
 	public float height = 0;
 
 	public Rectangle boundBox;
 
+	private float lastWidth, lastHeight;
+	private boolean checked = false;
+
 	public boolean hit(float x, float y){
 		if(boundBox == null) {
 			return (x >= 0 && x < width && y >= 0 && y < height);
@@ -16,4 +20,27 @@ public class DimensionsComponent extends Component {
 			return (x >= boundBox.x && x < boundBox.x+boundBox.width && y >= boundBox.y && y < boundBox.y+boundBox.height);
 		}
 	}
+
+	/**
+	 * Checks if size changed since previous call, and remembers current values.
+	 * @return true on first call or if width or height changed
+	 */
+	public boolean checkDirty() {
+		if(checked && lastWidth == width && lastHeight == height) {
+			return false;
+		}
+		lastWidth = width;
+		lastHeight = height;
+		checked = true;
+		return true;
+	}
+
+	@Override
+	public void reset() {
+		width = 0;
+		height = 0;
+		boundBox = null;
+		lastWidth = lastHeight = 0;
+		checked = false;
+	}
 }
@@ -1,10 +1,74 @@
 package com.uwsoft.editor.renderer.components;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.uwsoft.editor.renderer.data.LayerItemVO;
 
-public class LayerMapComponent extends Component {
+public class LayerMapComponent extends Component implements Poolable {
+	/** Replacing, reordering or renaming layers is detected, and children get re-sorted */
 	public ArrayList<LayerItemVO> layers = new ArrayList<LayerItemVO>();
+
+	private final HashMap<String, Integer> layerIndexes = new HashMap<String, Integer>();
+	private ArrayList<LayerItemVO> indexedLayers = null;
+	/** Layers and their names at the time the map was built, to detect changes made directly to the list */
+	private final ArrayList<LayerItemVO> indexedItems = new ArrayList<LayerItemVO>();
+	private final ArrayList<String> indexedNames = new ArrayList<String>();
+
+	/**
+	 * @return index of the layer with given name, or 0 if there is no such layer
+	 */
+	public int getIndexByName(String layerName) {
+		if(!isIndexed()) {
+			layerIndexes.clear();
+			for (int i = layers.size() - 1; i >= 0; i--) {
+				// going backwards, so first layer wins in case of duplicate names
+				layerIndexes.put(layers.get(i).layerName, i);
+			}
+			indexedItems.clear();
+			indexedNames.clear();
+			for (int i = 0; i < layers.size(); i++) {
+				indexedItems.add(layers.get(i));
+				indexedNames.add(layers.get(i).layerName);
+			}
+			indexedLayers = layers;
+		}
+		Integer index = layerIndexes.get(layerName);
+		return index == null ? 0 : index;
+	}
+
+	/**
+	 * @return false if layers changed since the name to index map was built
+	 */
+	public boolean isIndexed() {
+		if(indexedLayers != layers || indexedItems.size() != layers.size()) return false;
+		// layers are few, so comparing them every frame is cheap
+		for (int i = 0; i < layers.size(); i++) {
+			LayerItemVO layer = layers.get(i);
+			if(layer != indexedItems.get(i)) return false;
+			String name = indexedNames.get(i);
+			if(layer.layerName != name && (layer.layerName == null || !layer.layerName.equals(name))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Forces name to index map rebuild, and re-sort of the composite children.
+	 * Changes to the layers are detected, so there is no need to call it after them.
+	 */
+	public void invalidate() {
+		indexedLayers = null;
+	}
+
+	@Override
+	public void reset() {
+		// list is usually shared with composite data, so it is replaced, not cleared
+		layers = new ArrayList<LayerItemVO>();
+		layerIndexes.clear();
+		indexedLayers = null;
+		indexedItems.clear();
+		indexedNames.clear();
+	}
 }
@@ -1,8 +1,9 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class MainItemComponent extends Component {
+public class MainItemComponent extends Component implements Poolable {
     public int uniqueId = 0;
 	public String itemIdentifier = "";
 	public String libraryLink = "";
@@ -11,4 +12,16 @@ public class MainItemComponent extends Component {
 	public int entityType;
     public String layer;
 	public boolean visible = true;
+
+    @Override
+    public void reset() {
+        uniqueId = 0;
+        itemIdentifier = "";
+        libraryLink = "";
+        tags = null;
+        customVars = "";
+        entityType = 0;
+        layer = null;
+        visible = true;
+    }
 }
@@ -2,8 +2,15 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class NinePatchComponent extends Component {
+public class NinePatchComponent extends Component implements Poolable {
 	public String textureRegionName;
 	public NinePatch ninePatch;
+
+	@Override
+	public void reset() {
+		textureRegionName = null;
+		ninePatch = null;
+	}
 }
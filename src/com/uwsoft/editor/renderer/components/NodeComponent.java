@@ -2,16 +2,73 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.badlogic.gdx.utils.SnapshotArray;
 
-public class NodeComponent extends Component {
+public class NodeComponent extends Component implements Poolable {
+	/** Please use {@link #addChild(Entity)} and {@link #removeChild(Entity)} to modify, so LayerSystem knows it has to re-sort */
 	public SnapshotArray<Entity> children = new SnapshotArray<Entity>(true, 1, Entity.class);
 
+	/** Set when children were added or removed, LayerSystem re-sorts them and clears it */
+	public boolean childrenChanged = true;
+	/** Number of z-index or layer changes of children since LayerSystem last ordered them */
+	public int zOrderChanges = 0;
+
+	/**
+	 * Set when children were added or removed, or position, scale or dimensions of a child changed,
+	 * CompositeSystem recalculates dimensions of this composite and clears it. See {@link com.uwsoft.editor.renderer.systems.CompositeSystem#invalidateBounds(Entity)}
+	 */
+	public boolean boundsChanged = true;
+	/** Set when dimensions of any composite below have to be recalculated, so CompositeSystem only walks down to those */
+	public boolean descendantBoundsChanged = false;
+
 	public void removeChild(Entity entity) {
 		children.removeValue(entity, false);
+		ZIndexComponent zIndexComponent = entity.getComponent(ZIndexComponent.class);
+		if(zIndexComponent != null && zIndexComponent.parentNode == this) zIndexComponent.parentNode = null;
+		childrenChanged = true;
+		boundsChanged = true;
+	}
+
+	/**
+	 * Removes all given entities from children in one pass, keeping order of the remaining ones
+	 */
+	public void removeChildren(ObjectSet<Entity> entities) {
+		// if children are being iterated, first set copies the array and we keep reading the untouched one
+		Entity[] items = children.items;
+		int size = children.size;
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			Entity child = items[i];
+			if(entities.contains(child)) {
+				ZIndexComponent zIndexComponent = child.getComponent(ZIndexComponent.class);
+				if(zIndexComponent != null && zIndexComponent.parentNode == this) zIndexComponent.parentNode = null;
+			} else {
+				if(kept != i) children.set(kept, child);
+				kept++;
+			}
+		}
+		if(kept == size) return;
+		children.truncate(kept);
+		childrenChanged = true;
+		boundsChanged = true;
 	}
 
 	public void addChild(Entity entity) {
 		children.add(entity);
+		ZIndexComponent zIndexComponent = entity.getComponent(ZIndexComponent.class);
+		if(zIndexComponent != null) zIndexComponent.parentNode = this;
+		childrenChanged = true;
+		boundsChanged = true;
+	}
+
+	@Override
+	public void reset() {
+		children.clear();
+		childrenChanged = true;
+		zOrderChanges = 0;
+		boundsChanged = true;
+		descendantBoundsChanged = false;
 	}
 }
@@ -2,7 +2,13 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class ParentNodeComponent extends Component {
+public class ParentNodeComponent extends Component implements Poolable {
 	public Entity parentEntity = null;
+
+	@Override
+	public void reset() {
+		parentEntity = null;
+	}
 }
@@ -21,11 +21,12 @@ package com.uwsoft.editor.renderer.components;
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
 /**
  * Created by azakhary on 7/2/2015.
  */
-public class PolygonComponent extends Component {
+public class PolygonComponent extends Component implements Poolable {
     public Vector2[][] vertices;
 
     public void makeRectangle(float width, float height) {
@@ -38,4 +39,9 @@ public class PolygonComponent extends Component {
         vertices = new Vector2[1][4];
         vertices[0] = points;
     }
+
+    @Override
+    public void reset() {
+        vertices = null;
+    }
 }
@@ -1,10 +1,19 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class ScissorComponent extends Component {
+public class ScissorComponent extends Component implements Poolable {
 	public float scissorX; 
 	public float scissorY;
 	public float scissorWidth; 
 	public float scissorHeight;
+
+	@Override
+	public void reset() {
+		scissorX = 0;
+		scissorY = 0;
+		scissorWidth = 0;
+		scissorHeight = 0;
+	}
 }
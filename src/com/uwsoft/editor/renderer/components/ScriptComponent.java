@@ -2,6 +2,7 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.uwsoft.editor.renderer.scripts.IScript;
@@ -11,7 +12,7 @@ import java.util.Iterator;
 /**
  * Created by azakhary on 6/19/2015.
  */
-public class ScriptComponent extends Component {
+public class ScriptComponent extends Component implements Poolable {
 
     public Array<IScript> scripts = new Array<IScript>();
 
@@ -37,4 +38,9 @@ public class ScriptComponent extends Component {
             }
         }
     }
+
+    @Override
+    public void reset() {
+        scripts.clear();
+    }
 }
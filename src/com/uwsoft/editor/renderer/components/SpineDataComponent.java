@@ -1,8 +1,15 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class SpineDataComponent extends Component {
+public class SpineDataComponent extends Component implements Poolable {
 	public String animationName = "";
 	public String currentAnimationName = "";
+
+	@Override
+	public void reset() {
+		animationName = "";
+		currentAnimationName = "";
+	}
 }
@@ -2,8 +2,15 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class TextureRegionComponent extends Component {
+public class TextureRegionComponent extends Component implements Poolable {
 	public String regionName = "";
 	public TextureRegion region = null;
+
+	@Override
+	public void reset() {
+		regionName = "";
+		region = null;
+	}
 }
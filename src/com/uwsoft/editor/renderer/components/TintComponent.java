@@ -2,7 +2,13 @@ package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class TintComponent extends Component {
+public class TintComponent extends Component implements Poolable {
 	public Color color = new Color();
+
+	@Override
+	public void reset() {
+		color.set(0, 0, 0, 0);
+	}
 }
@@ -1,8 +1,9 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class TransformComponent extends Component {
+public class TransformComponent extends Component implements Poolable {
 	public float x; 
 	public float y;
 	public float scaleX	=	1f; 
@@ -11,6 +12,13 @@ public class TransformComponent extends Component {
 	public float originX;
 	public float originY;
 
+	/** Incremented by TransformSystem every time world placement of this entity changes (own or any ancestor transform) */
+	public int version = 0;
+	/** Forces TransformSystem to recalculate this entity and its subtree, changes to public fields are detected without it */
+	public boolean dirty = true;
+
+	private float lastX, lastY, lastScaleX, lastScaleY, lastRotation, lastOriginX, lastOriginY;
+
 	TransformComponent backup = null;
 
 	public TransformComponent() {
@@ -27,6 +35,26 @@ public class TransformComponent extends Component {
 		originY = component.originY;
 	}
 
+	/**
+	 * Checks if local transform changed since previous call, and remembers current values.
+	 * @return true if transform was marked dirty or any of its values changed
+	 */
+	public boolean checkDirty() {
+		if(!dirty && lastX == x && lastY == y && lastScaleX == scaleX && lastScaleY == scaleY
+				&& lastRotation == rotation && lastOriginX == originX && lastOriginY == originY) {
+			return false;
+		}
+		lastX = x;
+		lastY = y;
+		lastScaleX = scaleX;
+		lastScaleY = scaleY;
+		lastRotation = rotation;
+		lastOriginX = originX;
+		lastOriginY = originY;
+		dirty = false;
+		return true;
+	}
+
 	public void disableTransform() {
 		backup = new TransformComponent(this);
 		x = 0;
@@ -47,4 +75,19 @@ public class TransformComponent extends Component {
 		originY = backup.originY;
 		backup = null;
 	}
+
+	@Override
+	public void reset() {
+		x = 0;
+		y = 0;
+		scaleX = 1f;
+		scaleY = 1f;
+		rotation = 0;
+		originX = 0;
+		originY = 0;
+		version = 0;
+		dirty = true;
+		lastX = lastY = lastScaleX = lastScaleY = lastRotation = lastOriginX = lastOriginY = 0;
+		backup = null;
+	}
 }
@@ -1,8 +1,14 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
-public class ViewPortComponent extends Component {
+public class ViewPortComponent extends Component implements Poolable {
 	public Viewport viewPort;
+
+	@Override
+	public void reset() {
+		viewPort = null;
+	}
 }
@@ -1,13 +1,24 @@
 package com.uwsoft.editor.renderer.components;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class ZIndexComponent extends Component {
+public class ZIndexComponent extends Component implements Poolable {
     private int zIndex = 0;
+    /** @deprecated use {@link #setZIndex(int)} to request reorder, and {@link #needsReOrder()} to check it */
+    @Deprecated
     public boolean needReOrder = false;
+    /** @deprecated use {@link #setLayerName(String)} and {@link #getLayerName()}, direct assignments are noticed a frame later by scanning */
+    @Deprecated
     public String layerName = "";
     public int layerIndex;
 
+    /** Layer name {@link #layerIndex} was last resolved for */
+    private String indexedLayerName = "";
+
+    /** Node of the parent composite, notified about every reorder request */
+    NodeComponent parentNode;
+
     public int getZIndex() {
         return zIndex;
     }
@@ -15,6 +26,56 @@ public class ZIndexComponent extends Component {
     public void setZIndex(int zIndex) {
         this.zIndex = zIndex;
         needReOrder = true;
+        if(parentNode != null) parentNode.zOrderChanges++;
+    }
+
+    /**
+     * @return true if z-index was set since the last ordering of the parent
+     */
+    public boolean needsReOrder() {
+        return needReOrder;
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+
+    public void setLayerName(String layerName) {
+        this.layerName = layerName;
+        if(parentNode != null) parentNode.zOrderChanges++;
     }
 
-}
\ No newline at end of file
+    /**
+     * @return true if z-index or layer name were assigned to the public fields directly since the last ordering,
+     * bypassing the parent notification
+     */
+    public boolean changedDirectly() {
+        return needReOrder || layerName != indexedLayerName;
+    }
+
+    /**
+     * Stores layer index resolved for the current layer name
+     */
+    public void applyLayerIndex(int layerIndex) {
+        this.layerIndex = layerIndex;
+        indexedLayerName = layerName;
+    }
+
+    /**
+     * Stores the z-index the entity ended up with after ordering, without requesting another reorder
+     */
+    public void applyZIndex(int zIndex) {
+        this.zIndex = zIndex;
+        needReOrder = false;
+    }
+
+    @Override
+    public void reset() {
+        zIndex = 0;
+        needReOrder = false;
+        layerName = "";
+        layerIndex = 0;
+        indexedLayerName = "";
+        parentNode = null;
+    }
+}
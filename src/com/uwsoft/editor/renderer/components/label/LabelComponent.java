@@ -2,14 +2,16 @@ package com.uwsoft.editor.renderer.components.label;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.badlogic.gdx.utils.StringBuilder;
 
-public class LabelComponent extends Component {
+public class LabelComponent extends Component implements Poolable {
 	public  LabelStyle style;
 	public final GlyphLayout layout = new GlyphLayout();
 	public BitmapFontCache cache;
@@ -23,7 +25,19 @@ public class LabelComponent extends Component {
 	public float fontScaleX = 1f;
 	public float fontScaleY = 1f;
 
+	/** Set when text or style changes through setters, other changes are detected by {@link #checkLayoutDirty(float, float)} */
+	private boolean layoutDirty = true;
+	private final StringBuilder lastText = new StringBuilder();
+	private BitmapFont lastFont;
+	private float lastWidth, lastHeight, lastFontScaleX, lastFontScaleY;
+	private int lastLabelAlign, lastLineAlign;
+	private boolean lastWrap;
+
 	
+	public LabelComponent () {
+
+	}
+
 	public LabelComponent (CharSequence text, Skin skin) {
 		this(text, skin.get(LabelStyle.class));
 	}
@@ -53,7 +67,8 @@ public class LabelComponent extends Component {
 		if (style == null) throw new IllegalArgumentException("style cannot be null.");
 		if (style.font == null) throw new IllegalArgumentException("Missing LabelStyle font.");
 		this.style = style;
-		cache = style.font.newFontCache();
+		if (cache == null || cache.getFont() != style.font) cache = style.font.newFontCache();
+		layoutDirty = true;
 	}
 	
 	public LabelStyle getStyle () {
@@ -72,6 +87,7 @@ public class LabelComponent extends Component {
 			text.setLength(0);
 			text.append(newText);
 		}
+		layoutDirty = true;
 	}
 	
 	public boolean textEquals (CharSequence other) {
@@ -86,6 +102,34 @@ public class LabelComponent extends Component {
 	public StringBuilder getText () {
 		return text;
 	}
+
+	/** Forces LabelSystem to lay the label out again */
+	public void invalidate () {
+		layoutDirty = true;
+	}
+
+	/** Checks if label has to be laid out again for the given size, and remembers current values.
+	 * @return true if label was invalidated, or its text, font, size, font scale, wrapping or alignment changed since the previous call */
+	public boolean checkLayoutDirty (float width, float height) {
+		BitmapFont font = cache.getFont();
+		if (!layoutDirty && lastFont == font && lastText.equals(text) && lastWidth == width && lastHeight == height && lastFontScaleX == fontScaleX && lastFontScaleY == fontScaleY
+			&& lastLabelAlign == labelAlign && lastLineAlign == lineAlign && lastWrap == wrap) {
+			return false;
+		}
+		// text can be modified directly through the public builder, so it is compared with a copy
+		lastText.setLength(0);
+		lastText.append(text);
+		lastFont = font;
+		lastWidth = width;
+		lastHeight = height;
+		lastFontScaleX = fontScaleX;
+		lastFontScaleY = fontScaleY;
+		lastLabelAlign = labelAlign;
+		lastLineAlign = lineAlign;
+		lastWrap = wrap;
+		layoutDirty = false;
+		return true;
+	}
 	
 	public GlyphLayout getGlyphLayout () {
 		return layout;
@@ -148,5 +192,26 @@ public class LabelComponent extends Component {
 	public void setFontScaleY (float fontScaleY) {
 		this.fontScaleY = fontScaleY;
 	}
-	
+
+	@Override
+	public void reset() {
+		style = null;
+		// font cache is kept, so it can be reused if the next label uses the same font
+		if (cache != null) cache.clear();
+		layout.reset();
+		text.setLength(0);
+		fontName = null;
+		fontSize = 0;
+		labelAlign = Align.center;
+		lineAlign = Align.center;
+		wrap = false;
+		fontScaleX = 1f;
+		fontScaleY = 1f;
+		layoutDirty = true;
+		lastText.setLength(0);
+		lastFont = null;
+		lastWidth = lastHeight = lastFontScaleX = lastFontScaleY = 0;
+		lastLabelAlign = lastLineAlign = 0;
+		lastWrap = false;
+	}
 }
@@ -3,14 +3,19 @@ package com.uwsoft.editor.renderer.components.light;
 import box2dLight.Light;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.uwsoft.editor.renderer.data.LightVO.LightType;
 
-public class LightObjectComponent extends Component {
+public class LightObjectComponent extends Component implements Poolable {
 	//TODO temporarley disabled because of legasy vo
 	//public static enum LightType {POINT, CONE}
 	
 	private LightType type;
 	
+	public LightObjectComponent() {
+
+	}
+
 	public LightObjectComponent(LightType type) {
 		this.type = type;
 	}
@@ -26,4 +31,20 @@ public class LightObjectComponent extends Component {
 	public LightType getType(){
 		return type;
 	}
+
+	public void setType(LightType type) {
+		this.type = type;
+	}
+
+	@Override
+	public void reset() {
+		type = null;
+		rays = 12;
+		distance = 300;
+		directionDegree = 0;
+		coneDegree = 30;
+		isStatic = true;
+		isXRay = true;
+		lightObject = null;
+	}
 }
@@ -2,9 +2,27 @@ package com.uwsoft.editor.renderer.components.particle;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class ParticleComponent extends Component {
+public class ParticleComponent extends Component implements Poolable {
 	public String particleName = "";
+	/**
+	 * Effect obtained from resource pool, ParticleSystem frees it back when entity is removed
+	 * (or as soon as it completes, if {@link #freeOnComplete} is set) and sets this to null
+	 */
 	public ParticleEffect particleEffect;
+	/** True to free one-shot effect as soon as it completes, instead of keeping it to be started again */
+	public boolean freeOnComplete = false;
 	public float worldMultiplyer = 1f;
+	/** TransformComponent version the effect was last positioned with */
+	public int transformVersion = -1;
+
+	@Override
+	public void reset() {
+		particleName = "";
+		particleEffect = null;
+		freeOnComplete = false;
+		worldMultiplyer = 1f;
+		transformVersion = -1;
+	}
 }
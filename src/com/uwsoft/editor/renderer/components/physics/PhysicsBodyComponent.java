@@ -2,7 +2,13 @@ package com.uwsoft.editor.renderer.components.physics;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class PhysicsBodyComponent extends Component {
+public class PhysicsBodyComponent extends Component implements Poolable {
 	public Body body;
+
+	@Override
+	public void reset() {
+		body = null;
+	}
 }
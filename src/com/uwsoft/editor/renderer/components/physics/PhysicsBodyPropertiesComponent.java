@@ -2,8 +2,9 @@ package com.uwsoft.editor.renderer.components.physics;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class PhysicsBodyPropertiesComponent extends Component {
+public class PhysicsBodyPropertiesComponent extends Component implements Poolable {
 	public int bodyType;
 
 	public float mass;
@@ -34,4 +35,21 @@ public class PhysicsBodyPropertiesComponent extends Component {
         friction = 1;
         restitution = 1;
     }
+
+	@Override
+	public void reset() {
+		bodyType = 0;
+		mass = 1;
+		// vector may be shared with item data, so it is replaced, not reset
+		centerOfMass = new Vector2(0, 0);
+		rotationalInertia = 0;
+		damping = 0;
+		gravityScale = 0;
+		allowSleep = true;
+		awake = true;
+		bullet = false;
+		density = 1;
+		friction = 1;
+		restitution = 1;
+	}
 }
@@ -4,7 +4,13 @@ import java.util.HashMap;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class AnimationComponent extends Component {
+public class AnimationComponent extends Component implements Poolable {
 	public HashMap<String,Animation> animations = new  HashMap<String,Animation>();
+
+	@Override
+	public void reset() {
+		animations.clear();
+	}
 }
@@ -5,14 +5,23 @@ import java.util.Map;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.uwsoft.editor.renderer.SceneLoader;
 import com.uwsoft.editor.renderer.data.FrameRange;
 
-public class SpriteAnimationComponent extends Component {
+public class SpriteAnimationComponent extends Component implements Poolable {
 	public String animationName = "";
 	public int fps = 24;
 	public HashMap<String, FrameRange> frameRangeMap = new HashMap<String, FrameRange>();
     public String currentAnimation;
     public Animation.PlayMode playMode = Animation.PlayMode.LOOP;
-	
+
+	@Override
+	public void reset() {
+		animationName = "";
+		fps = 24;
+		frameRangeMap.clear();
+		currentAnimation = null;
+		playMode = Animation.PlayMode.LOOP;
+	}
 }
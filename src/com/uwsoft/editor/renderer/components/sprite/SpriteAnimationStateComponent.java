@@ -4,18 +4,30 @@ import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.uwsoft.editor.renderer.data.FrameRange;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class SpriteAnimationStateComponent extends Component {
+public class SpriteAnimationStateComponent extends Component implements Poolable {
     public Array<TextureAtlas.AtlasRegion> allRegions;
 	public Animation currentAnimation;
 	public float time = 0.0f;
 
+    public SpriteAnimationStateComponent() {
+
+    }
+
     public SpriteAnimationStateComponent(Array<TextureAtlas.AtlasRegion> allRegions) {
-        this.allRegions = sortAndGetRegions(allRegions);
+        setRegions(allRegions);
+    }
+
+    /**
+     * Sets animation regions, sorting them by frame number from their names
+     */
+    public void setRegions(Array<TextureAtlas.AtlasRegion> allRegions) {
+        this.allRegions = sortRegions(allRegions);
     }
 	
 	public Animation get() {
@@ -35,7 +47,10 @@ public class SpriteAnimationStateComponent extends Component {
         time = 0.0f;
     }
 
-    private Array<TextureAtlas.AtlasRegion> sortAndGetRegions(Array<TextureAtlas.AtlasRegion> regions) {
+    /**
+     * @return new array of regions sorted by frame number from their names
+     */
+    public static Array<TextureAtlas.AtlasRegion> sortRegions(Array<TextureAtlas.AtlasRegion> regions) {
         TextureAtlas.AtlasRegion[] animationAtlasRegions = new TextureAtlas.AtlasRegion[regions.size];
         for (int ri = 0; ri < regions.size; ri++) {
             String regName = regions.get(ri).name;
@@ -44,7 +59,7 @@ public class SpriteAnimationStateComponent extends Component {
         return new Array<TextureAtlas.AtlasRegion>(animationAtlasRegions);
     }
 
-    private int regNameToFrame(String name) {
+    private static int regNameToFrame(String name) {
         final Pattern lastIntPattern = Pattern.compile("[^0-9]+([0-9]+)$");
         Matcher matcher = lastIntPattern.matcher(name);
         if (matcher.find()) {
@@ -55,4 +70,11 @@ public class SpriteAnimationStateComponent extends Component {
                 "Frame name should be something like this '*0001', but not "
                         + name + ".");
     }
+
+    @Override
+    public void reset() {
+        allRegions = null;
+        currentAnimation = null;
+        time = 0.0f;
+    }
 }
@@ -3,10 +3,11 @@ package com.uwsoft.editor.renderer.components.spriter;
 import java.util.ArrayList;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.brashmonkey.spriter.Data;
 import com.brashmonkey.spriter.Player;
 
-public class SpriterComponent extends Component {
+public class SpriterComponent extends Component implements Poolable {
 	public Player player;
 	public Data data;
 	public ArrayList<String> animations = new ArrayList<String>();
@@ -18,4 +19,30 @@ public class SpriterComponent extends Component {
 	public int 	animation;
 	public String 	animationName = "";    
 	public float 	scale	=	1f;
+	/**
+	 * Opt-in: when above zero, poses are read from animations sampled at this rate and shared by all players
+	 * of the same animation, instead of being tweened by every player each frame
+	 */
+	public float	bakedFramesPerSecond = 0;
+	/** Multiplier of animation time, negative plays backwards */
+	public float	playbackSpeed = 1f;
+	/** Fraction of a millisecond not yet applied to player time */
+	public float	timeRemainder = 0;
+
+	@Override
+	public void reset() {
+		player = null;
+		data = null;
+		animations.clear();
+		entities.clear();
+		currentEntityIndex = 0;
+		currentAnimationIndex = 0;
+		entity = 0;
+		animation = 0;
+		animationName = "";
+		scale = 1f;
+		bakedFramesPerSecond = 0;
+		playbackSpeed = 1f;
+		timeRemainder = 0;
+	}
 }
@@ -1,8 +1,14 @@
 package com.uwsoft.editor.renderer.components.spriter;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.uwsoft.editor.renderer.utils.LibGdxDrawer;
 
-public class SpriterDrawerComponent extends Component {
+public class SpriterDrawerComponent extends Component implements Poolable {
 	public LibGdxDrawer drawer;
+
+	@Override
+	public void reset() {
+		drawer = null;
+	}
 }
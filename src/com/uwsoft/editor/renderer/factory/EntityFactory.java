@@ -6,6 +6,7 @@ import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.ComponentMapper;
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.viewport.Viewport;
@@ -41,9 +42,9 @@ public class EntityFactory {
 
 	private HashMap<Integer, ComponentFactory> externalFactories = new HashMap<Integer, ComponentFactory>();
 
-	private int entityIterator = 0;
+	private final EntityRegistry entities = new EntityRegistry();
 
-	private HashMap<Integer, Entity> entities = new HashMap<Integer, Entity>();
+	private PooledEngine pooledEngine;
 
 	public ComponentFactory getCompositeComponentFactory() {
 		return compositeComponentFactory;
@@ -71,12 +72,46 @@ public class EntityFactory {
 	}
 
 	public void addExternalFactory(IExternalItemType itemType) {
-		externalFactories.put(itemType.getTypeId(), itemType.getComponentFactory());
+		ComponentFactory factory = itemType.getComponentFactory();
+		factory.setPooledEngine(pooledEngine);
+		externalFactories.put(itemType.getTypeId(), factory);
+	}
+
+	/**
+	 * Makes this factory and all component factories obtain entities and components from pools of given engine.
+	 * Entities created this way have to be added to the same engine, and are returned to pools when removed from it.
+	 * @param pooledEngine engine to obtain from, or null to allocate new entities and components
+	 */
+	public void setPooledEngine(PooledEngine pooledEngine) {
+		this.pooledEngine = pooledEngine;
+		compositeComponentFactory.setPooledEngine(pooledEngine);
+		lightComponentFactory.setPooledEngine(pooledEngine);
+		particleEffectComponentFactory.setPooledEngine(pooledEngine);
+		simpleImageComponentFactory.setPooledEngine(pooledEngine);
+		spriteComponentFactory.setPooledEngine(pooledEngine);
+		spriterComponentFactory.setPooledEngine(pooledEngine);
+		labelComponentFactory.setPooledEngine(pooledEngine);
+		ninePatchComponentFactory.setPooledEngine(pooledEngine);
+		for (ComponentFactory factory : externalFactories.values()) {
+			factory.setPooledEngine(pooledEngine);
+		}
+	}
+
+	public PooledEngine getPooledEngine() {
+		return pooledEngine;
+	}
+
+	public Entity obtainEntity() {
+		return pooledEngine != null ? pooledEngine.createEntity() : new Entity();
+	}
+
+	public <T extends Component> T obtainComponent(Class<T> type) {
+		return ComponentFactory.obtainComponent(pooledEngine, type);
 	}
 
 	public Entity createEntity(Entity root, SimpleImageVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		simpleImageComponentFactory.createComponents(root, entity, vo);
 
@@ -87,7 +122,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, Image9patchVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		ninePatchComponentFactory.createComponents(root, entity, vo);
 
@@ -98,7 +133,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, LabelVO vo) {
 		
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 		
 		labelComponentFactory.createComponents(root, entity, vo);
 
@@ -109,7 +144,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, ParticleEffectVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 		
 		particleEffectComponentFactory.createComponents(root, entity, vo);
 
@@ -120,7 +155,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, LightVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		lightComponentFactory.createComponents(root, entity, vo);
 
@@ -131,7 +166,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, SpineVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		ComponentFactory factory = externalFactories.get(SPINE_TYPE);
 		if(factory != null) {
@@ -142,9 +177,24 @@ public class EntityFactory {
 		return entity;
 	}
 	
+	/**
+	 * Creates entity of external item type through the component factory registered for it
+	 * @return new entity, or null if there is no factory registered for the type
+	 */
+	public Entity createExternalEntity(Entity root, int entityType, MainItemVO vo) {
+		ComponentFactory factory = externalFactories.get(entityType);
+		if(factory == null) return null;
+
+		Entity entity = obtainEntity();
+		factory.createComponents(root, entity, vo);
+		postProcessEntity(entity);
+
+		return entity;
+	}
+
 	public Entity createEntity(Entity root, SpriteAnimationVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		spriteComponentFactory.createComponents(root, entity, vo);
 
@@ -155,7 +205,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, SpriterVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		spriterComponentFactory.createComponents(root, entity, vo);
 
@@ -166,7 +216,7 @@ public class EntityFactory {
 	
 	public Entity createEntity(Entity root, CompositeItemVO vo){
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		compositeComponentFactory.createComponents(root, entity, vo);
 
@@ -175,22 +225,69 @@ public class EntityFactory {
 		return entity;
 	}
 
+	/**
+	 * @return component factory of given item type, or null if it is an external type without registered factory
+	 */
+	public ComponentFactory getComponentFactory(int entityType) {
+		switch (entityType) {
+			case IMAGE_TYPE: return simpleImageComponentFactory;
+			case NINE_PATCH: return ninePatchComponentFactory;
+			case LABEL_TYPE: return labelComponentFactory;
+			case PARTICLE_TYPE: return particleEffectComponentFactory;
+			case LIGHT_TYPE: return lightComponentFactory;
+			case SPRITE_TYPE: return spriteComponentFactory;
+			case SPRITER_TYPE: return spriterComponentFactory;
+			case COMPOSITE_TYPE: return compositeComponentFactory;
+			default: return externalFactories.get(entityType);
+		}
+	}
+
+	/**
+	 * Creates entity through given factory, with resources it resolved before, see {@link ComponentFactory#resolveResources(MainItemVO)}
+	 */
+	public Entity createEntity(Entity root, ComponentFactory factory, MainItemVO vo, Object resources) {
+
+		Entity entity = obtainEntity();
+
+		factory.createComponents(root, entity, vo, resources);
+
+		postProcessEntity(entity);
+
+		return entity;
+	}
+
+	/**
+	 * Compiles library item into a prefab, that creates the same entities much faster than walking item data every time.
+	 * Prefab has to be created again if resources are reloaded.
+	 */
+	public EntityPrefab createPrefab(CompositeItemVO vo) {
+		return new EntityPrefab(this, vo);
+	}
+
 	public Entity createRootEntity(CompositeVO compositeVo, Viewport viewport){
+		return createRootEntity(compositeVo, viewport, true);
+	}
+
+	/**
+	 * @param updateViewport false to leave viewport as it is, e.g. while it is still used by the running scene.
+	 *                       It then has to be updated before the scene is rendered.
+	 */
+	public Entity createRootEntity(CompositeVO compositeVo, Viewport viewport, boolean updateViewport){
 
 		CompositeItemVO vo = new CompositeItemVO();
 		vo.composite = compositeVo;
 
-		Entity entity = new Entity();
+		Entity entity = obtainEntity();
 
 		compositeComponentFactory.createComponents(null, entity, vo);
-		CompositeTransformComponent compositeTransform = new CompositeTransformComponent();
-		TransformComponent transform = new TransformComponent();
+		CompositeTransformComponent compositeTransform = obtainComponent(CompositeTransformComponent.class);
+		TransformComponent transform = obtainComponent(TransformComponent.class);
 
-		ViewPortComponent viewPortComponent = new ViewPortComponent();
+		ViewPortComponent viewPortComponent = obtainComponent(ViewPortComponent.class);
 		viewPortComponent.viewPort = viewport;
 
 		//TODO: not sure if this line is okay
-		viewPortComponent.viewPort.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
+		if(updateViewport) viewPortComponent.viewPort.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
 
 		entity.add(transform);
 		entity.add(viewPortComponent);
@@ -203,20 +300,43 @@ public class EntityFactory {
 	public Integer postProcessEntity(Entity entity) {
 		ComponentMapper<MainItemComponent> mainItemComponentComponentMapper = ComponentMapper.getFor(MainItemComponent.class);
 		MainItemComponent mainItemComponent = mainItemComponentComponentMapper.get(entity);
-		mainItemComponent.uniqueId = entityIterator++;
-		entities.put(mainItemComponent.uniqueId, entity);
+		mainItemComponent.uniqueId = entities.register(entity);
 
 		return mainItemComponent.uniqueId;
 	}
 
+	/**
+	 * Registers entity again under the unique id it already has, e.g. when removed entity is brought back.
+	 * If another entity has taken the id meanwhile, this entity gets a new one.
+	 * @return unique id the entity is registered under
+	 */
 	public Integer updateMap(Entity entity) {
 		ComponentMapper<MainItemComponent> mainItemComponentComponentMapper = ComponentMapper.getFor(MainItemComponent.class);
 		MainItemComponent mainItemComponent = mainItemComponentComponentMapper.get(entity);
-		entities.put(mainItemComponent.uniqueId, entity);
+		if(!entities.put(mainItemComponent.uniqueId, entity)) {
+			mainItemComponent.uniqueId = entities.register(entity);
+		}
 
 		return mainItemComponent.uniqueId;
 	}
 
+	/**
+	 * Forgets entity, so it can't be found by unique id anymore, and its id can't find any other entity
+	 */
+	public void removeFromMap(Entity entity) {
+		MainItemComponent mainItemComponent = ComponentMapper.getFor(MainItemComponent.class).get(entity);
+		if(mainItemComponent != null) {
+			entities.remove(mainItemComponent.uniqueId, entity);
+		}
+	}
+
+	/**
+	 * @return number of entities that can be found by unique id
+	 */
+	public int getEntityCount() {
+		return entities.size();
+	}
+
 	public void initAllChildren(Engine engine, Entity entity, CompositeVO vo) {
 		for (int i = 0; i < vo.sImages.size(); i++) {
 			Entity child = createEntity(entity, vo.sImages.get(i));
@@ -265,9 +385,16 @@ public class EntityFactory {
 		}
 	}
 
-	public Entity getEntityByUniqueId(Integer id) {
+	/**
+	 * @return entity with provided unique id, or null if it was removed
+	 */
+	public Entity getEntityByUniqueId(int id) {
 		return entities.get(id);
 	}
 
+	public Entity getEntityByUniqueId(Integer id) {
+		return id == null ? null : entities.get(id);
+	}
+
 	
 }
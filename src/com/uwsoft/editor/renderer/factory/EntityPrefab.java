@@ -0,0 +1,139 @@
+package com.uwsoft.editor.renderer.factory;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.uwsoft.editor.renderer.data.CompositeItemVO;
+import com.uwsoft.editor.renderer.data.CompositeVO;
+import com.uwsoft.editor.renderer.data.MainItemVO;
+import com.uwsoft.editor.renderer.factory.component.ComponentFactory;
+
+/**
+ * Compiled form of a library item, built once and instantiated many times.
+ *
+ * Walks the item data a single time, keeping for every item its component factory and the resources the factory resolved for it
+ * (texture regions, nine patches, label styles, particle effect pools, sorted animation regions, Spriter data).
+ * Instantiation then goes through the same factories as {@link EntityFactory#createEntity(Entity, CompositeItemVO)} with {@link EntityFactory#initAllChildren},
+ * only without looking resources up again.
+ *
+ * Resolved resources belong to the resource retriever, so a prefab has to be disposed and rebuilt when resources are reloaded.
+ */
+public class EntityPrefab {
+
+    private final EntityFactory entityFactory;
+    private final Node root;
+
+    EntityPrefab(EntityFactory entityFactory, CompositeItemVO vo) {
+        this.entityFactory = entityFactory;
+        this.root = compile(vo, EntityFactory.COMPOSITE_TYPE);
+    }
+
+    /**
+     * @return library item data the prefab was compiled from
+     */
+    public CompositeItemVO getVO() {
+        return (CompositeItemVO) root.vo;
+    }
+
+    /**
+     * Releases resources the prefab holds on to, e.g. Spriter animation data. Instances created before stay valid.
+     */
+    public void dispose() {
+        root.dispose();
+    }
+
+    /**
+     * Creates the root entity of the item, without children, same as {@link EntityFactory#createEntity(Entity, CompositeItemVO)}
+     *
+     * @param parent entity to attach the instance to, or null
+     */
+    public Entity createRoot(Entity parent) {
+        return root.instantiate(entityFactory, parent);
+    }
+
+    /**
+     * Creates all descendants of the instance root and adds them to engine, same as {@link EntityFactory#initAllChildren}
+     */
+    public void initAllChildren(Engine engine, Entity entity) {
+        initAllChildren(engine, entity, root);
+    }
+
+    /**
+     * Creates a complete instance, and adds it with all descendants to engine
+     *
+     * @param parent entity to attach the instance to, or null
+     * @return root entity of the instance
+     */
+    public Entity instantiate(Engine engine, Entity parent) {
+        Entity entity = createRoot(parent);
+        engine.addEntity(entity);
+        initAllChildren(engine, entity, root);
+        return entity;
+    }
+
+    private void initAllChildren(Engine engine, Entity entity, Node node) {
+        for (int i = 0; i < node.children.size; i++) {
+            Node childNode = node.children.get(i);
+            Entity child = childNode.instantiate(entityFactory, entity);
+            engine.addEntity(child);
+            if(childNode.children.size > 0) {
+                initAllChildren(engine, child, childNode);
+            }
+        }
+    }
+
+    private Node compile(MainItemVO vo, int entityType) {
+        ComponentFactory factory = entityFactory.getComponentFactory(entityType);
+        if(factory == null) return null;
+
+        Node node = new Node(vo, factory);
+
+        if(entityType == EntityFactory.COMPOSITE_TYPE) {
+            // same order as EntityFactory.initAllChildren
+            CompositeVO composite = ((CompositeItemVO) vo).composite;
+            for (int i = 0; i < composite.sImages.size(); i++) addChild(node, compile(composite.sImages.get(i), EntityFactory.IMAGE_TYPE));
+            for (int i = 0; i < composite.sImage9patchs.size(); i++) addChild(node, compile(composite.sImage9patchs.get(i), EntityFactory.NINE_PATCH));
+            for (int i = 0; i < composite.sLabels.size(); i++) addChild(node, compile(composite.sLabels.get(i), EntityFactory.LABEL_TYPE));
+            for (int i = 0; i < composite.sParticleEffects.size(); i++) addChild(node, compile(composite.sParticleEffects.get(i), EntityFactory.PARTICLE_TYPE));
+            for (int i = 0; i < composite.sLights.size(); i++) addChild(node, compile(composite.sLights.get(i), EntityFactory.LIGHT_TYPE));
+            for (int i = 0; i < composite.sSpineAnimations.size(); i++) addChild(node, compile(composite.sSpineAnimations.get(i), EntityFactory.SPINE_TYPE));
+            for (int i = 0; i < composite.sSpriteAnimations.size(); i++) addChild(node, compile(composite.sSpriteAnimations.get(i), EntityFactory.SPRITE_TYPE));
+            for (int i = 0; i < composite.sSpriterAnimations.size(); i++) addChild(node, compile(composite.sSpriterAnimations.get(i), EntityFactory.SPRITER_TYPE));
+            for (int i = 0; i < composite.sComposites.size(); i++) addChild(node, compile(composite.sComposites.get(i), EntityFactory.COMPOSITE_TYPE));
+        }
+
+        return node;
+    }
+
+    private void addChild(Node node, Node child) {
+        // external item type without registered factory is skipped
+        if(child != null) node.children.add(child);
+    }
+
+    /**
+     * Single item of the prefab tree, with its factory and the resources that factory resolved for it
+     */
+    private static class Node {
+        final MainItemVO vo;
+        final ComponentFactory factory;
+        final Object resources;
+        final Array<Node> children = new Array<Node>();
+
+        Node(MainItemVO vo, ComponentFactory factory) {
+            this.vo = vo;
+            this.factory = factory;
+            this.resources = factory.resolveResources(vo);
+        }
+
+        Entity instantiate(EntityFactory entityFactory, Entity parent) {
+            return entityFactory.createEntity(parent, factory, vo, resources);
+        }
+
+        void dispose() {
+            factory.releaseResources(vo, resources);
+            for (int i = 0; i < children.size; i++) {
+                children.get(i).dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.factory;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Maps entity unique ids to entities. Id packs a slot index with the generation of that slot,
+ * slots of removed entities are reused with increased generation, so an id of removed entity does not find the entity
+ * that took its slot. Free slots are reused in the order they were freed, so a generation only wraps around after
+ * thousands of reuses of every free slot. First generation is 1, so 0 is never a valid id.
+ */
+public class EntityRegistry {
+
+    public static final int INDEX_BITS = 20;
+    public static final int MAX_ENTITIES = 1 << INDEX_BITS;
+    private static final int INDEX_MASK = MAX_ENTITIES - 1;
+    /** Generations use the remaining bits of positive int */
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+    private final Array<Entity> entities = new Array<Entity>(false, 64, Entity.class);
+    private final IntArray generations = new IntArray(false, 64);
+    /** Queue of free slots, from {@link #freeHead} to the end */
+    private final IntArray freeSlots = new IntArray(true, 64);
+    private int freeHead;
+    private int size;
+
+    /**
+     * Stores entity in a free slot
+     * @return new id of the entity
+     */
+    public int register(Entity entity) {
+        int slot;
+        if(freeHead < freeSlots.size) {
+            slot = freeSlots.get(freeHead++);
+            if(freeHead == freeSlots.size) {
+                freeSlots.clear();
+                freeHead = 0;
+            } else if(freeHead > 64 && freeHead > freeSlots.size / 2) {
+                freeSlots.removeRange(0, freeHead - 1);
+                freeHead = 0;
+            }
+        } else {
+            slot = entities.size;
+            if(slot == MAX_ENTITIES) throw new IllegalStateException("More than " + MAX_ENTITIES + " entities registered");
+            entities.add(null);
+            generations.add(1);
+        }
+        entities.set(slot, entity);
+        size++;
+        return toId(slot, generations.get(slot));
+    }
+
+    /**
+     * Stores entity under id it already has, e.g. when entity that was removed is brought back.
+     * Slot that was given to another entity meanwhile is left to it.
+     * @return false if the id is not valid or its slot is taken by another entity, so this one needs a new id
+     */
+    public boolean put(int id, Entity entity) {
+        if(getGeneration(id) == 0) return false;
+        int slot = getSlot(id);
+        while(entities.size <= slot) {
+            freeSlots.add(entities.size);
+            entities.add(null);
+            generations.add(1);
+        }
+        Entity current = entities.get(slot);
+        if(current == entity && generations.get(slot) == getGeneration(id)) return true;
+        if(current != null) return false;
+
+        // the slot was freed and not reused yet, so no id was given out with the generation it has now
+        for (int i = freeHead; i < freeSlots.size; i++) {
+            if(freeSlots.get(i) == slot) {
+                freeSlots.removeIndex(i);
+                break;
+            }
+        }
+        size++;
+        entities.set(slot, entity);
+        generations.set(slot, getGeneration(id));
+        return true;
+    }
+
+    /**
+     * @return entity with provided id, or null if there is no such entity or it was removed
+     */
+    public Entity get(int id) {
+        int slot = getSlot(id);
+        if(slot >= entities.size || generations.get(slot) != getGeneration(id)) {
+            return null;
+        }
+        return entities.get(slot);
+    }
+
+    /**
+     * Frees id of provided entity, if the entity is still the one stored under it
+     * @return true if entity was removed
+     */
+    public boolean remove(int id, Entity entity) {
+        int slot = getSlot(id);
+        if(slot >= entities.size || generations.get(slot) != getGeneration(id) || entities.get(slot) != entity) {
+            return false;
+        }
+        entities.set(slot, null);
+        generations.set(slot, nextGeneration(generations.get(slot)));
+        freeSlots.add(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all entities, ids given out before will not find anything
+     */
+    public void clear() {
+        freeSlots.clear();
+        freeHead = 0;
+        for (int i = entities.size - 1; i >= 0; i--) {
+            if(entities.get(i) != null) {
+                entities.set(i, null);
+                generations.set(i, nextGeneration(generations.get(i)));
+            }
+            freeSlots.add(i);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return number of registered entities
+     */
+    public int size() {
+        return size;
+    }
+
+    public static int getSlot(int id) {
+        return id & INDEX_MASK;
+    }
+
+    public static int getGeneration(int id) {
+        return (id >>> INDEX_BITS) & GENERATION_MASK;
+    }
+
+    private static int toId(int slot, int generation) {
+        return (generation << INDEX_BITS) | slot;
+    }
+
+    private static int nextGeneration(int generation) {
+        int next = (generation + 1) & GENERATION_MASK;
+        return next == 0 ? 1 : next;
+    }
+}
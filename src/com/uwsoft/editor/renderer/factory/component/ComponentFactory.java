@@ -20,9 +20,14 @@ package com.uwsoft.editor.renderer.factory.component;
 
 import box2dLight.RayHandler;
 
+import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.ComponentMapper;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.uwsoft.editor.renderer.components.*;
 import com.uwsoft.editor.renderer.components.physics.PhysicsBodyComponent;
 import com.uwsoft.editor.renderer.components.physics.PhysicsBodyPropertiesComponent;
@@ -37,6 +42,7 @@ public abstract class ComponentFactory {
     protected IResourceRetriever rm;
     protected RayHandler rayHandler;
     protected World world;
+    protected PooledEngine pooledEngine;
 
     protected ComponentMapper<NodeComponent> nodeComponentMapper;
 
@@ -55,8 +61,56 @@ public abstract class ComponentFactory {
         this.rm = rm;
     }
 
+    /**
+     * When set, components are obtained from pools of the engine instead of being allocated
+     */
+    public void setPooledEngine(PooledEngine pooledEngine) {
+        this.pooledEngine = pooledEngine;
+    }
+
+    protected <T extends Component> T createComponent(Class<T> type) {
+        return obtainComponent(pooledEngine, type);
+    }
+
+    /**
+     * @param pooledEngine engine to obtain component from, or null to allocate a new one
+     */
+    public static <T extends Component> T obtainComponent(PooledEngine pooledEngine, Class<T> type) {
+        if(pooledEngine != null) {
+            return pooledEngine.createComponent(type);
+        }
+        try {
+            return ClassReflection.newInstance(type);
+        } catch (ReflectionException e) {
+            throw new GdxRuntimeException("Can't create component " + type.getName(), e);
+        }
+    }
+
     public abstract void createComponents(Entity root, Entity entity, MainItemVO vo);
 
+    /**
+     * Looks up resources the item needs, that are the same for all of its instances, so {@link com.uwsoft.editor.renderer.factory.EntityPrefab}
+     * can do it once. Factories that don't override it look them up for every entity.
+     *
+     * @return resources to pass to {@link #createComponents(Entity, Entity, MainItemVO, Object)}, release with {@link #releaseResources(MainItemVO, Object)}
+     */
+    public Object resolveResources(MainItemVO vo) {
+        return null;
+    }
+
+    /**
+     * Same as {@link #createComponents(Entity, Entity, MainItemVO)}, using resources resolved before by {@link #resolveResources(MainItemVO)}
+     */
+    public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
+        createComponents(root, entity, vo);
+    }
+
+    /**
+     * Releases references resolved resources hold, entities created with them stay valid
+     */
+    public void releaseResources(MainItemVO vo, Object resources) {
+    }
+
     protected void createCommonComponents(Entity entity, MainItemVO vo, int entityType) {
         DimensionsComponent dimensionsComponent = createDimensionsComponent(entity, vo);
         createMainItemComponent(entity, vo, entityType);
@@ -65,10 +119,11 @@ public abstract class ComponentFactory {
         createZIndexComponent(entity, vo);
         createScriptComponent(entity, vo);
         createMeshComponent(entity, vo);
+        createBoundingBoxComponent(entity, vo);
     }
 
     protected MainItemComponent createMainItemComponent(Entity entity, MainItemVO vo, int entityType) {
-        MainItemComponent component = new MainItemComponent();
+        MainItemComponent component = createComponent(MainItemComponent.class);
         component.customVars = vo.customVars;
         component.itemIdentifier = vo.itemIdentifier;
         component.libraryLink = vo.itemName;
@@ -83,7 +138,7 @@ public abstract class ComponentFactory {
     }
 
     protected TransformComponent createTransformComponent(Entity entity, MainItemVO vo, DimensionsComponent dimensionsComponent) {
-        TransformComponent component = new TransformComponent();
+        TransformComponent component = createComponent(TransformComponent.class);
         component.rotation = vo.rotation;
         component.scaleX = vo.scaleX;
         component.scaleY = vo.scaleY;
@@ -104,7 +159,7 @@ public abstract class ComponentFactory {
     protected abstract DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo);
 
     protected TintComponent createTintComponent(Entity entity, MainItemVO vo) {
-        TintComponent component = new TintComponent();
+        TintComponent component = createComponent(TintComponent.class);
         component.color.set(vo.tint[0], vo.tint[1], vo.tint[2], vo.tint[3]);
 
         entity.add(component);
@@ -112,11 +167,17 @@ public abstract class ComponentFactory {
         return component;
     }
 
+    protected BoundingBoxComponent createBoundingBoxComponent(Entity entity, MainItemVO vo) {
+        BoundingBoxComponent component = createComponent(BoundingBoxComponent.class);
+        entity.add(component);
+
+        return component;
+    }
+
     protected ZIndexComponent createZIndexComponent(Entity entity, MainItemVO vo) {
-        ZIndexComponent component = new ZIndexComponent();
-        component.layerName = vo.layerName;
-        component.setZIndex(vo.zIndex);
-        component.needReOrder = false;
+        ZIndexComponent component = createComponent(ZIndexComponent.class);
+        component.setLayerName(vo.layerName);
+        component.applyZIndex(vo.zIndex);
         entity.add(component);
 
         return component;
@@ -126,7 +187,7 @@ public abstract class ComponentFactory {
 
         if(vo.commonScripts == null || vo.commonScripts.size() == 0) return null;
 
-        ScriptComponent component = new ScriptComponent();
+        ScriptComponent component = createComponent(ScriptComponent.class);
         for(String name: vo.commonScripts) {
             component.addScript(name);
         }
@@ -136,7 +197,7 @@ public abstract class ComponentFactory {
     }
 
     protected ParentNodeComponent createParentNodeComponent(Entity root, Entity entity) {
-        ParentNodeComponent component = new ParentNodeComponent();
+        ParentNodeComponent component = createComponent(ParentNodeComponent.class);
         component.parentEntity = root;
         entity.add(component);
 
@@ -145,7 +206,7 @@ public abstract class ComponentFactory {
 
     protected void createNodeComponent(Entity root, Entity entity) {
         NodeComponent component = nodeComponentMapper.get(root);
-        component.children.add(entity);
+        component.addChild(entity);
     }
 
     protected void createPhysicsComponents(Entity entity, MainItemVO vo) {
@@ -158,7 +219,7 @@ public abstract class ComponentFactory {
     }
 
     protected PhysicsBodyPropertiesComponent createPhysicsBodyPropertiesComponent(Entity entity, MainItemVO vo) {
-        PhysicsBodyPropertiesComponent component = new PhysicsBodyPropertiesComponent();
+        PhysicsBodyPropertiesComponent component = createComponent(PhysicsBodyPropertiesComponent.class);
         component.allowSleep = vo.physics.allowSleep;
         component.awake = vo.physics.awake;
         component.bodyType = vo.physics.bodyType;
@@ -179,7 +240,7 @@ public abstract class ComponentFactory {
 
     protected PhysicsBodyComponent createPhysicsBodyComponent(Entity entity, PhysicsBodyPropertiesComponent physicsBodyPropertiesComponent, PolygonComponent polygonComponent) {
         /*
-		PhysicsBodyComponent component = new PhysicsBodyComponent();
+		PhysicsBodyComponent component = createComponent(PhysicsBodyComponent.class);
         component.body = PhysicsBodyLoader.createBody(world, physicsBodyPropertiesComponent, meshComponent.minPolygonData, new Vector2(1, 1)); //TODO resolution thing
 
         entity.add(component);
@@ -191,8 +252,8 @@ public abstract class ComponentFactory {
     }
 
     protected PolygonComponent createMeshComponent(Entity entity, MainItemVO vo) {
-        PolygonComponent component = new PolygonComponent();
         if(vo.shape != null) {
+            PolygonComponent component = createComponent(PolygonComponent.class);
             component.vertices = vo.shape.polygons.clone();
             entity.add(component);
 
@@ -55,7 +55,7 @@ public class CompositeComponentFactory extends ComponentFactory {
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
         component.height = 100;
         component.width = 100;
 
@@ -69,14 +69,14 @@ public class CompositeComponentFactory extends ComponentFactory {
             super.createNodeComponent(root, entity);
         }
 
-        NodeComponent node = new NodeComponent();
+        NodeComponent node = createComponent(NodeComponent.class);
         entity.add(node);
     }
 
     protected void createCompositeComponents(Entity entity, CompositeItemVO vo) {
-        CompositeTransformComponent compositeTransform = new CompositeTransformComponent();
+        CompositeTransformComponent compositeTransform = createComponent(CompositeTransformComponent.class);
 
-        LayerMapComponent layerMap = new LayerMapComponent();
+        LayerMapComponent layerMap = createComponent(LayerMapComponent.class);
         layerMap.layers = vo.composite.layers;
 
         if(layerMap.layers.size() == 0) {
@@ -28,16 +28,29 @@ public class LabelComponentFactory extends ComponentFactory{
 
 	@Override
 	public void createComponents(Entity root, Entity entity, MainItemVO vo) {
+		 createComponents(root, entity, vo, resolveResources(vo));
+	}
+
+	/**
+	 * @return label style, it only references the font, so all entities can share it
+	 */
+	@Override
+	public Object resolveResources(MainItemVO vo) {
+		return generateStyle(rm, ((LabelVO) vo).style, ((LabelVO) vo).size);
+	}
+
+	@Override
+	public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
 		 createCommonComponents(entity, vo, EntityFactory.LABEL_TYPE);
 		 createParentNodeComponent(root, entity);
 		 createNodeComponent(root, entity);
 		 createPhysicsComponents(entity, vo);
-		 createLabelComponent(entity, (LabelVO) vo);
+		 createLabelComponent(entity, (LabelVO) vo, (LabelStyle) resources);
 	}
 
 	@Override
 	protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
         component.height = ((LabelVO) vo).height;
         component.width = ((LabelVO) vo).width;
 
@@ -45,8 +58,10 @@ public class LabelComponentFactory extends ComponentFactory{
         return component;
     }
 
-    protected LabelComponent createLabelComponent(Entity entity, LabelVO vo) {
-    	LabelComponent component = new LabelComponent(vo.text, generateStyle(rm, vo.style, vo.size));
+    protected LabelComponent createLabelComponent(Entity entity, LabelVO vo, LabelStyle style) {
+    	LabelComponent component = createComponent(LabelComponent.class);
+        component.setStyle(style);
+        component.setText(vo.text);
         component.fontName = vo.style;
         component.fontSize = vo.size;
 
@@ -54,7 +54,7 @@ public class LightComponentFactory extends ComponentFactory {
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
         component.height = 40;
         component.width = 40;
         component.boundBox = new Rectangle(-10, -10, 20, 20);
@@ -64,7 +64,8 @@ public class LightComponentFactory extends ComponentFactory {
     }
 
     protected LightObjectComponent createLightObjectComponent(Entity entity, LightVO vo) {
-        LightObjectComponent component = new LightObjectComponent(vo.type);
+        LightObjectComponent component = createComponent(LightObjectComponent.class);
+        component.setType(vo.type);
         component.coneDegree = vo.coneDegree;
         component.directionDegree = vo.directionDegree;
         component.distance = vo.distance;
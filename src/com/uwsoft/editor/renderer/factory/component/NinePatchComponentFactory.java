@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.physics.box2d.World;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.NinePatchComponent;
 import com.uwsoft.editor.renderer.data.Image9patchVO;
@@ -26,7 +27,31 @@ public class NinePatchComponentFactory extends ComponentFactory {
 
 	@Override
 	public void createComponents(Entity root, Entity entity, MainItemVO vo) {
-		ninePatchComponent = createNinePatchComponent(entity, (Image9patchVO) vo);
+		createComponents(root, entity, vo, resolveResources(vo));
+	}
+
+	/**
+	 * @return nine patch scaled to world units, every entity gets a copy of it
+	 */
+	@Override
+	public Object resolveResources(MainItemVO vo) {
+		AtlasRegion atlasRegion = (TextureAtlas.AtlasRegion) rm.getTextureRegion(((Image9patchVO) vo).imageName);
+		NinePatch ninePatch = new NinePatch(atlasRegion, atlasRegion.splits[0], atlasRegion.splits[1], atlasRegion.splits[2], atlasRegion.splits[3]);
+
+		ResolutionEntryVO resolutionEntryVO = rm.getLoadedResolution();
+		ProjectInfoVO projectInfoVO = rm.getProjectVO();
+		float multiplier = resolutionEntryVO.getMultiplier(rm.getProjectVO().originalResolution);
+
+		ninePatch.scale(multiplier/projectInfoVO.pixelToWorld, multiplier/projectInfoVO.pixelToWorld);
+		ninePatch.setMiddleWidth(ninePatch.getMiddleWidth()*multiplier/projectInfoVO.pixelToWorld);
+		ninePatch.setMiddleHeight(ninePatch.getMiddleHeight()*multiplier/projectInfoVO.pixelToWorld);
+
+		return ninePatch;
+	}
+
+	@Override
+	public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
+		ninePatchComponent = createNinePatchComponent(entity, (Image9patchVO) vo, (NinePatch) resources);
 		createCommonComponents(entity, vo, EntityFactory.NINE_PATCH);
 		createParentNodeComponent(root, entity);
 		createNodeComponent(root, entity);
@@ -35,7 +60,7 @@ public class NinePatchComponentFactory extends ComponentFactory {
 
 	@Override
 	protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-		DimensionsComponent component = new DimensionsComponent();
+		DimensionsComponent component = createComponent(DimensionsComponent.class);
 		component.height = ((Image9patchVO) vo).height;
 		component.width = ((Image9patchVO) vo).width;
 		if(component.width == 0) {
@@ -50,19 +75,18 @@ public class NinePatchComponentFactory extends ComponentFactory {
 		return component;
 	}
 
-	private NinePatchComponent createNinePatchComponent(Entity entity, Image9patchVO vo) {
-		NinePatchComponent ninePatchComponent = new NinePatchComponent();
-		AtlasRegion atlasRegion = (TextureAtlas.AtlasRegion) rm.getTextureRegion(vo.imageName);
-		ninePatchComponent.ninePatch = new NinePatch(atlasRegion, atlasRegion.splits[0], atlasRegion.splits[1], atlasRegion.splits[2], atlasRegion.splits[3]);
-
-		ResolutionEntryVO resolutionEntryVO = rm.getLoadedResolution();
-		ProjectInfoVO projectInfoVO = rm.getProjectVO();
-		float multiplier = resolutionEntryVO.getMultiplier(rm.getProjectVO().originalResolution);
+	@Override
+	protected BoundingBoxComponent createBoundingBoxComponent(Entity entity, MainItemVO vo) {
+		BoundingBoxComponent component = super.createBoundingBoxComponent(entity, vo);
+		// nine patch is drawn without its scale and rotation, so it is bounded the same way
+		component.transformed = false;
 
-		ninePatchComponent.ninePatch.scale(multiplier/projectInfoVO.pixelToWorld, multiplier/projectInfoVO.pixelToWorld);
-		ninePatchComponent.ninePatch.setMiddleWidth(ninePatchComponent.ninePatch.getMiddleWidth()*multiplier/projectInfoVO.pixelToWorld);
-		ninePatchComponent.ninePatch.setMiddleHeight(ninePatchComponent.ninePatch.getMiddleHeight()*multiplier/projectInfoVO.pixelToWorld);
+		return component;
+	}
 
+	private NinePatchComponent createNinePatchComponent(Entity entity, Image9patchVO vo, NinePatch ninePatch) {
+		NinePatchComponent ninePatchComponent = createComponent(NinePatchComponent.class);
+		ninePatchComponent.ninePatch = new NinePatch(ninePatch);
 		ninePatchComponent.textureRegionName = vo.imageName;
 		entity.add(ninePatchComponent);
 
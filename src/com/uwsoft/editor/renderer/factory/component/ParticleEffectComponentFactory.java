@@ -22,6 +22,7 @@ import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.World;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
@@ -32,6 +33,7 @@ import com.uwsoft.editor.renderer.data.ParticleEffectVO;
 import com.uwsoft.editor.renderer.data.ProjectInfoVO;
 import com.uwsoft.editor.renderer.data.ResolutionEntryVO;
 import com.uwsoft.editor.renderer.factory.EntityFactory;
+import com.uwsoft.editor.renderer.resources.IParticleEffectPoolRetriever;
 import com.uwsoft.editor.renderer.resources.IResourceRetriever;
 import com.uwsoft.editor.renderer.utils.ComponentRetriever;
 
@@ -47,16 +49,31 @@ public class ParticleEffectComponentFactory extends ComponentFactory {
 
     @Override
     public void createComponents(Entity root, Entity entity, MainItemVO vo) {
+        createComponents(root, entity, vo, resolveResources(vo));
+    }
+
+    /**
+     * @return pool of the effect if resource retriever keeps them, otherwise effect to copy for every entity
+     */
+    @Override
+    public Object resolveResources(MainItemVO vo) {
+        String particleName = ((ParticleEffectVO) vo).particleName;
+        ParticleEffectPool pool = rm instanceof IParticleEffectPoolRetriever ? ((IParticleEffectPoolRetriever) rm).getParticleEffectPool(particleName) : null;
+        return pool != null ? pool : rm.getParticleEffect(particleName);
+    }
+
+    @Override
+    public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
         createCommonComponents(entity, vo, EntityFactory.PARTICLE_TYPE);
         createParentNodeComponent(root, entity);
         createNodeComponent(root, entity);
         createPhysicsComponents(entity, vo);
-        createParticleComponent(entity, (ParticleEffectVO) vo);
+        createParticleComponent(entity, (ParticleEffectVO) vo, resources);
     }
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
 
         ProjectInfoVO projectInfoVO = rm.getProjectVO();
         float boundBoxSize = 70f;
@@ -66,11 +83,14 @@ public class ParticleEffectComponentFactory extends ComponentFactory {
         return component;
     }
 
-    protected ParticleComponent createParticleComponent(Entity entity, ParticleEffectVO vo) {
-        ParticleComponent component = new ParticleComponent();
+    protected ParticleComponent createParticleComponent(Entity entity, ParticleEffectVO vo, Object effect) {
+        ParticleComponent component = createComponent(ParticleComponent.class);
         component.particleName = vo.particleName;
-		ParticleEffect particleEffect = new ParticleEffect(rm.getParticleEffect(vo.particleName));
-        component.particleEffect = particleEffect;
+        if(effect instanceof ParticleEffectPool) {
+            component.particleEffect = ((ParticleEffectPool) effect).obtain();
+        } else {
+            component.particleEffect = new ParticleEffect((ParticleEffect) effect);
+        }
 
         ProjectInfoVO projectInfoVO = rm.getProjectVO();
 
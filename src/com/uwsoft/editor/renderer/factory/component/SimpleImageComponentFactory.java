@@ -21,6 +21,7 @@ package com.uwsoft.editor.renderer.factory.component;
 import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.physics.box2d.World;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.TextureRegionComponent;
@@ -43,7 +44,20 @@ public class SimpleImageComponentFactory extends ComponentFactory {
     }
 
     public void createComponents(Entity root, Entity entity, MainItemVO vo) {
-        textureRegionComponent = createTextureRegionComponent(entity, (SimpleImageVO) vo);
+        createComponents(root, entity, vo, resolveResources(vo));
+    }
+
+    /**
+     * @return texture region of the image
+     */
+    @Override
+    public Object resolveResources(MainItemVO vo) {
+        return rm.getTextureRegion(((SimpleImageVO) vo).imageName);
+    }
+
+    @Override
+    public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
+        textureRegionComponent = createTextureRegionComponent(entity, (SimpleImageVO) vo, (TextureRegion) resources);
         createCommonComponents( entity, vo, EntityFactory.IMAGE_TYPE);
         createParentNodeComponent(root, entity);
         createNodeComponent(root, entity);
@@ -52,7 +66,7 @@ public class SimpleImageComponentFactory extends ComponentFactory {
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
 
         ResolutionEntryVO resolutionEntryVO = rm.getLoadedResolution();
         ProjectInfoVO projectInfoVO = rm.getProjectVO();
@@ -65,10 +79,10 @@ public class SimpleImageComponentFactory extends ComponentFactory {
         return component;
     }
 
-    protected TextureRegionComponent createTextureRegionComponent(Entity entity, SimpleImageVO vo) {
-        TextureRegionComponent component = new TextureRegionComponent();
+    protected TextureRegionComponent createTextureRegionComponent(Entity entity, SimpleImageVO vo, TextureRegion region) {
+        TextureRegionComponent component = createComponent(TextureRegionComponent.class);
         component.regionName = vo.imageName;
-        component.region = rm.getTextureRegion(vo.imageName);
+        component.region = region;
 
         entity.add(component);
 
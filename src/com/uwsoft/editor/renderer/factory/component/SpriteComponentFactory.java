@@ -51,16 +51,30 @@ public class SpriteComponentFactory extends ComponentFactory {
 
     @Override
     public void createComponents(Entity root, Entity entity, MainItemVO vo) {
+        createComponents(root, entity, vo, resolveResources(vo));
+    }
+
+    /**
+     * @return regions of the animation sorted by frame, shared by all entities
+     */
+    @Override
+    public Object resolveResources(MainItemVO vo) {
+        return SpriteAnimationStateComponent.sortRegions(rm.getSpriteAnimation(((SpriteAnimationVO) vo).animationName).getRegions());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
         createCommonComponents(entity, vo, EntityFactory.SPRITE_TYPE);
         createParentNodeComponent(root, entity);
         createNodeComponent(root, entity);
         createPhysicsComponents(entity, vo);
-        createSpriteAnimationDataComponent(entity, (SpriteAnimationVO) vo);
+        createSpriteAnimationDataComponent(entity, (SpriteAnimationVO) vo, (Array<TextureAtlas.AtlasRegion>) resources);
     }
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
 
         SpriteAnimationVO sVo = (SpriteAnimationVO) vo;
         Array<TextureAtlas.AtlasRegion> regions = rm.getSpriteAnimation(sVo.animationName).getRegions();
@@ -75,8 +89,8 @@ public class SpriteComponentFactory extends ComponentFactory {
         return component;
     }
 
-    protected SpriteAnimationComponent createSpriteAnimationDataComponent(Entity entity, SpriteAnimationVO vo) {
-        SpriteAnimationComponent spriteAnimationComponent = new SpriteAnimationComponent();
+    protected SpriteAnimationComponent createSpriteAnimationDataComponent(Entity entity, SpriteAnimationVO vo, Array<TextureAtlas.AtlasRegion> sortedRegions) {
+        SpriteAnimationComponent spriteAnimationComponent = createComponent(SpriteAnimationComponent.class);
         spriteAnimationComponent.animationName = vo.animationName;
 
         spriteAnimationComponent.frameRangeMap = new HashMap<String, FrameRange>();
@@ -94,13 +108,12 @@ public class SpriteComponentFactory extends ComponentFactory {
         if(vo.playMode == 5) spriteAnimationComponent.playMode = Animation.PlayMode.LOOP_RANDOM;
         if(vo.playMode == 6) spriteAnimationComponent.playMode = Animation.PlayMode.NORMAL;
 
-        Array<TextureAtlas.AtlasRegion> regions = rm.getSpriteAnimation(spriteAnimationComponent.animationName).getRegions();
-
-        AnimationComponent animationComponent = new AnimationComponent();
-        SpriteAnimationStateComponent stateComponent = new SpriteAnimationStateComponent(regions);
+        AnimationComponent animationComponent = createComponent(AnimationComponent.class);
+        SpriteAnimationStateComponent stateComponent = createComponent(SpriteAnimationStateComponent.class);
+        stateComponent.allRegions = sortedRegions;
 
         if(spriteAnimationComponent.frameRangeMap.isEmpty()) {
-            spriteAnimationComponent.frameRangeMap.put("Default", new FrameRange("Default", 0, regions.size-1));
+            spriteAnimationComponent.frameRangeMap.put("Default", new FrameRange("Default", 0, sortedRegions.size-1));
         }
         if(spriteAnimationComponent.currentAnimation == null) {
             spriteAnimationComponent.currentAnimation = (String) spriteAnimationComponent.frameRangeMap.keySet().toArray()[0];
@@ -111,8 +124,8 @@ public class SpriteComponentFactory extends ComponentFactory {
 
         stateComponent.set(spriteAnimationComponent);
 
-        TextureRegionComponent textureRegionComponent = new TextureRegionComponent();
-        textureRegionComponent.region = regions.get(0);
+        TextureRegionComponent textureRegionComponent = createComponent(TextureRegionComponent.class);
+        textureRegionComponent.region = sortedRegions.get(0);
         
         entity.add(textureRegionComponent);
         entity.add(stateComponent);
@@ -21,11 +21,9 @@ package com.uwsoft.editor.renderer.factory.component;
 import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.physics.box2d.World;
 import com.brashmonkey.spriter.Player;
 import com.brashmonkey.spriter.Rectangle;
-import com.brashmonkey.spriter.SCMLReader;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.spriter.SpriterComponent;
 import com.uwsoft.editor.renderer.components.spriter.SpriterDrawerComponent;
@@ -33,9 +31,9 @@ import com.uwsoft.editor.renderer.data.MainItemVO;
 import com.uwsoft.editor.renderer.data.SpriterVO;
 import com.uwsoft.editor.renderer.factory.EntityFactory;
 import com.uwsoft.editor.renderer.resources.IResourceRetriever;
+import com.uwsoft.editor.renderer.resources.SpriterDataCache;
 import com.uwsoft.editor.renderer.utils.ComponentRetriever;
 import com.uwsoft.editor.renderer.utils.LibGdxDrawer;
-import com.uwsoft.editor.renderer.utils.LibGdxLoader;
 
 /**
  * Created by azakhary on 5/22/2015.
@@ -48,7 +46,27 @@ public class SpriterComponentFactory extends ComponentFactory {
 
     @Override
     public void createComponents(Entity root, Entity entity, MainItemVO vo) {
-        createSpriterDataComponent(entity, (SpriterVO) vo);
+        Object resources = resolveResources(vo);
+        createComponents(root, entity, vo, resources);
+        releaseResources(vo, resources);
+    }
+
+    /**
+     * @return shared data and packed atlas of the animation, with a reference held until {@link #releaseResources(MainItemVO, Object)}
+     */
+    @Override
+    public Object resolveResources(MainItemVO vo) {
+        return SpriterDataCache.obtain(((SpriterVO) vo).animationName, rm.getSCMLFile(((SpriterVO) vo).animationName));
+    }
+
+    @Override
+    public void releaseResources(MainItemVO vo, Object resources) {
+        SpriterDataCache.release(((SpriterVO) vo).animationName);
+    }
+
+    @Override
+    public void createComponents(Entity root, Entity entity, MainItemVO vo, Object resources) {
+        createSpriterDataComponent(entity, (SpriterVO) vo, (SpriterDataCache.Entry) resources);
         createCommonComponents(entity, vo, EntityFactory.SPRITER_TYPE);
         createParentNodeComponent(root, entity);
         createNodeComponent(root, entity);
@@ -57,7 +75,7 @@ public class SpriterComponentFactory extends ComponentFactory {
 
     @Override
     protected DimensionsComponent createDimensionsComponent(Entity entity, MainItemVO vo) {
-        DimensionsComponent component = new DimensionsComponent();
+        DimensionsComponent component = createComponent(DimensionsComponent.class);
 
         SpriterComponent spriterComponent = ComponentRetriever.get(entity, SpriterComponent.class);
 
@@ -69,17 +87,16 @@ public class SpriterComponentFactory extends ComponentFactory {
         return component;
     }
 
-    protected SpriterComponent createSpriterDataComponent(Entity entity, SpriterVO vo) {
-        SpriterComponent component = new SpriterComponent();
+    protected SpriterComponent createSpriterDataComponent(Entity entity, SpriterVO vo, SpriterDataCache.Entry cached) {
+        SpriterComponent component = createComponent(SpriterComponent.class);
         component. entity = vo.entity;
         component.animation = vo.animation;
         component. animationName = vo.animationName;
         component.scale = vo.scale;
 
-        FileHandle handle 	=	rm.getSCMLFile(vo.animationName);
-        component.data = new SCMLReader(handle.read()).getData();
-        LibGdxLoader loader = 	new LibGdxLoader(component.data);
-        loader.load(handle.file());
+        // data and packed atlas are shared between all players of the same animation, every entity holds its own reference
+        SpriterDataCache.retain(vo.animationName);
+        component.data = cached.data;
 
         component.currentAnimationIndex	=	vo.animation;
         component.currentEntityIndex		=	vo.entity;
@@ -89,9 +106,9 @@ public class SpriterComponentFactory extends ComponentFactory {
         component.player.setAnimation(component.currentAnimationIndex);
         component.player.setScale(component.scale);
 
-        SpriterDrawerComponent spriterDrawer = new SpriterDrawerComponent();
+        SpriterDrawerComponent spriterDrawer = createComponent(SpriterDrawerComponent.class);
 
-        spriterDrawer.drawer = new LibGdxDrawer(loader, null);
+        spriterDrawer.drawer = new LibGdxDrawer(cached.loader, null);
 
         entity.add(component);
         entity.add(spriterDrawer);
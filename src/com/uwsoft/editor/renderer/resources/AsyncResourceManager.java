@@ -0,0 +1,531 @@
+package com.uwsoft.editor.renderer.resources;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.uwsoft.editor.renderer.data.ProjectInfoVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.resources.loaders.FreeTypeFontDataLoader;
+import com.uwsoft.editor.renderer.resources.loaders.JsonDataLoader;
+import com.uwsoft.editor.renderer.resources.loaders.ParticleEffectDataLoader;
+import com.uwsoft.editor.renderer.resources.loaders.SpriterDataLoader;
+
+/**
+ * ResourceManager that loads everything through an {@link AssetManager}, so the game can keep rendering
+ * (e.g. a loading screen) while scenes are loaded.
+ *
+ * Reading and parsing of project and scene data, atlases, particle effects and Spriter files,
+ * as well as packing Spriter images and rasterizing TTF fonts, happens on the AssetManager loader thread.
+ * Only texture uploads are done on the render thread, inside {@link #update(int)} calls.
+ *
+ * Usage: call {@link #initAllResourcesAsync()} or {@link #initSceneAsync(String)},
+ * then call {@link #update(int)} every frame until it returns true, using {@link #getProgress()} for the loading bar.
+ * Blocking methods of ResourceManager (initAllResources, initScene) keep working, and use the same loaders.
+ */
+public class AsyncResourceManager extends ResourceManager {
+
+    private static final String PROJECT_FILE = "project.dt";
+
+    private enum Stage {
+        IDLE, PROJECT, SCENES, ASSETS
+    }
+
+    private static final float PROJECT_WEIGHT = 0.05f;
+    private static final float SCENES_WEIGHT = 0.10f;
+
+    protected final AssetManager assetManager;
+
+    private Stage stage = Stage.IDLE;
+    /** Scenes requested but not scheduled yet, null means all scenes of the project */
+    private ArrayList<String> pendingSceneNames = new ArrayList<String>();
+    /** Assets of previously loaded resolution, unloaded once assets of the new one are collected */
+    private ArrayList<String> staleAssetPaths = new ArrayList<String>();
+
+    public AsyncResourceManager() {
+        this(new InternalFileHandleResolver());
+    }
+
+    public AsyncResourceManager(FileHandleResolver resolver) {
+        assetManager = new AssetManager(resolver);
+        assetManager.setLoader(ProjectInfoVO.class, new JsonDataLoader<ProjectInfoVO>(resolver, ProjectInfoVO.class));
+        assetManager.setLoader(SceneVO.class, new JsonDataLoader<SceneVO>(resolver, SceneVO.class));
+        assetManager.setLoader(ParticleEffect.class, new ParticleEffectDataLoader(resolver));
+        assetManager.setLoader(SpriterDataCache.Entry.class, new SpriterDataLoader(resolver));
+        assetManager.setLoader(BitmapFont.class, ".ttf", new FreeTypeFontDataLoader(resolver, getFontCache()));
+    }
+
+    /**
+     * Starts loading of project data, all of its scenes, and all the assets they use.
+     * Loading is done by following {@link #update(int)} calls.
+     */
+    public void initAllResourcesAsync() {
+        if(projectVO == null) {
+            // scene list is known only after project data is loaded
+            pendingSceneNames = null;
+        } else {
+            for (int i = 0; i < projectVO.scenes.size(); i++) {
+                addPendingScene(projectVO.scenes.get(i).sceneName);
+            }
+        }
+        startLoading();
+    }
+
+    /**
+     * Starts loading of scene data and the assets it needs, loading project data first if it is not loaded yet.
+     * Loading is done by following {@link #update(int)} calls.
+     *
+     * @param sceneName - scene file name without ".dt" extension
+     */
+    public void initSceneAsync(String sceneName) {
+        if(pendingSceneNames != null) {
+            addPendingScene(sceneName);
+        }
+        startLoading();
+    }
+
+    private void addPendingScene(String sceneName) {
+        if(!pendingSceneNames.contains(sceneName)) {
+            pendingSceneNames.add(sceneName);
+        }
+    }
+
+    private void startLoading() {
+        if(stage != Stage.IDLE) {
+            // pending scenes are picked up when current stage is done
+            return;
+        }
+
+        if(projectVO == null) {
+            assetManager.load(PROJECT_FILE, ProjectInfoVO.class);
+            stage = Stage.PROJECT;
+        } else {
+            queueScenes();
+        }
+    }
+
+    /**
+     * Continues loading, for roughly the given amount of time. Must be called on the render thread.
+     *
+     * @param budgetMillis time that can be spent in this call, in milliseconds
+     * @return true if everything requested is loaded
+     */
+    public boolean update(int budgetMillis) {
+        long endTime = TimeUtils.millis() + budgetMillis;
+        while (stage != Stage.IDLE) {
+            int remaining = (int) Math.max(0, endTime - TimeUtils.millis());
+            if(!assetManager.update(remaining)) {
+                return false;
+            }
+
+            switch (stage) {
+                case PROJECT:
+                    projectVO = assetManager.get(PROJECT_FILE, ProjectInfoVO.class);
+                    assetManager.unload(PROJECT_FILE);
+                    queueScenes();
+                    break;
+                case SCENES:
+                    collectScenes();
+                    prepareAssetsToLoad();
+                    queueAssets();
+                    stage = Stage.ASSETS;
+                    break;
+                case ASSETS:
+                    collectAssets();
+                    stage = Stage.IDLE;
+                    // scenes requested while assets were loading
+                    if(!pendingSceneNames.isEmpty()) queueScenes();
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until everything requested is loaded
+     */
+    public void finishLoading() {
+        while (!update(Integer.MAX_VALUE)) {
+            // keeps going until all stages are done
+        }
+    }
+
+    /**
+     * @return true if there is nothing left to load
+     */
+    public boolean isFinished() {
+        return stage == Stage.IDLE;
+    }
+
+    /**
+     * @return loading progress of everything currently requested, from 0 to 1
+     */
+    public float getProgress() {
+        float stageProgress = assetManager.getProgress();
+        switch (stage) {
+            case PROJECT:
+                return PROJECT_WEIGHT * stageProgress;
+            case SCENES:
+                return PROJECT_WEIGHT + SCENES_WEIGHT * stageProgress;
+            case ASSETS:
+                return PROJECT_WEIGHT + SCENES_WEIGHT + (1f - PROJECT_WEIGHT - SCENES_WEIGHT) * stageProgress;
+            default:
+                return 1f;
+        }
+    }
+
+    /**
+     * @return asset manager holding all loaded assets
+     */
+    public AssetManager getAssetManager() {
+        return assetManager;
+    }
+
+    private void queueScenes() {
+        if(pendingSceneNames == null) {
+            pendingSceneNames = new ArrayList<String>();
+            for (int i = 0; i < projectVO.scenes.size(); i++) {
+                pendingSceneNames.add(projectVO.scenes.get(i).sceneName);
+            }
+        }
+        for (String sceneName : pendingSceneNames) {
+            if(!loadedSceneVOs.containsKey(sceneName)) {
+                assetManager.load(getScenePath(sceneName), SceneVO.class);
+            }
+        }
+        stage = Stage.SCENES;
+    }
+
+    private void collectScenes() {
+        Iterator<String> it = pendingSceneNames.iterator();
+        while (it.hasNext()) {
+            String sceneName = it.next();
+            String path = getScenePath(sceneName);
+            if(assetManager.isLoaded(path)) {
+                loadedSceneVOs.put(sceneName, assetManager.get(path, SceneVO.class));
+                assetManager.unload(path);
+            }
+            // scenes requested after data was queued stay pending for the next pass
+            if(!loadedSceneVOs.containsKey(sceneName)) continue;
+
+            if(!preparedSceneNames.contains(sceneName)) {
+                scheduleScene(sceneName);
+            }
+            it.remove();
+        }
+    }
+
+    /**
+     * Queues all scheduled assets, every IAssetLoader method of this class only queues
+     */
+    private void queueAssets() {
+        super.loadAssets();
+    }
+
+    /**
+     * Queues assets retained since last call and unloads released ones, loading is done by following {@link #update(int)} calls
+     */
+    @Override
+    public void loadRetainedAssets() {
+        prepareAssetsToLoad();
+        queueAssets();
+        if(stage == Stage.IDLE) stage = Stage.ASSETS;
+    }
+
+    @Override
+    public void loadAssets() {
+        queueAssets();
+        assetManager.finishLoading();
+        collectAssets();
+    }
+
+    /**
+     * Particle effects are unloaded right away, as their path is the same in every resolution.
+     * Other assets are unloaded only after assets of the new resolution are collected, so scene can keep rendering while they load.
+     */
+    @Override
+    protected void unloadResolutionAssets() {
+        for (String name : particleEffects.keySet()) {
+            assetManager.unload(getParticleEffectPath(name));
+        }
+        particleEffects.clear();
+        particleEffectPools.clear();
+
+        // resolution name and multiplier are still the ones assets were loaded with
+        unloadLater(getAtlasPackPath(loadedResolutionName));
+        for (String name : spriteAnimations.keySet()) {
+            unloadLater(getSpriteAnimationPath(loadedResolutionName, name));
+        }
+        spriteAnimations.clear();
+        for (String name : skeletonAtlases.keySet()) {
+            unloadLater(getSpineAtlasPath(loadedResolutionName, name));
+        }
+        skeletonAtlases.clear();
+        skeletonJSON.clear();
+        for (FontSizePair pair : bitmapFonts.keySet()) {
+            unloadLater(getFontPath(pair));
+        }
+        bitmapFonts.clear();
+    }
+
+    private void unloadLater(String path) {
+        if(assetManager.isLoaded(path)) staleAssetPaths.add(path);
+    }
+
+    @Override
+    public void loadAtlasPack() {
+        String path = getAtlasPackPath();
+        if(!assetManager.isLoaded(path) && Gdx.files.internal(path).exists()) {
+            assetManager.load(path, TextureAtlas.class);
+        }
+    }
+
+    @Override
+    public void loadParticleEffects() {
+        Iterator<String> it = particleEffects.keySet().iterator();
+        while (it.hasNext()) {
+            String name = it.next();
+            if (!particleEffectNamesToLoad.contains(name)) {
+                it.remove();
+                particleEffectPools.remove(name);
+                assetManager.unload(getParticleEffectPath(name));
+            }
+        }
+
+        String packPath = getAtlasPackPath();
+        boolean hasPack = assetManager.isLoaded(packPath) || Gdx.files.internal(packPath).exists();
+        for (String name : particleEffectNamesToLoad) {
+            if (particleEffects.containsKey(name)) continue;
+            ParticleEffectDataLoader.ParticleEffectDataParameter parameter = new ParticleEffectDataLoader.ParticleEffectDataParameter();
+            parameter.atlasFile = hasPack ? packPath : null;
+            assetManager.load(getParticleEffectPath(name), ParticleEffect.class, parameter);
+        }
+    }
+
+    @Override
+    public void loadSpriteAnimations() {
+        Iterator<String> it = spriteAnimations.keySet().iterator();
+        while (it.hasNext()) {
+            String name = it.next();
+            if (!spriteAnimNamesToLoad.contains(name)) {
+                it.remove();
+                assetManager.unload(getSpriteAnimationPath(name));
+            }
+        }
+
+        for (String name : spriteAnimNamesToLoad) {
+            if (spriteAnimations.containsKey(name)) continue;
+            assetManager.load(getSpriteAnimationPath(name), TextureAtlas.class);
+        }
+    }
+
+    @Override
+    public void loadSpriterAnimations() {
+        Iterator<String> it = spriterAnimations.keySet().iterator();
+        while (it.hasNext()) {
+            String name = it.next();
+            if (!spriterAnimNamesToLoad.contains(name)) {
+                it.remove();
+                SpriterDataCache.release(name);
+            }
+        }
+
+        for (String name : spriterAnimNamesToLoad) {
+            if (spriterAnimations.containsKey(name) || SpriterDataCache.isLoaded(name)) continue;
+            assetManager.load(getSpriterAnimationPath(name), SpriterDataCache.Entry.class);
+        }
+    }
+
+    @Override
+    public void loadSpineAnimations() {
+        Iterator<String> it = skeletonAtlases.keySet().iterator();
+        while (it.hasNext()) {
+            String name = it.next();
+            if (!spineAnimNamesToLoad.contains(name)) {
+                it.remove();
+                skeletonJSON.remove(name);
+                assetManager.unload(getSpineAtlasPath(name));
+            }
+        }
+
+        for (String name : spineAnimNamesToLoad) {
+            if (skeletonAtlases.containsKey(name)) continue;
+            loadSpineAnimation(name);
+        }
+    }
+
+    @Override
+    public void loadSpineAnimation(String name) {
+        assetManager.load(getSpineAtlasPath(name), TextureAtlas.class);
+    }
+
+    @Override
+    public void loadFonts() {
+        calculateResMultiplier();
+
+        Iterator<FontSizePair> it = bitmapFonts.keySet().iterator();
+        while (it.hasNext()) {
+            FontSizePair pair = it.next();
+            if (!fontsToLoad.contains(pair)) {
+                it.remove();
+                assetManager.unload(getFontPath(pair));
+            }
+        }
+
+        for (FontSizePair pair : fontsToLoad) {
+            if (bitmapFonts.containsKey(pair)) continue;
+            loadFont(pair);
+        }
+    }
+
+    @Override
+    public void loadFont(FontSizePair pair) {
+        FreeTypeFontDataLoader.FreeTypeFontDataParameter parameter = new FreeTypeFontDataLoader.FreeTypeFontDataParameter();
+        parameter.fontFile = fontsPath + "/" + pair.fontName + ".ttf";
+        parameter.fontParameters.size = getScaledFontSize(pair);
+        parameter.resMultiplier = resMultiplier;
+        assetManager.load(getFontPath(pair), BitmapFont.class, parameter);
+    }
+
+    /**
+     * Moves loaded assets from asset manager into the maps used by the retriever methods
+     */
+    protected void collectAssets() {
+        String packPath = getAtlasPackPath();
+        if(assetManager.isLoaded(packPath)) {
+            mainPack = assetManager.get(packPath, TextureAtlas.class);
+        }
+
+        for (String name : particleEffectNamesToLoad) {
+            String path = getParticleEffectPath(name);
+            if(assetManager.isLoaded(path)) particleEffects.put(name, assetManager.get(path, ParticleEffect.class));
+        }
+
+        for (String name : spriteAnimNamesToLoad) {
+            String path = getSpriteAnimationPath(name);
+            if(assetManager.isLoaded(path)) spriteAnimations.put(name, assetManager.get(path, TextureAtlas.class));
+        }
+
+        for (String name : spineAnimNamesToLoad) {
+            String path = getSpineAtlasPath(name);
+            if(assetManager.isLoaded(path)) {
+                skeletonAtlases.put(name, assetManager.get(path, TextureAtlas.class));
+                skeletonJSON.put(name, Gdx.files.internal("orig/" + spineAnimationsPath + "/" + name + "/" + name + ".json"));
+            }
+        }
+
+        for (String name : spriterAnimNamesToLoad) {
+            if (spriterAnimations.containsKey(name)) continue;
+            String path = getSpriterAnimationPath(name);
+            spriterAnimations.put(name, Gdx.files.internal(path));
+            SpriterDataCache.retain(name);
+            if(assetManager.isLoaded(path)) {
+                // parsed data and packed atlas now belong to the cache
+                SpriterDataCache.putLoaded(name, assetManager.get(path, SpriterDataCache.Entry.class));
+                assetManager.unload(path);
+            }
+        }
+
+        for (FontSizePair pair : fontsToLoad) {
+            String path = getFontPath(pair);
+            if(assetManager.isLoaded(path)) bitmapFonts.put(pair, assetManager.get(path, BitmapFont.class));
+        }
+
+        // assets loaded again under the same path only lose the reference taken by previous resolution
+        for (String path : staleAssetPaths) {
+            assetManager.unload(path);
+        }
+        staleAssetPaths.clear();
+    }
+
+    @Override
+    public SceneVO loadSceneVO(String sceneName) {
+        String path = getScenePath(sceneName);
+        assetManager.load(path, SceneVO.class);
+        assetManager.finishLoadingAsset(path);
+        SceneVO sceneVO = assetManager.get(path, SceneVO.class);
+        assetManager.unload(path);
+
+        loadedSceneVOs.put(sceneName, sceneVO);
+
+        return sceneVO;
+    }
+
+    @Override
+    public ProjectInfoVO loadProjectVO() {
+        assetManager.load(PROJECT_FILE, ProjectInfoVO.class);
+        assetManager.finishLoadingAsset(PROJECT_FILE);
+        projectVO = assetManager.get(PROJECT_FILE, ProjectInfoVO.class);
+        assetManager.unload(PROJECT_FILE);
+
+        return projectVO;
+    }
+
+    /**
+     * Asset manager paths always use "/" as separator
+     */
+    protected String getScenePath(String sceneName) {
+        return scenesPath + "/" + sceneName + ".dt";
+    }
+
+    protected String getAtlasPackPath() {
+        return getAtlasPackPath(packResolutionName);
+    }
+
+    protected String getAtlasPackPath(String resolutionName) {
+        return resolutionName + "/pack.atlas";
+    }
+
+    protected String getParticleEffectPath(String name) {
+        return particleEffectsPath + "/" + name;
+    }
+
+    protected String getSpriteAnimationPath(String name) {
+        return getSpriteAnimationPath(packResolutionName, name);
+    }
+
+    protected String getSpriteAnimationPath(String resolutionName, String name) {
+        return resolutionName + "/" + spriteAnimationsPath + "/" + name + "/" + name + ".atlas";
+    }
+
+    protected String getSpineAtlasPath(String name) {
+        return getSpineAtlasPath(packResolutionName, name);
+    }
+
+    protected String getSpineAtlasPath(String resolutionName, String name) {
+        return resolutionName + "/" + spineAnimationsPath + "/" + name + "/" + name + ".atlas";
+    }
+
+    protected String getSpriterAnimationPath(String name) {
+        return "orig/" + spriterAnimationsPath + "/" + name + "/" + name + ".scml";
+    }
+
+    /**
+     * Fonts are generated per size, so the path is only a key made unique by size scaled to current resolution,
+     * real TTF file is passed in loader parameters
+     */
+    protected String getFontPath(FontSizePair pair) {
+        return fontsPath + "/" + getScaledFontSize(pair) + "/" + pair.fontName + ".ttf";
+    }
+
+    private int getScaledFontSize(FontSizePair pair) {
+        return Math.round(pair.fontSize * resMultiplier);
+    }
+
+    @Override
+    public void dispose() {
+        // main pack and all other assets are owned by asset manager
+        assetManager.dispose();
+        for (String name : spriterAnimations.keySet()) {
+            SpriterDataCache.release(name);
+        }
+        spriterAnimations.clear();
+    }
+}
@@ -0,0 +1,381 @@
+package com.uwsoft.editor.renderer.resources;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/**
+ * Generates bitmap fonts from TTF files, and keeps generated glyph pages (PNG) and font metrics
+ * in a local cache directory, so following launches read them instead of rasterizing again.
+ *
+ * Cache key is a hash of TTF file content, font size, resolution multiplier, character set and other generator parameters,
+ * so any change of those produces a new cache entry.
+ *
+ * Generation and cache reading ({@link #obtainData}) don't touch GL, and can run on a loader thread,
+ * only {@link #createFont} has to be called on the render thread.
+ */
+public class FreeTypeFontCache {
+
+    /** Increase when file format changes, so old entries are ignored */
+    private static final int FORMAT_VERSION = 1;
+    private static final String DATA_SUFFIX = ".fontdata";
+
+    /**
+     * Glyph data and page pixmaps of a generated or cached font, not yet uploaded to GL
+     */
+    public static class FontPages {
+        public final BitmapFontData data;
+        public final Array<Pixmap> pages;
+
+        public FontPages(BitmapFontData data, Array<Pixmap> pages) {
+            this.data = data;
+            this.pages = pages;
+        }
+    }
+
+    private final FileHandle directory;
+    private boolean enabled = true;
+
+    private final HashMap<String, String> fileHashes = new HashMap<String, String>();
+
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * Creates cache in "fontcache" folder of local storage, disabled if local storage is not available
+     */
+    public FreeTypeFontCache() {
+        this(Gdx.files.isLocalStorageAvailable() ? Gdx.files.local("fontcache") : null);
+    }
+
+    /**
+     * @param directory folder to keep cached fonts in, or null to only generate fonts without caching
+     */
+    public FreeTypeFontCache(FileHandle directory) {
+        this.directory = directory;
+        if(directory == null) enabled = false;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled && directory != null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Generates font, or reads it from cache, and uploads its pages. Must be called on the render thread.
+     *
+     * @param fontFile TTF file
+     * @param parameter generator parameters, size is expected to be already multiplied by resolution multiplier
+     * @param resMultiplier resolution multiplier the size was calculated with
+     */
+    public BitmapFont obtain(FileHandle fontFile, FreeTypeFontParameter parameter, float resMultiplier) {
+        return createFont(obtainData(fontFile, parameter, resMultiplier), parameter);
+    }
+
+    /**
+     * Reads font from cache, or generates and caches it if not found. Doesn't use GL, so can run on any thread.
+     */
+    public FontPages obtainData(FileHandle fontFile, FreeTypeFontParameter parameter, float resMultiplier) {
+        String key = null;
+        if(enabled) {
+            key = getKey(fontFile, parameter, resMultiplier);
+            FontPages cached = read(key);
+            if(cached != null) {
+                hitCount++;
+                return cached;
+            }
+        }
+        missCount++;
+
+        FontPages generated = generate(fontFile, parameter);
+        if(key != null) {
+            write(key, generated);
+        }
+        return generated;
+    }
+
+    /**
+     * Uploads font pages to textures and creates the font, must be called on the render thread.
+     * Font owns created textures, and page pixmaps are freed with them.
+     */
+    public static BitmapFont createFont(FontPages fontPages, FreeTypeFontParameter parameter) {
+        Array<TextureRegion> regions = new Array<TextureRegion>(fontPages.pages.size);
+        for (int i = 0; i < fontPages.pages.size; i++) {
+            final Pixmap pixmap = fontPages.pages.get(i);
+            // pixmap is kept as managed texture data, so it can be reloaded on context loss
+            Texture texture = new Texture(new PixmapTextureData(pixmap, pixmap.getFormat(), parameter.genMipMaps, false, true)) {
+                @Override
+                public void dispose() {
+                    super.dispose();
+                    pixmap.dispose();
+                }
+            };
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            regions.add(new TextureRegion(texture));
+        }
+
+        BitmapFont font = new BitmapFont(fontPages.data, regions, true);
+        font.setOwnsTexture(true);
+        return font;
+    }
+
+    private FontPages generate(FileHandle fontFile, FreeTypeFontParameter parameter) {
+        // packing into our own packer keeps generator from creating textures, and gives us the pixmaps
+        int pageSize = MathUtils.nextPowerOfTwo((int) Math.ceil(parameter.size * 1.5f * Math.sqrt(parameter.characters.length())));
+        if(FreeTypeFontGenerator.getMaxTextureSize() > 0) pageSize = Math.min(pageSize, FreeTypeFontGenerator.getMaxTextureSize());
+        PixmapPacker packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 2, false);
+
+        PixmapPacker previousPacker = parameter.packer;
+        parameter.packer = packer;
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
+        BitmapFontData data;
+        try {
+            data = generator.generateData(parameter);
+        } finally {
+            parameter.packer = previousPacker;
+            generator.dispose();
+        }
+
+        Array<Pixmap> pages = new Array<Pixmap>(packer.getPages().size);
+        for (PixmapPacker.Page page : packer.getPages()) {
+            pages.add(page.getPixmap());
+        }
+        return new FontPages(data, pages);
+    }
+
+    /**
+     * @return cache key of the font, unique for TTF content and all parameters affecting generated glyphs
+     */
+    public String getKey(FileHandle fontFile, FreeTypeFontParameter parameter, float resMultiplier) {
+        MessageDigest digest = createDigest();
+        digest.update(getFileHash(fontFile).getBytes());
+        String parameters = FORMAT_VERSION + "|" + parameter.size + "|" + resMultiplier + "|" + parameter.characters + "|"
+                + parameter.flip + "|" + parameter.kerning + "|" + parameter.color + "|"
+                + parameter.borderWidth + "|" + parameter.borderColor + "|" + parameter.borderStraight + "|"
+                + parameter.shadowOffsetX + "|" + parameter.shadowOffsetY + "|" + parameter.shadowColor;
+        try {
+            digest.update(parameters.getBytes("UTF-8"));
+        } catch (IOException e) {
+            throw new GdxRuntimeException(e);
+        }
+        return fontFile.nameWithoutExtension() + "_" + parameter.size + "_" + toHex(digest.digest());
+    }
+
+    private synchronized String getFileHash(FileHandle fontFile) {
+        String path = fontFile.path();
+        String hash = fileHashes.get(path);
+        if(hash == null) {
+            MessageDigest digest = createDigest();
+            hash = toHex(digest.digest(fontFile.readBytes()));
+            fileHashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    private FontPages read(String key) {
+        FileHandle dataFile = directory.child(key + DATA_SUFFIX);
+        if(!dataFile.exists()) return null;
+
+        DataInputStream input = null;
+        Array<Pixmap> pages = new Array<Pixmap>();
+        try {
+            input = new DataInputStream(dataFile.read(4096));
+            if(input.readInt() != FORMAT_VERSION) return null;
+
+            BitmapFontData data = new BitmapFontData();
+            data.flipped = input.readBoolean();
+            data.padTop = input.readFloat();
+            data.padRight = input.readFloat();
+            data.padBottom = input.readFloat();
+            data.padLeft = input.readFloat();
+            data.lineHeight = input.readFloat();
+            data.capHeight = input.readFloat();
+            data.ascent = input.readFloat();
+            data.descent = input.readFloat();
+            data.down = input.readFloat();
+            data.spaceWidth = input.readFloat();
+            data.xHeight = input.readFloat();
+
+            int glyphCount = input.readInt();
+            for (int i = 0; i < glyphCount; i++) {
+                Glyph glyph = new Glyph();
+                glyph.id = input.readInt();
+                glyph.srcX = input.readInt();
+                glyph.srcY = input.readInt();
+                glyph.width = input.readInt();
+                glyph.height = input.readInt();
+                glyph.xoffset = input.readInt();
+                glyph.yoffset = input.readInt();
+                glyph.xadvance = input.readInt();
+                glyph.page = input.readInt();
+                int kerningPages = input.readInt();
+                if(kerningPages > 0) {
+                    glyph.kerning = new byte[kerningPages][];
+                    for (int j = 0; j < kerningPages; j++) {
+                        int length = input.readInt();
+                        if(length < 0) continue;
+                        glyph.kerning[j] = new byte[length];
+                        input.readFully(glyph.kerning[j]);
+                    }
+                }
+                data.setGlyph(glyph.id, glyph);
+            }
+
+            int pageCount = input.readInt();
+            for (int i = 0; i < pageCount; i++) {
+                FileHandle pageFile = directory.child(key + "_" + i + ".png");
+                if(!pageFile.exists()) {
+                    disposeAll(pages);
+                    return null;
+                }
+                pages.add(new Pixmap(pageFile));
+            }
+            return new FontPages(data, pages);
+        } catch (Exception e) {
+            // broken entry, font will be generated and written again
+            disposeAll(pages);
+            return null;
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    private void write(String key, FontPages fontPages) {
+        BitmapFontData data = fontPages.data;
+        DataOutputStream output = null;
+        try {
+            directory.mkdirs();
+            // pages go first, entry is complete only when its data file exists
+            for (int i = 0; i < fontPages.pages.size; i++) {
+                PixmapIO.writePNG(directory.child(key + "_" + i + ".png"), fontPages.pages.get(i));
+            }
+
+            Array<Glyph> glyphs = new Array<Glyph>();
+            for (Glyph[] page : data.glyphs) {
+                if(page == null) continue;
+                for (Glyph glyph : page) {
+                    if(glyph != null) glyphs.add(glyph);
+                }
+            }
+
+            output = new DataOutputStream(directory.child(key + DATA_SUFFIX).write(false, 4096));
+            output.writeInt(FORMAT_VERSION);
+            output.writeBoolean(data.flipped);
+            output.writeFloat(data.padTop);
+            output.writeFloat(data.padRight);
+            output.writeFloat(data.padBottom);
+            output.writeFloat(data.padLeft);
+            output.writeFloat(data.lineHeight);
+            output.writeFloat(data.capHeight);
+            output.writeFloat(data.ascent);
+            output.writeFloat(data.descent);
+            output.writeFloat(data.down);
+            output.writeFloat(data.spaceWidth);
+            output.writeFloat(data.xHeight);
+
+            output.writeInt(glyphs.size);
+            for (Glyph glyph : glyphs) {
+                output.writeInt(glyph.id);
+                output.writeInt(glyph.srcX);
+                output.writeInt(glyph.srcY);
+                output.writeInt(glyph.width);
+                output.writeInt(glyph.height);
+                output.writeInt(glyph.xoffset);
+                output.writeInt(glyph.yoffset);
+                output.writeInt(glyph.xadvance);
+                output.writeInt(glyph.page);
+                if(glyph.kerning == null) {
+                    output.writeInt(0);
+                } else {
+                    output.writeInt(glyph.kerning.length);
+                    for (byte[] kerningPage : glyph.kerning) {
+                        if(kerningPage == null) {
+                            output.writeInt(-1);
+                        } else {
+                            output.writeInt(kerningPage.length);
+                            output.write(kerningPage);
+                        }
+                    }
+                }
+            }
+
+            output.writeInt(fontPages.pages.size);
+        } catch (Exception e) {
+            // caching is optional, font is still usable
+            Gdx.app.error("FreeTypeFontCache", "Failed to cache font " + key, e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    /**
+     * Deletes all cached fonts
+     */
+    public void clear() {
+        if(directory != null && directory.exists()) {
+            directory.deleteDirectory();
+        }
+    }
+
+    /**
+     * @return number of fonts read from cache
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of fonts that had to be generated
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private static void disposeAll(Array<Pixmap> pixmaps) {
+        for (Pixmap pixmap : pixmaps) {
+            pixmap.dispose();
+        }
+        pixmaps.clear();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.uwsoft.editor.renderer.resources;
+
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+
+/**
+ * Resource retriever that can pool copies of its particle effects, factories fall back to
+ * {@link IResourceRetriever#getParticleEffect(String)} for retrievers that don't implement it.
+ */
+public interface IParticleEffectPoolRetriever {
+
+    /**
+     * @return pool of copies of loaded particle effect, or null if effect is not loaded.
+     * Effects obtained from it are freed back by ParticleSystem when their entity is removed
+     */
+    public ParticleEffectPool getParticleEffectPool(String name);
+}
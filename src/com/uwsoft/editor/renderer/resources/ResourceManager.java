@@ -7,6 +7,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
@@ -24,7 +25,10 @@ import com.uwsoft.editor.renderer.utils.MySkin;
  *
  * Created by azakhary on 9/9/2014.
  */
-public class ResourceManager implements IResourceLoader, IResourceRetriever {
+public class ResourceManager implements IResourceLoader, IResourceRetriever, IParticleEffectPoolRetriever {
+
+    /** Number of free copies kept per particle effect, extra freed effects are left to the garbage collector */
+    public static final int PARTICLE_POOL_MAX = 64;
 
     /**
      *  Paths (please change if different) this is the default structure exported from editor
@@ -39,6 +43,8 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
     public String fontsPath = "freetypefonts";
 
     protected float resMultiplier;
+    /** Resolution of assets loaded by last {@link #loadAssets()} call */
+    protected String loadedResolutionName;
 
     protected ProjectInfoVO projectVO;
 
@@ -51,8 +57,17 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
     protected HashSet<String> spriterAnimNamesToLoad = new HashSet<String>();
     protected HashSet<FontSizePair> fontsToLoad = new HashSet<FontSizePair>();
 
+    /** Number of retained composites (e.g. streamed scene chunks) using each asset, see {@link #retainAssets(CompositeVO)} */
+    protected HashMap<String, Integer> retainedParticleEffects = new HashMap<String, Integer>();
+    protected HashMap<String, Integer> retainedSpineAnims = new HashMap<String, Integer>();
+    protected HashMap<String, Integer> retainedSpriteAnims = new HashMap<String, Integer>();
+    protected HashMap<String, Integer> retainedSpriterAnims = new HashMap<String, Integer>();
+    protected HashMap<FontSizePair, Integer> retainedFonts = new HashMap<FontSizePair, Integer>();
+    protected int retainedCompositeCount;
+
     protected TextureAtlas mainPack;
     protected HashMap<String, ParticleEffect> particleEffects = new HashMap<String, ParticleEffect>();
+    protected HashMap<String, ParticleEffectPool> particleEffectPools = new HashMap<String, ParticleEffectPool>();
 
     protected HashMap<String, TextureAtlas> skeletonAtlases = new HashMap<String, TextureAtlas>();
     protected HashMap<String, FileHandle> skeletonJSON = new HashMap<String, FileHandle>();
@@ -61,6 +76,8 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
     protected HashMap<String, FileHandle> spriterAnimations = new HashMap<String, FileHandle>();
     protected HashMap<FontSizePair, BitmapFont> bitmapFonts = new HashMap<FontSizePair, BitmapFont>();
 
+    protected FreeTypeFontCache fontCache;
+
     /**
      * Constructor does nothing
      */
@@ -166,6 +183,17 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
             String[] spriteAnimations = composite.getRecursiveSpriteAnimationList();
             String[] spriterAnimations = composite.getRecursiveSpriterAnimationList();
             FontSizePair[] fonts = composite.getRecursiveFontList();
+
+            //
+            Collections.addAll(particleEffectNamesToLoad, particleEffects);
+            Collections.addAll(spineAnimNamesToLoad, spineAnimations);
+            Collections.addAll(spriteAnimNamesToLoad, spriteAnimations);
+            Collections.addAll(spriterAnimNamesToLoad, spriterAnimations);
+            Collections.addAll(fontsToLoad, fonts);
+        }
+
+        // library items can be instantiated into any loaded scene, including streamed ones
+        if (!preparedSceneNames.isEmpty() || retainedCompositeCount > 0) {
             for(CompositeItemVO library : projectVO.libraryItems.values()) {
                 FontSizePair[] libFonts = library.composite.getRecursiveFontList();
                 Collections.addAll(fontsToLoad, libFonts);
@@ -174,13 +202,68 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
                 String[] libEffects = library.composite.getRecursiveParticleEffectsList();
                 Collections.addAll(particleEffectNamesToLoad, libEffects);
             }
+        }
 
-            //
-            Collections.addAll(particleEffectNamesToLoad, particleEffects);
-            Collections.addAll(spineAnimNamesToLoad, spineAnimations);
-            Collections.addAll(spriteAnimNamesToLoad, spriteAnimations);
-            Collections.addAll(spriterAnimNamesToLoad, spriterAnimations);
-            Collections.addAll(fontsToLoad, fonts);
+        particleEffectNamesToLoad.addAll(retainedParticleEffects.keySet());
+        spineAnimNamesToLoad.addAll(retainedSpineAnims.keySet());
+        spriteAnimNamesToLoad.addAll(retainedSpriteAnims.keySet());
+        spriterAnimNamesToLoad.addAll(retainedSpriterAnims.keySet());
+        fontsToLoad.addAll(retainedFonts.keySet());
+    }
+
+    /**
+     * Marks all assets used by the composite and its descendants as needed, independently of scheduled scenes.
+     * They are loaded by the next {@link #loadRetainedAssets()} call, and kept until every composite that retained them is released.
+     * Used to stream parts of big scenes, whose assets are not loaded up front.
+     */
+    public void retainAssets(CompositeVO composite) {
+        retainedCompositeCount++;
+        retain(retainedParticleEffects, composite.getRecursiveParticleEffectsList());
+        retain(retainedSpineAnims, composite.getRecursiveSpineAnimationList());
+        retain(retainedSpriteAnims, composite.getRecursiveSpriteAnimationList());
+        retain(retainedSpriterAnims, composite.getRecursiveSpriterAnimationList());
+        retain(retainedFonts, composite.getRecursiveFontList());
+    }
+
+    /**
+     * Releases assets retained by {@link #retainAssets(CompositeVO)} with the same composite.
+     * Assets no longer used by any retained composite or scheduled scene are unloaded by the next {@link #loadRetainedAssets()} call.
+     */
+    public void releaseAssets(CompositeVO composite) {
+        if (retainedCompositeCount > 0) retainedCompositeCount--;
+        release(retainedParticleEffects, composite.getRecursiveParticleEffectsList());
+        release(retainedSpineAnims, composite.getRecursiveSpineAnimationList());
+        release(retainedSpriteAnims, composite.getRecursiveSpriteAnimationList());
+        release(retainedSpriterAnims, composite.getRecursiveSpriterAnimationList());
+        release(retainedFonts, composite.getRecursiveFontList());
+    }
+
+    /**
+     * Loads assets retained since last call and unloads released ones, leaving main pack and everything else that is loaded as it is
+     */
+    public void loadRetainedAssets() {
+        prepareAssetsToLoad();
+        loadParticleEffects();
+        loadSpineAnimations();
+        loadSpriteAnimations();
+        loadSpriterAnimations();
+        loadFonts();
+    }
+
+    private static <K> void retain(HashMap<K, Integer> counts, K[] keys) {
+        // recursive lists contain every asset once
+        for (K key : keys) {
+            Integer count = counts.get(key);
+            counts.put(key, count == null ? 1 : count + 1);
+        }
+    }
+
+    private static <K> void release(HashMap<K, Integer> counts, K[] keys) {
+        for (K key : keys) {
+            Integer count = counts.get(key);
+            if (count == null) continue;
+            if (count <= 1) counts.remove(key);
+            else counts.put(key, count - 1);
         }
     }
 
@@ -189,6 +272,11 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
      * main atlas pack, particle effects, sprite animations, spine animations and fonts
      */
     public void loadAssets() {
+        if (!packResolutionName.equals(loadedResolutionName)) {
+            // loaders keep what is already loaded, which is of no use in another resolution
+            unloadResolutionAssets();
+            loadedResolutionName = packResolutionName;
+        }
         loadAtlasPack();
         loadParticleEffects();
         loadSpineAnimations();
@@ -197,6 +285,28 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
         loadFonts();
     }
 
+    /**
+     * Disposes assets that depend on resolution, so loaders load them again for the new one
+     */
+    protected void unloadResolutionAssets() {
+        particleEffects.clear();
+        particleEffectPools.clear();
+        for (TextureAtlas atlas : spriteAnimations.values()) {
+            atlas.dispose();
+        }
+        spriteAnimations.clear();
+        // scheduled Spine animations are all loaded again, as loader finds none of them loaded
+        for (TextureAtlas atlas : skeletonAtlases.values()) {
+            atlas.dispose();
+        }
+        skeletonAtlases.clear();
+        skeletonJSON.clear();
+        for (BitmapFont font : bitmapFonts.values()) {
+            font.dispose();
+        }
+        bitmapFonts.clear();
+    }
+
     @Override
     public void loadAtlasPack() {
         FileHandle packFile = Gdx.files.internal(packResolutionName + File.separator + "pack.atlas");
@@ -208,15 +318,19 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
 
     @Override
     public void loadParticleEffects() {
-        // empty existing ones that are not scheduled to load
-        for (String key : particleEffects.keySet()) {
+        // empty existing ones that are not scheduled to load, together with pools of their copies
+        Iterator<String> it = particleEffects.keySet().iterator();
+        while (it.hasNext()) {
+            String key = it.next();
             if (!particleEffectNamesToLoad.contains(key)) {
-                particleEffects.remove(key);
+                it.remove();
+                particleEffectPools.remove(key);
             }
         }
 
-        // load scheduled
+        // load scheduled, that are not loaded yet
         for (String name : particleEffectNamesToLoad) {
+            if (particleEffects.containsKey(name)) continue;
             ParticleEffect effect = new ParticleEffect();
             effect.load(Gdx.files.internal(particleEffectsPath + File.separator + name), mainPack, "");
             particleEffects.put(name, effect);
@@ -226,28 +340,38 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
     @Override
     public void loadSpriteAnimations() {
         // empty existing ones that are not scheduled to load
-        for (String key : spriteAnimations.keySet()) {
-            if (!spriteAnimNamesToLoad.contains(key)) {
-                spriteAnimations.remove(key);
+        Iterator<Map.Entry<String, TextureAtlas>> it = spriteAnimations.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, TextureAtlas> entry = it.next();
+            if (!spriteAnimNamesToLoad.contains(entry.getKey())) {
+                it.remove();
+                entry.getValue().dispose();
             }
         }
 
         for (String name : spriteAnimNamesToLoad) {
+            if (spriteAnimations.containsKey(name)) continue;
             TextureAtlas animAtlas = new TextureAtlas(Gdx.files.internal(packResolutionName + File.separator + spriteAnimationsPath + File.separator + name + File.separator + name + ".atlas"));
             spriteAnimations.put(name, animAtlas);
         }
     }
     @Override
     public void loadSpriterAnimations() {
-    	// empty existing ones that are not scheduled to load
-    	for (String key : spriterAnimations.keySet()) {
+    	// empty existing ones that are not scheduled to load, shared data is freed once last player is gone
+    	Iterator<String> it = spriterAnimations.keySet().iterator();
+    	while (it.hasNext()) {
+    		String key = it.next();
     		if (!spriterAnimNamesToLoad.contains(key)) {
-    			spriterAnimations.remove(key);
+    			it.remove();
+    			SpriterDataCache.release(key);
     		}
     	}
     	for (String name : spriterAnimNamesToLoad) {
+    		if (spriterAnimations.containsKey(name)) continue;
     		FileHandle animFile = Gdx.files.internal("orig" + File.separator + spriterAnimationsPath + File.separator + name + File.separator + name + ".scml");
     		spriterAnimations.put(name, animFile);
+    		// keep shared data alive while animation is loaded, so spawning does not re-parse it
+    		SpriterDataCache.retain(name);
     	}
     }
     
@@ -270,6 +394,7 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
             } else {
                 it.remove();
                 skeletonJSON.remove(pairs.getKey());
+                ((TextureAtlas) pairs.getValue()).dispose();
             }
         }
 
@@ -281,7 +406,28 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
 
     @Override
     public void loadFonts() {
-    	//resolution related stuff
+        calculateResMultiplier();
+
+        // empty existing ones that are not scheduled to load
+        Iterator<Map.Entry<FontSizePair, BitmapFont>> it = bitmapFonts.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<FontSizePair, BitmapFont> entry = it.next();
+            if (!fontsToLoad.contains(entry.getKey())) {
+                it.remove();
+                entry.getValue().dispose();
+            }
+        }
+
+        for (FontSizePair pair : fontsToLoad) {
+            if (bitmapFonts.containsKey(pair)) continue;
+            loadFont(pair);
+        }
+    }
+
+    /**
+     * Calculates font scale of working resolution relative to original one
+     */
+    protected void calculateResMultiplier() {
     	ResolutionEntryVO curResolution = getProjectVO().getResolution(packResolutionName);
         resMultiplier = 1;
     	if(!packResolutionName.equals("orig")) {
@@ -291,29 +437,34 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
                 resMultiplier = (float) curResolution.height / (float) getProjectVO().originalResolution.height;
     		}
     	}
-    	
-        // empty existing ones that are not scheduled to load
-        for (FontSizePair pair : bitmapFonts.keySet()) {
-            if (!fontsToLoad.contains(pair)) {
-                bitmapFonts.remove(pair);
-            }
-        }
-
-        for (FontSizePair pair : fontsToLoad) {
-            loadFont(pair);
-        }
     }
 
     public void loadFont(FontSizePair pair) {
         FileHandle fontFile;
         fontFile = Gdx.files.internal(fontsPath + File.separator + pair.fontName + ".ttf");
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
         FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
         parameter.size = Math.round(pair.fontSize * resMultiplier);
-        BitmapFont font = generator.generateFont(parameter);
+        BitmapFont font = getFontCache().obtain(fontFile, parameter, resMultiplier);
         bitmapFonts.put(pair, font);
     }
 
+    /**
+     * @return cache of generated fonts, created in local storage on first use
+     */
+    public FreeTypeFontCache getFontCache() {
+        if(fontCache == null) {
+            fontCache = new FreeTypeFontCache();
+        }
+        return fontCache;
+    }
+
+    /**
+     * Replaces cache of generated fonts, e.g. to keep it in other folder or to disable caching
+     */
+    public void setFontCache(FreeTypeFontCache fontCache) {
+        this.fontCache = fontCache;
+    }
+
     @Override
     public SceneVO loadSceneVO(String sceneName) {
         FileHandle file = Gdx.files.internal(scenesPath + File.separator + sceneName + ".dt");
@@ -357,6 +508,18 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever {
         return new ParticleEffect(particleEffects.get(name));
     }
 
+    @Override
+    public ParticleEffectPool getParticleEffectPool(String name) {
+        ParticleEffectPool pool = particleEffectPools.get(name);
+        if(pool == null) {
+            ParticleEffect effect = particleEffects.get(name);
+            if(effect == null) return null;
+            pool = new ParticleEffectPool(effect, 4, PARTICLE_POOL_MAX);
+            particleEffectPools.put(name, pool);
+        }
+        return pool;
+    }
+
     @Override
     public TextureAtlas getSkeletonAtlas(String name) {
         return skeletonAtlases.get(name);
@@ -0,0 +1,160 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+package com.uwsoft.editor.renderer.resources;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.brashmonkey.spriter.BakedEntity;
+import com.brashmonkey.spriter.Data;
+import com.brashmonkey.spriter.Entity;
+import com.brashmonkey.spriter.SCMLReader;
+import com.uwsoft.editor.renderer.utils.LibGdxLoader;
+
+/**
+ * Process wide cache of parsed Spriter {@link Data} and packed {@link LibGdxLoader} atlases, keyed by animation name.
+ * Every Spriter entity of the same animation shares one entry, so SCML is parsed and packed only once.
+ * Entries are reference counted, each user calls {@link #obtain} once and {@link #release} once,
+ * and the atlas is disposed when the last user releases it.
+ */
+public class SpriterDataCache {
+
+    /**
+     * Shared data of a single Spriter animation
+     */
+    public static class Entry {
+        public Data data;
+        public LibGdxLoader loader;
+        private final HashMap<Entity, BakedEntity> bakedEntities = new HashMap<Entity, BakedEntity>();
+        private int refCount;
+
+        public int getRefCount() {
+            return refCount;
+        }
+    }
+
+    private static final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+    private SpriterDataCache() {
+
+    }
+
+    /**
+     * Marks animation as used without loading it, so it is kept in memory between entity spawns
+     *
+     * @param animationName name of Spriter animation
+     */
+    public static synchronized void retain(String animationName) {
+        Entry entry = entries.get(animationName);
+        if(entry == null) {
+            entry = new Entry();
+            entries.put(animationName, entry);
+        }
+        entry.refCount++;
+    }
+
+    /**
+     * Returns shared data for animation, parsing SCML and packing the atlas only if it was not done before.
+     * Must be called on the render thread, as packing creates textures, unless animation {@link #isLoaded}.
+     *
+     * @param animationName name of Spriter animation
+     * @param scmlFile SCML file of that animation
+     * @return shared entry, with reference count increased by one
+     */
+    public static synchronized Entry obtain(String animationName, FileHandle scmlFile) {
+        retain(animationName);
+        Entry entry = entries.get(animationName);
+        if(entry.data == null) {
+            entry.data = new SCMLReader(scmlFile.read()).getData();
+        }
+        if(entry.loader == null) {
+            entry.loader = new LibGdxLoader(entry.data);
+            entry.loader.load(scmlFile.file());
+        }
+
+        return entry;
+    }
+
+    /**
+     * Stores data parsed and packed elsewhere (e.g. by an asset loader), so {@link #obtain} has nothing left to do.
+     * Loaded atlas is disposed if animation is not retained or already has one.
+     *
+     * @param animationName name of Spriter animation
+     * @param loaded entry with parsed SCML data and the atlas packed from it, not registered in the cache
+     */
+    public static synchronized void putLoaded(String animationName, Entry loaded) {
+        Entry entry = entries.get(animationName);
+        if(entry != null && entry.data == null) {
+            entry.data = loaded.data;
+        }
+        if(entry != null && entry.loader == null && entry.data == loaded.data) {
+            entry.loader = loaded.loader;
+        } else if(loaded.loader != null) {
+            loaded.loader.dispose();
+        }
+    }
+
+    /**
+     * Returns animations of Spriter entity sampled at given rate, baking them on first request.
+     * Baked animations are shared by all players of the entity, and dropped together with the data.
+     * Must be called on the thread that updates players, as baking updates the shared animations.
+     *
+     * @param animationName name of Spriter animation
+     * @param entity Spriter entity of that animation's data
+     * @param framesPerSecond sampling rate, a different rate than the cached one bakes again
+     * @return baked entity, or null if animation is not loaded
+     */
+    public static synchronized BakedEntity getBakedEntity(String animationName, Entity entity, float framesPerSecond) {
+        Entry entry = entries.get(animationName);
+        if(entry == null || entry.data == null) return null;
+        BakedEntity baked = entry.bakedEntities.get(entity);
+        if(baked == null || baked.framesPerSecond != framesPerSecond) {
+            baked = new BakedEntity(entity, framesPerSecond);
+            entry.bakedEntities.put(entity, baked);
+        }
+        return baked;
+    }
+
+    /**
+     * Decreases reference count of animation, and disposes its atlas when nobody uses it anymore
+     *
+     * @param animationName name of Spriter animation
+     */
+    public static synchronized void release(String animationName) {
+        Entry entry = entries.get(animationName);
+        if(entry == null) return;
+
+        entry.refCount--;
+        if(entry.refCount <= 0) {
+            entries.remove(animationName);
+            if(entry.loader != null) {
+                entry.loader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @param animationName name of Spriter animation
+     * @return true if animation is currently parsed and packed
+     */
+    public static synchronized boolean isLoaded(String animationName) {
+        Entry entry = entries.get(animationName);
+        return entry != null && entry.data != null && entry.loader != null;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.resources.loaders;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.uwsoft.editor.renderer.resources.FreeTypeFontCache;
+
+/**
+ * Generates bitmap fonts from TTF files, rasterizing glyphs into pixmaps (or reading them from {@link FreeTypeFontCache})
+ * on the loader thread, so only texture upload is left for the render thread.
+ * Asset file name is only a key, TTF file and size are given by {@link FreeTypeFontDataParameter}.
+ */
+public class FreeTypeFontDataLoader extends AsynchronousAssetLoader<BitmapFont, FreeTypeFontDataLoader.FreeTypeFontDataParameter> {
+
+    public static class FreeTypeFontDataParameter extends AssetLoaderParameters<BitmapFont> {
+        public String fontFile;
+        public FreeTypeFontParameter fontParameters = new FreeTypeFontParameter();
+        /** Resolution multiplier font size was calculated with, part of cache key */
+        public float resMultiplier = 1;
+    }
+
+    private final FreeTypeFontCache fontCache;
+    private FreeTypeFontCache.FontPages fontPages;
+
+    public FreeTypeFontDataLoader(FileHandleResolver resolver, FreeTypeFontCache fontCache) {
+        super(resolver);
+        this.fontCache = fontCache;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, FreeTypeFontDataParameter parameter) {
+        if(parameter == null || parameter.fontFile == null) throw new GdxRuntimeException("FreeTypeFontDataParameter with font file is required to load " + fileName);
+
+        fontPages = fontCache.obtainData(resolve(parameter.fontFile), parameter.fontParameters, parameter.resMultiplier);
+    }
+
+    @Override
+    public BitmapFont loadSync(AssetManager manager, String fileName, FileHandle file, FreeTypeFontDataParameter parameter) {
+        BitmapFont font = FreeTypeFontCache.createFont(fontPages, parameter.fontParameters);
+        fontPages = null;
+        return font;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, FreeTypeFontDataParameter parameter) {
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.resources.loaders;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+
+/**
+ * Loads data objects exported by editor (project.dt, scene .dt files), reading and parsing JSON on the loader thread.
+ */
+public class JsonDataLoader<T> extends AsynchronousAssetLoader<T, AssetLoaderParameters<T>> {
+
+    private final Class<T> type;
+    private T data;
+
+    public JsonDataLoader(FileHandleResolver resolver, Class<T> type) {
+        super(resolver);
+        this.type = type;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, AssetLoaderParameters<T> parameter) {
+        Json json = new Json();
+        data = json.fromJson(type, file.readString());
+    }
+
+    @Override
+    public T loadSync(AssetManager manager, String fileName, FileHandle file, AssetLoaderParameters<T> parameter) {
+        T loaded = data;
+        data = null;
+        return loaded;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, AssetLoaderParameters<T> parameter) {
+        return null;
+    }
+}
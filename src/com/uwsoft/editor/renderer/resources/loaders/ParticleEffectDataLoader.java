@@ -0,0 +1,75 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.resources.loaders;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Loads particle effects with images from an atlas, parsing .p files on the loader thread.
+ * Built in ParticleEffectLoader does everything on the render thread.
+ */
+public class ParticleEffectDataLoader extends AsynchronousAssetLoader<ParticleEffect, ParticleEffectDataLoader.ParticleEffectDataParameter> {
+
+    public static class ParticleEffectDataParameter extends AssetLoaderParameters<ParticleEffect> {
+        /** Atlas with emitter images, effect is loaded without images if null */
+        public String atlasFile;
+        /** Prefix of emitter image names in the atlas */
+        public String atlasPrefix = "";
+    }
+
+    private ParticleEffect effect;
+
+    public ParticleEffectDataLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, ParticleEffectDataParameter parameter) {
+        effect = new ParticleEffect();
+        effect.loadEmitters(file);
+    }
+
+    @Override
+    public ParticleEffect loadSync(AssetManager manager, String fileName, FileHandle file, ParticleEffectDataParameter parameter) {
+        ParticleEffect loaded = effect;
+        effect = null;
+        if(parameter != null && parameter.atlasFile != null) {
+            loaded.loadEmitterImages(manager.get(parameter.atlasFile, TextureAtlas.class), parameter.atlasPrefix);
+        }
+        return loaded;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, ParticleEffectDataParameter parameter) {
+        if(parameter == null || parameter.atlasFile == null) return null;
+
+        Array<AssetDescriptor> dependencies = new Array<AssetDescriptor>();
+        dependencies.add(new AssetDescriptor<TextureAtlas>(parameter.atlasFile, TextureAtlas.class));
+        return dependencies;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.resources.loaders;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.brashmonkey.spriter.SCMLReader;
+import com.uwsoft.editor.renderer.resources.SpriterDataCache;
+import com.uwsoft.editor.renderer.utils.LibGdxLoader;
+
+/**
+ * Parses Spriter .scml files and packs their images into pixmaps on the loader thread, only the atlas is uploaded on the render thread.
+ * Loaded entry is not registered in {@link SpriterDataCache}, it is handed over with {@link SpriterDataCache#putLoaded(String, SpriterDataCache.Entry)}.
+ */
+public class SpriterDataLoader extends AsynchronousAssetLoader<SpriterDataCache.Entry, AssetLoaderParameters<SpriterDataCache.Entry>> {
+
+    private SpriterDataCache.Entry entry;
+
+    public SpriterDataLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, AssetLoaderParameters<SpriterDataCache.Entry> parameter) {
+        entry = new SpriterDataCache.Entry();
+        entry.data = new SCMLReader(file.read()).getData();
+        entry.loader = new LibGdxLoader(entry.data);
+        entry.loader.loadPixmaps(file.file());
+    }
+
+    @Override
+    public SpriterDataCache.Entry loadSync(AssetManager manager, String fileName, FileHandle file, AssetLoaderParameters<SpriterDataCache.Entry> parameter) {
+        SpriterDataCache.Entry loaded = entry;
+        entry = null;
+        loaded.loader.finishPacking();
+        return loaded;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, AssetLoaderParameters<SpriterDataCache.Entry> parameter) {
+        return null;
+    }
+}
@@ -0,0 +1,317 @@
+package com.uwsoft.editor.renderer.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntMap;
+import com.uwsoft.editor.renderer.components.AnimationLodComponent;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+import com.uwsoft.editor.renderer.components.SpineDataComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.components.ViewPortComponent;
+import com.uwsoft.editor.renderer.components.particle.ParticleComponent;
+import com.uwsoft.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import com.uwsoft.editor.renderer.components.spriter.SpriterComponent;
+import com.uwsoft.editor.renderer.factory.EntityFactory;
+
+/**
+ * Animation level of detail policy, consulted by the systems that advance animations (sprite, Spriter, Spine, particles).
+ * Each frame entities are sorted into tiers by the distance of their world bounds from what cameras saw last frame:
+ * visible entities are advanced every frame, near ones every few frames, and far ones even less often or not at all.
+ * Skipped frames are accumulated, so animation time stays right, unless the policy drops it.
+ *
+ * Disabled by default, see {@link #setEnabled(boolean)}. Has to run before the animation systems, which call {@link #advance(Entity, float)}.
+ * Once enabled, {@link AnimationLodComponent} is added to animated entities as they are added to engine, and to the ones
+ * already in it at the start of the next update of this system, before animation systems iterate them. The component keeps a
+ * reference to this system, entities without it are advanced every frame.
+ */
+public class AnimationLodSystem extends IteratingSystem {
+
+	public static final int TIER_VISIBLE = 0;
+	public static final int TIER_NEAR = 1;
+	public static final int TIER_FAR = 2;
+	public static final int TIER_COUNT = 3;
+
+	/** Returned by {@link #advance(Entity, float)} for entities that are not advanced this frame */
+	public static final float SKIP = -1f;
+
+	private static final ComponentMapper<AnimationLodComponent> staticLodMapper = ComponentMapper.getFor(AnimationLodComponent.class);
+
+	/**
+	 * How entities of one type are advanced outside of the view
+	 */
+	public static class Policy {
+		/** Entities within this many view widths (heights) from the view are near, the rest are far */
+		public float nearRange = 1f;
+		/** Near entities are advanced every this many frames */
+		public int nearInterval = 4;
+		/** Far entities are advanced every this many frames, 0 to freeze them until they get near */
+		public int farInterval = 15;
+		/**
+		 * If true, time accumulated while frozen is returned at once when entity gets near again (up to maxCatchUp), otherwise it is dropped.
+		 * Animation systems that can't take long steps (particles) replay it in shorter ones.
+		 */
+		public boolean catchUp = false;
+		/** Longest time in seconds a frozen entity catches up */
+		public float maxCatchUp = 5f;
+
+		public Policy() {
+		}
+
+		public Policy(float nearRange, int nearInterval, int farInterval, boolean catchUp) {
+			this.nearRange = nearRange;
+			this.nearInterval = nearInterval;
+			this.farInterval = farInterval;
+			this.catchUp = catchUp;
+		}
+	}
+
+	private ComponentMapper<ViewPortComponent> viewPortMapper = ComponentMapper.getFor(ViewPortComponent.class);
+	private ComponentMapper<AnimationLodComponent> lodMapper = ComponentMapper.getFor(AnimationLodComponent.class);
+	private ComponentMapper<MainItemComponent> mainItemMapper = ComponentMapper.getFor(MainItemComponent.class);
+	private ComponentMapper<BoundingBoxComponent> boundingBoxMapper = ComponentMapper.getFor(BoundingBoxComponent.class);
+	private ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+	private ComponentMapper<DimensionsComponent> dimensionsMapper = ComponentMapper.getFor(DimensionsComponent.class);
+	private ComponentMapper<ParentNodeComponent> parentNodeMapper = ComponentMapper.getFor(ParentNodeComponent.class);
+	private ComponentMapper<CompositeTransformComponent> compositeTransformMapper = ComponentMapper.getFor(CompositeTransformComponent.class);
+
+	/** Entities advanced by animation systems that consult this one */
+	private static final Family animatedFamily = Family.one(SpriteAnimationStateComponent.class, SpriterComponent.class,
+			ParticleComponent.class, SpineDataComponent.class).get();
+
+	private final EntityListener animatedListener = new EntityListener() {
+		@Override
+		public void entityAdded(Entity entity) {
+			addLodComponent(entity);
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+		}
+	};
+
+	private final IntMap<Policy> policies = new IntMap<Policy>();
+	private Policy defaultPolicy = new Policy();
+	private boolean enabled = false;
+	private boolean attached = false;
+
+	private Engine engine;
+	private final Rectangle viewBounds = new Rectangle();
+	private final Rectangle nearBounds = new Rectangle();
+	private boolean hasView;
+	private final Affine2 identity = new Affine2();
+
+	private final int[] tierCounts = new int[TIER_COUNT];
+	private int advancedCount;
+
+	public AnimationLodSystem() {
+		super(Family.all(ViewPortComponent.class).get());
+		// particles are cheap to skip and fast forwarding them hides that they were stopped
+		policies.put(EntityFactory.PARTICLE_TYPE, new Policy(1f, 4, 0, true));
+	}
+
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		this.engine = engine;
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		detach();
+		this.engine = null;
+	}
+
+	private void attach() {
+		ImmutableArray<Entity> animated = engine.getEntitiesFor(animatedFamily);
+		for (int i = 0; i < animated.size(); i++) {
+			addLodComponent(animated.get(i));
+		}
+		engine.addEntityListener(animatedFamily, animatedListener);
+		attached = true;
+	}
+
+	private void detach() {
+		if(!attached) return;
+		engine.removeEntityListener(animatedListener);
+		attached = false;
+	}
+
+	private void addLodComponent(Entity entity) {
+		AnimationLodComponent lod = lodMapper.get(entity);
+		if(lod == null) {
+			lod = engine instanceof PooledEngine ? ((PooledEngine) engine).createComponent(AnimationLodComponent.class) : new AnimationLodComponent();
+			entity.add(lod);
+		}
+		lod.system = this;
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		for (int i = 0; i < TIER_COUNT; i++) tierCounts[i] = 0;
+		advancedCount = 0;
+		hasView = false;
+		if(enabled && !attached) attach();
+		super.update(deltaTime);
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		// union of everything all cameras saw when they were last updated
+		Vector3[] points = viewPortMapper.get(entity).viewPort.getCamera().frustum.planePoints;
+		for (int i = 0; i < points.length; i++) {
+			if(!hasView) {
+				viewBounds.set(points[i].x, points[i].y, 0, 0);
+				hasView = true;
+			} else {
+				viewBounds.merge(points[i].x, points[i].y);
+			}
+		}
+	}
+
+	/**
+	 * Called by animation systems for each of their entities, once per frame.
+	 * @return delta time to advance the entity animation by now (frame delta plus all skipped ones),
+	 * or {@link #SKIP} if entity is not advanced this frame
+	 */
+	public static float advance(Entity entity, float deltaTime) {
+		AnimationLodComponent lod = staticLodMapper.get(entity);
+		if(lod == null || lod.system == null) return deltaTime;
+		return lod.system.advance(entity, lod, deltaTime);
+	}
+
+	private float advance(Entity entity, AnimationLodComponent lod, float deltaTime) {
+		if(!enabled || !hasView || engine == null) {
+			advancedCount++;
+			tierCounts[TIER_VISIBLE]++;
+			// time skipped before LOD was disabled is not lost
+			float delta = lod.pendingDelta + deltaTime;
+			lod.pendingDelta = 0;
+			lod.skippedFrames = 0;
+			return delta;
+		}
+
+		MainItemComponent mainItemComponent = mainItemMapper.get(entity);
+		Policy policy = mainItemComponent != null ? getPolicy(mainItemComponent.entityType) : defaultPolicy;
+
+		int tier = getTier(entity, policy);
+		tierCounts[tier]++;
+		int interval = tier == TIER_VISIBLE ? 1 : tier == TIER_NEAR ? policy.nearInterval : policy.farInterval;
+
+		if(interval <= 0) {
+			// frozen
+			lod.pendingDelta = policy.catchUp ? Math.min(lod.pendingDelta + deltaTime, policy.maxCatchUp) : 0;
+			lod.skippedFrames = 0;
+			lod.tier = tier;
+			return SKIP;
+		}
+
+		lod.pendingDelta += deltaTime;
+		lod.skippedFrames++;
+		// entities coming into view are advanced right away
+		if(lod.skippedFrames < interval && tier >= lod.tier) {
+			lod.tier = tier;
+			return SKIP;
+		}
+
+		lod.tier = tier;
+		float delta = lod.pendingDelta;
+		lod.pendingDelta = 0;
+		lod.skippedFrames = 0;
+		advancedCount++;
+		return delta;
+	}
+
+	private int getTier(Entity entity, Policy policy) {
+		BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(entity);
+		TransformComponent transformComponent = transformMapper.get(entity);
+		DimensionsComponent dimensionsComponent = dimensionsMapper.get(entity);
+		if(boundingBoxComponent == null || transformComponent == null || dimensionsComponent == null) return TIER_VISIBLE;
+
+		// cached in the component until transform or dimensions change
+		boundingBoxComponent.update(transformComponent, dimensionsComponent, getParentWorld(entity));
+		Rectangle rect = boundingBoxComponent.rectangle;
+		// unbounded entities can draw into the view from anywhere near it, so near counts as visible for them
+		float range = boundingBoxComponent.bounded ? 0 : policy.nearRange;
+		if(rect.overlaps(expand(viewBounds, range))) return TIER_VISIBLE;
+		return rect.overlaps(expand(viewBounds, range + policy.nearRange)) ? TIER_NEAR : TIER_FAR;
+	}
+
+	private Rectangle expand(Rectangle bounds, float range) {
+		float marginX = bounds.width * range, marginY = bounds.height * range;
+		return nearBounds.set(bounds.x - marginX, bounds.y - marginY, bounds.width + marginX * 2, bounds.height + marginY * 2);
+	}
+
+	private Affine2 getParentWorld(Entity entity) {
+		ParentNodeComponent parentNodeComponent = parentNodeMapper.get(entity);
+		Entity parent = parentNodeComponent != null ? parentNodeComponent.parentEntity : null;
+		CompositeTransformComponent parentTransform = parent != null ? compositeTransformMapper.get(parent) : null;
+		return parentTransform != null ? parentTransform.worldTransform : identity;
+	}
+
+	/**
+	 * @param entityType one of EntityFactory type ids
+	 * @return policy of entities of that type, default policy if none was set
+	 */
+	public Policy getPolicy(int entityType) {
+		return policies.get(entityType, defaultPolicy);
+	}
+
+	/**
+	 * @param entityType one of EntityFactory type ids
+	 * @param policy policy for entities of that type, null to use default policy
+	 */
+	public void setPolicy(int entityType, Policy policy) {
+		if(policy == null) policies.remove(entityType);
+		else policies.put(entityType, policy);
+	}
+
+	public Policy getDefaultPolicy() {
+		return defaultPolicy;
+	}
+
+	public void setDefaultPolicy(Policy policy) {
+		defaultPolicy = policy;
+	}
+
+	/**
+	 * @param enabled true to advance animations outside of the view less often, false (default) to advance all of them every frame
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		// components are added on next update, stop adding them right away
+		if(!enabled) detach();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param tier one of TIER_ constants
+	 * @return number of animated entities in that tier during last frame
+	 */
+	public int getTierCount(int tier) {
+		return tierCounts[tier];
+	}
+
+	/**
+	 * @return number of animated entities actually advanced during last frame
+	 */
+	public int getAdvancedCount() {
+		return advancedCount;
+	}
+}
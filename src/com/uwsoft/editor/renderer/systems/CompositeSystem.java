@@ -8,8 +8,19 @@ import com.badlogic.gdx.utils.SnapshotArray;
 import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.utils.ComponentRetriever;
 
+/**
+ * Keeps dimensions of composites fitted to their children.
+ * Composites whose children were added, removed, moved, scaled or resized are marked with {@link #invalidateBounds(Entity)},
+ * TransformSystem does it for every such change it detects, and all composites above them are marked as having changed descendants.
+ * Only marked paths are walked, children first, so nested composites are settled before their parents in the same update,
+ * and hierarchies nothing changed in cost nothing.
+ *
+ * Has to run after TransformSystem.
+ */
 public class CompositeSystem extends IteratingSystem {
 
 	private ComponentMapper<DimensionsComponent> dimensionsMapper;
@@ -19,19 +30,96 @@ public class CompositeSystem extends IteratingSystem {
 	private DimensionsComponent dimensionsComponent;
 	private TransformComponent transformComponent;
 	private NodeComponent nodeComponent;
+
+	private int recalculatedCount;
 	
 	public CompositeSystem() {
-		super(Family.all(CompositeTransformComponent.class).get());
+		super(Family.all(CompositeTransformComponent.class).exclude(ParentNodeComponent.class).get());
 		dimensionsMapper = ComponentMapper.getFor(DimensionsComponent.class);
 		transformMapper = ComponentMapper.getFor(TransformComponent.class);
 		nodeMapper = ComponentMapper.getFor(NodeComponent.class);
 	}
 
+	/**
+	 * Marks dimensions of the composite to be recalculated on next update, call it after changing position, scale
+	 * or dimensions of its child in a way TransformSystem does not see (TransformSystem not in engine, or values changed after it ran)
+	 */
+	public static void invalidateBounds(Entity composite) {
+		NodeComponent node = ComponentRetriever.get(composite, NodeComponent.class);
+		if(node == null) return;
+		node.boundsChanged = true;
+		markAncestors(composite);
+	}
+
+	/**
+	 * Marks every composite above the entity as having changed descendants
+	 */
+	static void markAncestors(Entity entity) {
+		ParentNodeComponent parentNodeComponent = ComponentRetriever.get(entity, ParentNodeComponent.class);
+		while(parentNodeComponent != null && parentNodeComponent.parentEntity != null) {
+			Entity parent = parentNodeComponent.parentEntity;
+			NodeComponent node = ComponentRetriever.get(parent, NodeComponent.class);
+			// a marked composite always has marked ancestors
+			if(node == null || node.descendantBoundsChanged) return;
+			node.descendantBoundsChanged = true;
+			parentNodeComponent = ComponentRetriever.get(parent, ParentNodeComponent.class);
+		}
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		recalculatedCount = 0;
+		super.update(deltaTime);
+	}
+
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
-		dimensionsComponent = dimensionsMapper.get(entity);
-		nodeComponent = nodeMapper.get(entity);
+		updateHierarchy(entity);
+	}
+
+	/**
+	 * Recalculates dimensions of the given composite and all composites below it, that were marked as changed
+	 */
+	public void updateHierarchy(Entity composite) {
+		updateBounds(composite);
+	}
+
+	/**
+	 * @return true if dimensions of the composite changed
+	 */
+	private boolean updateBounds(Entity composite) {
+		NodeComponent node = nodeMapper.get(composite);
+		if(node == null || !(node.boundsChanged || node.descendantBoundsChanged)) return false;
+
+		if(node.descendantBoundsChanged) {
+			Entity[] children = node.children.begin();
+			for (int i = 0, n = node.children.size; i < n; i++) {
+				// child composite has to be settled first, its dimensions are part of ours
+				if(updateBounds(children[i])) node.boundsChanged = true;
+			}
+			node.children.end();
+			node.descendantBoundsChanged = false;
+		}
+
+		if(!node.boundsChanged) return false;
+		node.boundsChanged = false;
+		recalculatedCount++;
+
+		dimensionsComponent = dimensionsMapper.get(composite);
+		nodeComponent = node;
+		float width = dimensionsComponent.width;
+		float height = dimensionsComponent.height;
 		recalculateSize();
+		// parent is recalculated during this walk already, TransformSystem does not have to report the change
+		dimensionsComponent.checkDirty();
+		return width != dimensionsComponent.width || height != dimensionsComponent.height;
+	}
+
+	/**
+	 * @return number of composites whose dimensions were recalculated during last update
+	 */
+	public int getRecalculatedCount() {
+		return recalculatedCount;
 	}
 	
 	public void recalculateSize() {
@@ -21,17 +21,31 @@ public class LabelSystem extends IteratingSystem {
 	private TransformComponent transformComponent;
 	private LabelComponent labelComponent;
 	private DimensionsComponent dimensionsComponent;
+
+	private int relayoutCount;
 	
 	public LabelSystem() {
 		super(Family.all(LabelComponent.class).get());
 	}
 
+	@Override
+	public void update(float deltaTime) {
+		relayoutCount = 0;
+		super.update(deltaTime);
+	}
+
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
 		
 		transformComponent =  transformComponentMapper.get(entity);
 		labelComponent =  labelComponentMapper.get(entity);
 		dimensionsComponent = dimensionComponentMapper.get(entity);
+
+		if (!labelComponent.checkLayoutDirty(dimensionsComponent.width, dimensionsComponent.height)) {
+			// font cache still holds the glyphs of previous layout
+			return;
+		}
+		relayoutCount++;
 		
 		BitmapFont font = labelComponent.cache.getFont();
 		
@@ -43,16 +57,14 @@ public class LabelSystem extends IteratingSystem {
 		
 		//horisontal Align
 		
+		// laid out with final parameters before measuring, layout left from a previous text would misplace the label for good
+		labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
 		float textWidth = labelComponent.layout.width;
 		float textHeight = labelComponent.layout.height;
 		float textX = 0;
 		
 		if (labelComponent.wrap || labelComponent.text.indexOf("\n") != -1) {
-			// If the text can span multiple lines, determine the text's actual size so it can be aligned within the label.
-			labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
-			textWidth = labelComponent.layout.width;
-			textHeight = labelComponent.layout.height;
-
+			// If the text can span multiple lines, align it within the label by its actual size.
 			if ((labelComponent.lineAlign  & Align.left) == 0) {
 				if ((labelComponent.lineAlign & Align.right) != 0)
 					textX += dimensionsComponent.width - textWidth;
@@ -73,12 +85,17 @@ public class LabelSystem extends IteratingSystem {
 			textY += (dimensionsComponent.height - textHeight) / 2;
 		}
 		
-		
-		labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
 		labelComponent.cache.setText(labelComponent.layout, textX, textY);
 		
 		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(oldScaleX, oldScaleY);
 	}
+
+	/**
+	 * @return number of labels laid out during last update
+	 */
+	public int getRelayoutCount() {
+		return relayoutCount;
+	}
 	
 //	private void scaleAndComputePrefSize () {
 //		BitmapFont font = labelComponent.cache.getFont();
@@ -1,6 +1,5 @@
 package com.uwsoft.editor.renderer.systems;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 
 import com.badlogic.ashley.core.ComponentMapper;
@@ -12,7 +11,6 @@ import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
 import com.uwsoft.editor.renderer.components.LayerMapComponent;
 import com.uwsoft.editor.renderer.components.NodeComponent;
 import com.uwsoft.editor.renderer.components.ZIndexComponent;
-import com.uwsoft.editor.renderer.data.LayerItemVO;
 
 public class LayerSystem extends IteratingSystem {
 
@@ -33,22 +31,87 @@ public class LayerSystem extends IteratingSystem {
 	protected void processEntity(Entity entity, float deltaTime) {
 		NodeComponent nodeComponent = nodeMapper.get(entity);
 		LayerMapComponent layerMapComponent = layerMapper.get(entity);
-		updateLayers(nodeComponent.children, layerMapComponent);
 
-		sort(nodeComponent.children);
-		updateZindexes(nodeComponent.children);
+		boolean layersChanged = layerMapComponent != null && !layerMapComponent.isIndexed();
+		if(!nodeComponent.childrenChanged && !layersChanged && nodeComponent.zOrderChanges == 0 && !changedDirectly(nodeComponent.children)) {
+			// nothing changed since last ordering, children are already sorted
+			return;
+		}
+
+		if(nodeComponent.childrenChanged || layersChanged || nodeComponent.zOrderChanges > 1 || !reorderSingle(nodeComponent.children, layerMapComponent)) {
+			updateLayers(nodeComponent.children, layerMapComponent);
+			sort(nodeComponent.children);
+			updateZindexes(nodeComponent.children);
+		}
+
+		nodeComponent.childrenChanged = false;
+		nodeComponent.zOrderChanges = 0;
+	}
+
+	/**
+	 * Moves the only child that changed its z-index or layer to its new place, without sorting all children.
+	 * Child is inserted at requested z-index, clamped to the range occupied by its layer.
+	 * @return false if there is not exactly one changed child, and full sort is needed
+	 */
+	private boolean reorderSingle(SnapshotArray<Entity> children, LayerMapComponent layerMapComponent) {
+		int from = -1;
+		int layerIndex = 0;
+		for (int i = 0; i < children.size; i++) {
+			ZIndexComponent zindexComponent = zIndexMapper.get(children.get(i));
+			int newLayerIndex = getlayerIndexByName(zindexComponent.getLayerName(), layerMapComponent);
+			if(zindexComponent.needsReOrder() || newLayerIndex != zindexComponent.layerIndex) {
+				if(from != -1) return false;
+				from = i;
+				layerIndex = newLayerIndex;
+			} else {
+				// layer name may have been assigned directly, without changing the layer
+				zindexComponent.applyLayerIndex(newLayerIndex);
+			}
+		}
+		if(from == -1) return true;
+
+		Entity entity = children.get(from);
+		ZIndexComponent zindexComponent = zIndexMapper.get(entity);
+		if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
+
+		children.removeIndex(from);
+		zindexComponent.applyLayerIndex(layerIndex);
+
+		// children are sorted by layer, so the layer occupies a single range
+		int start = 0;
+		while (start < children.size && zIndexMapper.get(children.get(start)).layerIndex < layerIndex) start++;
+		int end = start;
+		while (end < children.size && zIndexMapper.get(children.get(end)).layerIndex == layerIndex) end++;
+
+		int to = Math.min(Math.max(zindexComponent.getZIndex(), start), end);
+		children.insert(to, entity);
+
+		for (int i = Math.min(from, to), n = Math.max(from, to); i <= n; i++) {
+			zIndexMapper.get(children.get(i)).applyZIndex(i);
+		}
+
+		return true;
 	}
 	
+	/**
+	 * Children can still change the deprecated public fields of {@link ZIndexComponent} without notifying the parent
+	 */
+	private boolean changedDirectly(SnapshotArray<Entity> children) {
+		for (int i = 0; i < children.size; i++) {
+			if(zIndexMapper.get(children.get(i)).changedDirectly()) return true;
+		}
+		return false;
+	}
+
 	private void updateLayers(SnapshotArray<Entity> children, LayerMapComponent layerMapComponent) {
 		for (int i = 0; i < children.size; i++) {
 			Entity entity = children.get(i);
 			ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-			zindexComponent.layerIndex = getlayerIndexByName(zindexComponent.layerName,layerMapComponent);
-			if(zindexComponent.needReOrder){
+			zindexComponent.applyLayerIndex(getlayerIndexByName(zindexComponent.getLayerName(),layerMapComponent));
+			if(zindexComponent.needsReOrder()){
 				if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
 				if (children.size == 1){ 
-					zindexComponent.setZIndex(0);
-					zindexComponent.needReOrder = false;
+					zindexComponent.applyZIndex(0);
 					return;
 				}
 				if (!children.removeValue(entity, true)) return;
@@ -64,8 +127,7 @@ public class LayerSystem extends IteratingSystem {
 		for (int i = 0; i < children.size; i++) {
 			Entity entity = children.get(i);
 			ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-			zindexComponent.setZIndex(i);
-			zindexComponent.needReOrder = false;
+			zindexComponent.applyZIndex(i);
         }
 	}
 
@@ -77,13 +139,7 @@ public class LayerSystem extends IteratingSystem {
 		 if(layerMapComponent == null){
 			 return 0;
 		 }
-		 ArrayList<LayerItemVO> layers = layerMapComponent.layers;
-		 for (int i = 0; i < layers.size(); i++) {
-			 if (layers.get(i).layerName.equals(layerName)) {
-				 return i;
-			 }
-		 }
-		 return 0;
+		 return layerMapComponent.getIndexByName(layerName);
 	 }
 	
 	private class ZComparator implements Comparator<Entity> {
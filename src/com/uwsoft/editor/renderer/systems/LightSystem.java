@@ -9,7 +9,9 @@ import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.MathUtils;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
 import com.uwsoft.editor.renderer.components.ParentNodeComponent;
 import com.uwsoft.editor.renderer.components.TintComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
@@ -22,6 +24,7 @@ public class LightSystem extends IteratingSystem {
 	private ComponentMapper<LightObjectComponent> lightObjectComponentMapper = ComponentMapper.getFor(LightObjectComponent.class);
     private ComponentMapper<TransformComponent> transformComponentMapper = ComponentMapper.getFor(TransformComponent.class);
     private ComponentMapper<ParentNodeComponent> parentNodeComponentMapper = ComponentMapper.getFor(ParentNodeComponent.class);
+    private ComponentMapper<CompositeTransformComponent> compositeTransformComponentMapper = ComponentMapper.getFor(CompositeTransformComponent.class);
     private ComponentMapper<TintComponent> tintComponentMapper = ComponentMapper.getFor(TintComponent.class);
    
 	public LightSystem() {
@@ -35,44 +38,18 @@ public class LightSystem extends IteratingSystem {
 		TintComponent tintComponent = tintComponentMapper.get(entity);
 		Light light = lightObjectComponent.lightObject;
 
+		// position light using parent world transform cached by TransformSystem
 		ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entity);
-		
-		float relativeX = transformComponent.x;
-		float relativeY = transformComponent.y;
-		float relativeRotation = 0;
-		
-		Entity parentEntity = parentNodeComponent.parentEntity;
-		TransformComponent parentTransformComponent = transformComponentMapper.get(parentEntity);
-		while (parentEntity != null) {
-			relativeX+=parentTransformComponent.x;
-			relativeY+=parentTransformComponent.y;
-			relativeRotation+=parentTransformComponent.rotation;
-			parentNodeComponent = parentNodeComponentMapper.get(parentEntity);
-			if(parentNodeComponent == null){
-				break;
-			}
-			parentEntity = parentNodeComponent.parentEntity;
-		}
+		Affine2 parentWorld = compositeTransformComponentMapper.get(parentNodeComponent.parentEntity).worldTransform;
+
+		float relativeX = parentWorld.m00 * transformComponent.x + parentWorld.m01 * transformComponent.y + parentWorld.m02;
+		float relativeY = parentWorld.m10 * transformComponent.x + parentWorld.m11 * transformComponent.y + parentWorld.m12;
+		float relativeRotation = MathUtils.atan2(parentWorld.m10, parentWorld.m00) * MathUtils.radiansToDegrees;
 		
 		if(light != null){
-			
-			float yy = 0;
-			float xx = 0;
-			
-			if(relativeRotation != 0){
-				xx = transformComponent.x*MathUtils.cosDeg(relativeRotation) - transformComponent.y*MathUtils.sinDeg(relativeRotation);
-				yy = transformComponent.y*MathUtils.cosDeg(relativeRotation) + transformComponent.x*MathUtils.sinDeg(relativeRotation);
-				yy=transformComponent.y-yy;
-				xx=transformComponent.x-xx;
-			}
-			light.setPosition((relativeX-xx)*PhysicsBodyLoader.SCALE, (relativeY-yy)*PhysicsBodyLoader.SCALE);
+			light.setPosition(relativeX*PhysicsBodyLoader.SCALE, relativeY*PhysicsBodyLoader.SCALE);
 		}
 
-		if(lightObjectComponent.getType() == LightType.CONE){
-			light.setDirection(lightObjectComponent.directionDegree+relativeRotation);
-		}
-		
-		
 		if (lightObjectComponent.getType() == LightVO.LightType.POINT) {
 			lightObjectComponent.lightObject.setColor(new Color(tintComponent.color));
             // TODO Physics and resolution part
@@ -85,7 +62,7 @@ public class LightSystem extends IteratingSystem {
         	lightObjectComponent.lightObject.setColor(new Color(tintComponent.color));
             lightObjectComponent.lightObject.setDistance(lightObjectComponent.distance * PhysicsBodyLoader.SCALE);
             lightObjectComponent.lightObject.setStaticLight(lightObjectComponent.isStatic);
-            lightObjectComponent.lightObject.setDirection(lightObjectComponent.directionDegree);
+            lightObjectComponent.lightObject.setDirection(lightObjectComponent.directionDegree+relativeRotation);
             ((ConeLight) lightObjectComponent.lightObject).setConeDegree(lightObjectComponent.coneDegree);
             lightObjectComponent.lightObject.setXray(lightObjectComponent.isXRay);
         }
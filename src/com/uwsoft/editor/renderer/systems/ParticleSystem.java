@@ -1,10 +1,13 @@
 package com.uwsoft.editor.renderer.systems;
 
 import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
 import com.brashmonkey.spriter.Dimension;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
@@ -17,11 +20,38 @@ public class ParticleSystem extends IteratingSystem {
     private ComponentMapper<TransformComponent> transformComponentMapper = ComponentMapper.getFor(TransformComponent.class);
     //private ComponentMapper<ParentNodeComponent> parentNodeComponentMapper = ComponentMapper.getFor(ParentNodeComponent.class);
     //private ComponentMapper<NodeComponent> nodeComponentMapper = ComponentMapper.getFor(NodeComponent.class);
+
+	/** Longest single update of an effect, longer deltas (time caught up after LOD froze the effect) are replayed in steps of this */
+	public static final float MAX_STEP = 1 / 30f;
 	
+
+	private final EntityListener removalListener = new EntityListener() {
+		@Override
+		public void entityAdded(Entity entity) {
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			freeEffect(particleComponentMapper.get(entity));
+		}
+	};
+
 	public ParticleSystem() {
 		super(Family.all(ParticleComponent.class).get());
 	}
 
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		engine.addEntityListener(getFamily(), removalListener);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(removalListener);
+	}
+
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
 		//System.out.println("DELTAING  " + entity.getId() +"  " +deltaTime);
@@ -29,9 +59,26 @@ public class ParticleSystem extends IteratingSystem {
 		TransformComponent transformComponent = transformComponentMapper.get(entity);
 		DimensionsComponent dimensionsComponent = ComponentRetriever.get(entity, DimensionsComponent.class);
 		ParticleEffect particleEffect = particleComponent.particleEffect;
+		if(particleEffect == null) return;
+		deltaTime = AnimationLodSystem.advance(entity, deltaTime);
+		if(deltaTime == AnimationLodSystem.SKIP) return;
 		
-		particleEffect.setPosition(transformComponent.x/particleComponent.worldMultiplyer, transformComponent.y/particleComponent.worldMultiplyer);
+		// effect is drawn inside parent composite transform, so it only needs repositioning when it moved
+		if(particleComponent.transformVersion != transformComponent.version) {
+			particleEffect.setPosition(transformComponent.x/particleComponent.worldMultiplyer, transformComponent.y/particleComponent.worldMultiplyer);
+			particleComponent.transformVersion = transformComponent.version;
+		}
+		// one long update would emit all particles of that time at once, with the same age
+		while(deltaTime > MAX_STEP) {
+			particleEffect.update(MAX_STEP);
+			deltaTime -= MAX_STEP;
+		}
 		particleEffect.update(deltaTime);
+
+		// continuous effects never complete
+		if(particleComponent.freeOnComplete && particleEffect.isComplete()) {
+			freeEffect(particleComponent);
+		}
 		//ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entity);
 		
 //		Entity parentEntity = parentNodeComponent.parentEntity;
@@ -42,4 +89,14 @@ public class ParticleSystem extends IteratingSystem {
 		
 	}
 
+	/**
+	 * Returns effect of the component to the pool it was obtained from, effects created some other way are just dropped
+	 */
+	private void freeEffect(ParticleComponent particleComponent) {
+		if(particleComponent == null || particleComponent.particleEffect == null) return;
+		if(particleComponent.particleEffect instanceof PooledEffect) {
+			((PooledEffect) particleComponent.particleEffect).free();
+		}
+		particleComponent.particleEffect = null;
+	}
 }
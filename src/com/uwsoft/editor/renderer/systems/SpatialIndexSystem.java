@@ -0,0 +1,267 @@
+package com.uwsoft.editor.renderer.systems;
+
+import java.util.Comparator;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.utils.DynamicAabbTree;
+
+/**
+ * Keeps world bounds of all leaf entities (everything except composites) in a {@link DynamicAabbTree},
+ * so picking and proximity queries don't have to go through every entity.
+ * Composites are not indexed, so queries and picking never return them: pick a leaf and walk up
+ * {@link ParentNodeComponent} to find the composite it belongs to.
+ * Bounds come from dimensions (or bound box) in world space, same as {@link BoundingBoxComponent} computes them for culling.
+ *
+ * Has to run after {@link TransformSystem}. Queries see positions as of the last update,
+ * they skip entities that are hidden themselves or through one of their parents.
+ */
+public class SpatialIndexSystem extends IteratingSystem {
+
+	/** Leaf boxes are enlarged by this much in world units, so small moves don't restructure the tree */
+	public static final float DEFAULT_MARGIN = 0.1f;
+
+	private ComponentMapper<BoundingBoxComponent> boundingBoxMapper = ComponentMapper.getFor(BoundingBoxComponent.class);
+	private ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+	private ComponentMapper<DimensionsComponent> dimensionsMapper = ComponentMapper.getFor(DimensionsComponent.class);
+	private ComponentMapper<ParentNodeComponent> parentNodeMapper = ComponentMapper.getFor(ParentNodeComponent.class);
+	private ComponentMapper<CompositeTransformComponent> compositeTransformMapper = ComponentMapper.getFor(CompositeTransformComponent.class);
+	private ComponentMapper<MainItemComponent> mainItemMapper = ComponentMapper.getFor(MainItemComponent.class);
+	private ComponentMapper<NodeComponent> nodeMapper = ComponentMapper.getFor(NodeComponent.class);
+
+	private final DynamicAabbTree<Entity> tree;
+
+	private final EntityListener removalListener = new EntityListener() {
+		@Override
+		public void entityAdded(Entity entity) {
+			// indexed on next update, when its world transform is known
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(entity);
+			if(boundingBoxComponent != null && boundingBoxComponent.spatialProxy != DynamicAabbTree.NULL_NODE) {
+				tree.destroyProxy(boundingBoxComponent.spatialProxy);
+				boundingBoxComponent.spatialProxy = DynamicAabbTree.NULL_NODE;
+			}
+		}
+	};
+
+	private final Affine2 identity = new Affine2();
+	private final Affine2 tmpAffine = new Affine2();
+	private final IntArray candidates = new IntArray();
+	private final Array<Entity> pickResult = new Array<Entity>();
+	private final Array<Entity> chainA = new Array<Entity>(), chainB = new Array<Entity>();
+
+	private final Comparator<Entity> topMostFirst = new Comparator<Entity>() {
+		@Override
+		public int compare(Entity e1, Entity e2) {
+			return compareDrawOrder(e2, e1);
+		}
+	};
+
+	public SpatialIndexSystem() {
+		this(DEFAULT_MARGIN);
+	}
+
+	public SpatialIndexSystem(float margin) {
+		super(Family.all(BoundingBoxComponent.class, TransformComponent.class, DimensionsComponent.class, ParentNodeComponent.class, MainItemComponent.class)
+				.exclude(NodeComponent.class).get());
+		tree = new DynamicAabbTree<Entity>(margin);
+	}
+
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		engine.addEntityListener(getFamily(), removalListener);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(removalListener);
+		for (int i = 0; i < getEntities().size(); i++) {
+			removalListener.entityRemoved(getEntities().get(i));
+		}
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(entity);
+		boundingBoxComponent.update(transformMapper.get(entity), dimensionsMapper.get(entity), getParentWorld(entity));
+
+		Rectangle rect = boundingBoxComponent.rectangle;
+		if(boundingBoxComponent.spatialProxy == DynamicAabbTree.NULL_NODE) {
+			boundingBoxComponent.spatialProxy = tree.createProxy(rect.x, rect.y, rect.width, rect.height, entity);
+		} else {
+			tree.moveProxy(boundingBoxComponent.spatialProxy, rect.x, rect.y, rect.width, rect.height);
+		}
+	}
+
+	private Affine2 getParentWorld(Entity entity) {
+		Entity parent = parentNodeMapper.get(entity).parentEntity;
+		CompositeTransformComponent parentTransform = parent != null ? compositeTransformMapper.get(parent) : null;
+		return parentTransform != null ? parentTransform.worldTransform : identity;
+	}
+
+	/**
+	 * Finds visible leaf entities under provided world point, testing the point against their dimensions as they are drawn
+	 * @param result cleared and filled with entities, top-most (drawn last) first
+	 * @return provided result array
+	 */
+	public Array<Entity> queryPoint(float x, float y, Array<Entity> result) {
+		result.clear();
+		candidates.clear();
+		tree.query(x, y, x, y, candidates);
+		for (int i = 0; i < candidates.size; i++) {
+			Entity entity = tree.getUserData(candidates.get(i));
+			if(hit(entity, x, y) && isVisible(entity)) result.add(entity);
+		}
+		if(result.size > 1) result.sort(topMostFirst);
+		return result;
+	}
+
+	/**
+	 * @return top-most visible leaf entity under provided world point, or null. Composites are never picked
+	 */
+	public Entity pick(float x, float y) {
+		queryPoint(x, y, pickResult);
+		Entity entity = pickResult.size > 0 ? pickResult.first() : null;
+		pickResult.clear();
+		return entity;
+	}
+
+	/**
+	 * Finds visible leaf entities whose world bounds overlap provided world rectangle
+	 * @param result cleared and filled with entities, in no particular order
+	 * @return provided result array
+	 */
+	public Array<Entity> queryRect(Rectangle rect, Array<Entity> result) {
+		result.clear();
+		candidates.clear();
+		tree.query(rect.x, rect.y, rect.x + rect.width, rect.y + rect.height, candidates);
+		for (int i = 0; i < candidates.size; i++) {
+			Entity entity = tree.getUserData(candidates.get(i));
+			if(boundingBoxMapper.get(entity).rectangle.overlaps(rect) && isVisible(entity)) result.add(entity);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds visible leaf entities whose world bounds are within provided distance from provided world point
+	 * @param result cleared and filled with entities, in no particular order
+	 * @return provided result array
+	 */
+	public Array<Entity> queryRadius(float x, float y, float radius, Array<Entity> result) {
+		result.clear();
+		candidates.clear();
+		tree.query(x - radius, y - radius, x + radius, y + radius, candidates);
+		float radius2 = radius * radius;
+		for (int i = 0; i < candidates.size; i++) {
+			Entity entity = tree.getUserData(candidates.get(i));
+			Rectangle rect = boundingBoxMapper.get(entity).rectangle;
+			// distance to the closest point of the bounds
+			float dx = x - MathUtils.clamp(x, rect.x, rect.x + rect.width);
+			float dy = y - MathUtils.clamp(y, rect.y, rect.y + rect.height);
+			if(dx * dx + dy * dy <= radius2 && isVisible(entity)) result.add(entity);
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of entities in the index
+	 */
+	public int getIndexedCount() {
+		return tree.getProxyCount();
+	}
+
+	/**
+	 * Tests world point against entity dimensions, by transforming it to entity local space
+	 * the same way {@link BoundingBoxComponent} transforms local bounds to world
+	 */
+	private boolean hit(Entity entity, float x, float y) {
+		Affine2 parentWorld = getParentWorld(entity);
+		if(parentWorld.det() == 0) return false;
+		Affine2 inverse = tmpAffine.set(parentWorld).inv();
+		float parentX = inverse.m00 * x + inverse.m01 * y + inverse.m02;
+		float parentY = inverse.m10 * x + inverse.m11 * y + inverse.m12;
+
+		TransformComponent transform = transformMapper.get(entity);
+		// entities drawn without their own scale and rotation (nine patches) are hit the same way
+		boolean transformed = boundingBoxMapper.get(entity).transformed;
+		float rotation = transformed ? transform.rotation : 0;
+		float scaleX = transformed ? transform.scaleX : 1;
+		float scaleY = transformed ? transform.scaleY : 1;
+		if(scaleX == 0 || scaleY == 0) return false;
+		float cos = MathUtils.cosDeg(rotation);
+		float sin = MathUtils.sinDeg(rotation);
+		float dx = parentX - transform.x - transform.originX;
+		float dy = parentY - transform.y - transform.originY;
+		float localX = (dx * cos + dy * sin) / scaleX + transform.originX;
+		float localY = (-dx * sin + dy * cos) / scaleY + transform.originY;
+		return dimensionsMapper.get(entity).hit(localX, localY);
+	}
+
+	private boolean isVisible(Entity entity) {
+		Entity current = entity;
+		while (current != null) {
+			MainItemComponent mainItemComponent = mainItemMapper.get(current);
+			if(mainItemComponent != null && !mainItemComponent.visible) return false;
+			ParentNodeComponent parentNodeComponent = parentNodeMapper.get(current);
+			current = parentNodeComponent != null ? parentNodeComponent.parentEntity : null;
+		}
+		return true;
+	}
+
+	/**
+	 * Compares positions of entities in the scene tree, as they are drawn
+	 * @return negative if first entity is drawn before the second one
+	 */
+	private int compareDrawOrder(Entity e1, Entity e2) {
+		fillChain(e1, chainA);
+		fillChain(e2, chainB);
+		int i = 0;
+		while (i < chainA.size && i < chainB.size && chainA.get(i) == chainB.get(i)) i++;
+		int result;
+		if(i == 0 || i == chainA.size || i == chainB.size) {
+			// different trees, or one is ancestor of the other
+			result = chainA.size - chainB.size;
+		} else {
+			NodeComponent commonParent = nodeMapper.get(chainA.get(i - 1));
+			result = commonParent.children.indexOf(chainA.get(i), true) - commonParent.children.indexOf(chainB.get(i), true);
+		}
+		chainA.clear();
+		chainB.clear();
+		return result;
+	}
+
+	/**
+	 * Fills chain with entity and its ancestors, root first
+	 */
+	private void fillChain(Entity entity, Array<Entity> chain) {
+		chain.clear();
+		Entity current = entity;
+		while (current != null) {
+			chain.add(current);
+			ParentNodeComponent parentNodeComponent = parentNodeMapper.get(current);
+			current = parentNodeComponent != null ? parentNodeComponent.parentEntity : null;
+		}
+		chain.reverse();
+	}
+}
@@ -23,6 +23,8 @@ public class SpriteAnimationSystem extends IteratingSystem {
 
 	@Override
 	public void processEntity(Entity entity, float deltaTime) {
+		deltaTime = AnimationLodSystem.advance(entity, deltaTime);
+		if(deltaTime == AnimationLodSystem.SKIP) return;
 		TextureRegionComponent tex = tm.get(entity);
 		SpriteAnimationStateComponent state = sm.get(entity);
         state.currentAnimation.setFrameDuration(1f/sa.get(entity).fps);
@@ -0,0 +1,66 @@
+package com.uwsoft.editor.renderer.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.brashmonkey.spriter.BakedEntity;
+import com.brashmonkey.spriter.Player;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.components.spriter.SpriterComponent;
+import com.uwsoft.editor.renderer.resources.SpriterDataCache;
+
+/**
+ * Advances Spriter players by frame delta time and computes their poses once per engine update,
+ * so drawing only submits what was computed here, no matter how many times (or if at all) the entity is drawn.
+ * Player position, rotation and scale are synced from {@link TransformComponent} before the pose is computed.
+ * Players {@link AnimationLodSystem} skips keep their last pose and catch up with the time they missed when advanced.
+ * Speed set on a player is kept, and scales its time the way it would at 60 frames per second: default 15 plays in real time.
+ */
+public class SpriterSystem extends IteratingSystem {
+
+	/** Player speed that plays animation in real time, milliseconds a player advances by per update by default */
+	private static final float DEFAULT_PLAYER_SPEED = 15f;
+
+	private ComponentMapper<SpriterComponent> spriterMapper = ComponentMapper.getFor(SpriterComponent.class);
+	private ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+
+	public SpriterSystem() {
+		super(Family.all(SpriterComponent.class, TransformComponent.class).get());
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		deltaTime = AnimationLodSystem.advance(entity, deltaTime);
+		if(deltaTime == AnimationLodSystem.SKIP) return;
+		SpriterComponent spriter = spriterMapper.get(entity);
+		TransformComponent transform = transformMapper.get(entity);
+		Player player = spriter.player;
+
+		player.setPosition(transform.x, transform.y);
+		player.setScale(spriter.scale);
+		player.rotate(transform.rotation - player.getAngle());
+		updateBaking(spriter);
+
+		// player time is in whole milliseconds, carry the fraction over to next frame
+		int speed = player.speed;
+		spriter.timeRemainder += deltaTime * 1000f * spriter.playbackSpeed * speed / DEFAULT_PLAYER_SPEED;
+		int step = (int) spriter.timeRemainder;
+		spriter.timeRemainder -= step;
+
+		// player computes the pose at its current time, and then moves time by speed
+		player.speed = step;
+		player.update();
+		player.speed = speed;
+	}
+
+	private void updateBaking(SpriterComponent spriter) {
+		Player player = spriter.player;
+		BakedEntity baked = player.getBakedEntity();
+		if(spriter.bakedFramesPerSecond <= 0) {
+			if(baked != null) player.setBakedEntity(null);
+		} else if(baked == null || baked.framesPerSecond != spriter.bakedFramesPerSecond || baked.entity != player.getEntity()) {
+			player.setBakedEntity(SpriterDataCache.getBakedEntity(spriter.animationName, player.getEntity(), spriter.bakedFramesPerSecond));
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.uwsoft.editor.renderer.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.math.Affine2;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+
+/**
+ * Keeps composite world transforms cached, walking every scene tree from its root
+ * and recomputing {@link CompositeTransformComponent#worldTransform} only for subtrees whose transform changed.
+ * Every entity whose world placement changed gets its {@link TransformComponent#version} incremented,
+ * so other systems can cheaply tell if they need to update anything.
+ * Changes of local transform and dimensions, and added or removed children, are reported to CompositeSystem,
+ * see {@link CompositeSystem#invalidateBounds(Entity)}.
+ *
+ * Has to run after all systems that move entities, and before the ones reading world transforms.
+ */
+public class TransformSystem extends IteratingSystem {
+
+	private ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+	private ComponentMapper<CompositeTransformComponent> compositeTransformMapper = ComponentMapper.getFor(CompositeTransformComponent.class);
+	private ComponentMapper<NodeComponent> nodeMapper = ComponentMapper.getFor(NodeComponent.class);
+	private ComponentMapper<DimensionsComponent> dimensionsMapper = ComponentMapper.getFor(DimensionsComponent.class);
+
+	private int updatedCount;
+
+	public TransformSystem() {
+		super(Family.all(CompositeTransformComponent.class).exclude(ParentNodeComponent.class).get());
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		updatedCount = 0;
+		super.update(deltaTime);
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		updateHierarchy(entity);
+	}
+
+	/**
+	 * Updates cached world transforms of the given root entity and all of its descendants
+	 */
+	public void updateHierarchy(Entity root) {
+		updateTransform(root, null, null, false);
+	}
+
+	private void updateTransform(Entity entity, Entity parent, Affine2 parentWorld, boolean parentChanged) {
+		TransformComponent transformComponent = transformMapper.get(entity);
+		boolean moved = transformComponent.checkDirty();
+		boolean changed = moved | parentChanged;
+
+		DimensionsComponent dimensionsComponent = dimensionsMapper.get(entity);
+		boolean resized = dimensionsComponent != null && dimensionsComponent.checkDirty();
+		if((moved || resized) && parent != null) {
+			CompositeSystem.invalidateBounds(parent);
+		}
+
+		if(changed) {
+			transformComponent.version++;
+			updatedCount++;
+		}
+
+		CompositeTransformComponent compositeTransformComponent = compositeTransformMapper.get(entity);
+		if(compositeTransformComponent == null) {
+			return;
+		}
+
+		Affine2 worldTransform = compositeTransformComponent.worldTransform;
+		if(changed) {
+			//TODO origin thing
+			worldTransform.setToTrnRotScl(transformComponent.x, transformComponent.y, transformComponent.rotation, transformComponent.scaleX, transformComponent.scaleY);
+			if(parentWorld != null) worldTransform.preMul(parentWorld);
+			compositeTransformComponent.computedTransform.set(worldTransform);
+		}
+
+		NodeComponent nodeComponent = nodeMapper.get(entity);
+		if(nodeComponent.boundsChanged || nodeComponent.descendantBoundsChanged) {
+			// children were added or removed, or the subtree was marked while it was detached
+			CompositeSystem.markAncestors(entity);
+		}
+		Entity[] children = nodeComponent.children.begin();
+		for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+			updateTransform(children[i], entity, worldTransform, changed);
+		}
+		nodeComponent.children.end();
+	}
+
+	/**
+	 * @return number of entities whose world transform changed during last update
+	 */
+	public int getUpdatedCount() {
+		return updatedCount;
+	}
+}
@@ -0,0 +1,96 @@
+package com.uwsoft.editor.renderer.systems.render;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.uwsoft.editor.renderer.systems.render.logic.BatchableDrawable;
+
+/**
+ * Collects draw commands of one layer of one composite, and submits them grouped by texture.
+ * Commands are kept in (group, z) order, where a command joins the earliest group with its texture
+ * that no later group overlaps, so the result on screen is the same as drawing in z order.
+ */
+class DrawQueue {
+
+	private static class Group {
+		Texture texture;
+		final Rectangle bounds = new Rectangle();
+		final IntArray commands = new IntArray();
+	}
+
+	private final Array<Entity> entities = new Array<Entity>();
+	private final Array<BatchableDrawable> drawables = new Array<BatchableDrawable>();
+	private final Array<Texture> textures = new Array<Texture>();
+
+	private final Array<Group> groups = new Array<Group>();
+	private final Array<Group> freeGroups = new Array<Group>();
+
+	private int layerIndex;
+
+	/**
+	 * @param bounds world bounds of the entity, in the same space as bounds of all other commands of this queue
+	 */
+	public void add(Entity entity, BatchableDrawable drawable, Texture texture, Rectangle bounds, int layerIndex) {
+		this.layerIndex = layerIndex;
+		int index = entities.size;
+		entities.add(entity);
+		drawables.add(drawable);
+		textures.add(texture);
+
+		Group target = null;
+		for (int i = groups.size - 1; i >= 0; i--) {
+			Group group = groups.get(i);
+			if(group.texture == texture) {
+				target = group;
+				break;
+			}
+			if(group.bounds.overlaps(bounds)) {
+				// something with other texture is drawn below, we can't move under it
+				break;
+			}
+		}
+
+		if(target == null) {
+			target = freeGroups.size > 0 ? freeGroups.pop() : new Group();
+			target.texture = texture;
+			target.bounds.set(bounds);
+			groups.add(target);
+		} else {
+			target.bounds.merge(bounds);
+		}
+		target.commands.add(index);
+	}
+
+	public boolean isEmpty() {
+		return entities.size == 0;
+	}
+
+	/**
+	 * @return layer of the commands currently in the queue
+	 */
+	public int getLayerIndex() {
+		return layerIndex;
+	}
+
+	/**
+	 * Draws all queued commands group by group, and clears the queue
+	 */
+	public void flush(Overlap2dRenderer renderer) {
+		for (int i = 0; i < groups.size; i++) {
+			Group group = groups.get(i);
+			for (int j = 0; j < group.commands.size; j++) {
+				int index = group.commands.get(j);
+				renderer.drawLeaf(drawables.get(index), entities.get(index), textures.get(index));
+			}
+			group.commands.clear();
+			group.texture = null;
+			freeGroups.add(group);
+		}
+		groups.clear();
+		entities.clear();
+		drawables.clear();
+		textures.clear();
+	}
+}
@@ -3,22 +3,34 @@ package com.uwsoft.editor.renderer.systems.render;
 import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Affine2;
-import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntSet;
 import com.uwsoft.editor.renderer.commons.IExternalItemType;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
 import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.MainItemComponent;
 import com.uwsoft.editor.renderer.components.NodeComponent;
-import com.uwsoft.editor.renderer.components.ParentNodeComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
 import com.uwsoft.editor.renderer.components.ViewPortComponent;
+import com.uwsoft.editor.renderer.components.ZIndexComponent;
+import com.uwsoft.editor.renderer.factory.EntityFactory;
 import com.uwsoft.editor.renderer.physics.PhysicsBodyLoader;
+import com.uwsoft.editor.renderer.systems.TransformSystem;
+import com.uwsoft.editor.renderer.systems.render.logic.BatchableDrawable;
+import com.uwsoft.editor.renderer.systems.render.logic.Drawable;
 import com.uwsoft.editor.renderer.systems.render.logic.DrawableLogicMapper;
 
 
@@ -27,34 +39,83 @@ public class Overlap2dRenderer extends IteratingSystem {
 	private ComponentMapper<ViewPortComponent> viewPortMapper = ComponentMapper.getFor(ViewPortComponent.class);
 	private ComponentMapper<CompositeTransformComponent> compositeTransformMapper = ComponentMapper.getFor(CompositeTransformComponent.class);
 	private ComponentMapper<NodeComponent> nodeMapper = ComponentMapper.getFor(NodeComponent.class);
-	private ComponentMapper<ParentNodeComponent> parentNodeMapper = ComponentMapper.getFor(ParentNodeComponent.class);
 	private ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
 	private ComponentMapper<MainItemComponent> mainItemComponentMapper = ComponentMapper.getFor(MainItemComponent.class);
+	private ComponentMapper<DimensionsComponent> dimensionsMapper = ComponentMapper.getFor(DimensionsComponent.class);
+	private ComponentMapper<BoundingBoxComponent> boundingBoxMapper = ComponentMapper.getFor(BoundingBoxComponent.class);
+	private ComponentMapper<ZIndexComponent> zIndexMapper = ComponentMapper.getFor(ZIndexComponent.class);
 	
 	private DrawableLogicMapper drawableLogicMapper;
 	private RayHandler rayHandler;
+	private TransformSystem ownTransformSystem;
 	
 	public Batch batch;
 
+	private boolean frustumCulling = true;
+	private final IntSet cullableTypes = new IntSet();
+	private final Rectangle viewBounds = new Rectangle();
+	private int culledCount;
+	private int drawnCount;
+
+	private boolean textureSorting = false;
+	private final DrawQueue drawQueue = new DrawQueue();
+	private Texture lastTexture;
+	private int textureSwitchCount;
+	private int flushCount;
+
 	public Overlap2dRenderer(Batch batch) {
 		super(Family.all(ViewPortComponent.class).get());
 		this.batch = batch;
 		drawableLogicMapper = new DrawableLogicMapper();
+
+		// types that never draw outside of their dimensions
+		cullableTypes.add(EntityFactory.IMAGE_TYPE);
+		cullableTypes.add(EntityFactory.NINE_PATCH);
+		cullableTypes.add(EntityFactory.SPRITE_TYPE);
+		cullableTypes.add(EntityFactory.LABEL_TYPE);
+		cullableTypes.add(EntityFactory.COMPOSITE_TYPE);
 	}
 
 	public void addDrawableType(IExternalItemType itemType) {
 		drawableLogicMapper.addDrawableToMap(itemType.getTypeId(), itemType.getDrawable());
 	}
 
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		// if nobody updates world transforms for us, do it ourselves before drawing
+		if(engine.getSystem(TransformSystem.class) == null) {
+			ownTransformSystem = new TransformSystem();
+		}
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		culledCount = 0;
+		drawnCount = 0;
+		textureSwitchCount = 0;
+		flushCount = 0;
+		super.update(deltaTime);
+	}
+
 	@Override
 	public void processEntity(Entity entity, float deltaTime) {
 		ViewPortComponent ViewPortComponent = viewPortMapper.get(entity);
 		Camera camera = ViewPortComponent.viewPort.getCamera();
 		camera.update();
+		if(ownTransformSystem != null) {
+			ownTransformSystem.updateHierarchy(entity);
+		}
+		if(frustumCulling || textureSorting) {
+			updateViewBounds(camera);
+			updateBounds(entity);
+		}
 		batch.setProjectionMatrix(camera.combined);
 		batch.begin();
+		lastTexture = null;
 		drawRecursively(entity);
 		batch.end();
+		flushCount += getRenderCalls(batch);
 
 		rayHandler.setCulling(false);
 		//TODO kinda not cool
@@ -79,7 +140,7 @@ public class Overlap2dRenderer extends IteratingSystem {
 		
 		
 		if (curCompositeTransformComponent.transform){
-			computeTransform(rootEntity);
+			// world transform is already computed by TransformSystem
 			applyTransform(rootEntity, batch);
 		}
 		drawChildren(rootEntity, batch, curCompositeTransformComponent);
@@ -97,6 +158,14 @@ public class Overlap2dRenderer extends IteratingSystem {
 				if(!childMainItemComponent.visible){
 					continue;
 				}
+
+				if(frustumCulling) {
+					BoundingBoxComponent childBoundingBox = boundingBoxMapper.get(child);
+					if(childBoundingBox != null && childBoundingBox.culled) {
+						culledCount++;
+						continue;
+					}
+				}
 				
 				int entityType = childMainItemComponent.entityType;
 				
@@ -107,12 +176,19 @@ public class Overlap2dRenderer extends IteratingSystem {
 				
 				if(childNodeComponent ==null){
 					//Find logic from the mapper and draw it
-					drawableLogicMapper.getDrawable(entityType).draw(batch, child);
+					Drawable drawable = drawableLogicMapper.getDrawable(entityType);
+					if(textureSorting && queue(child, drawable)) {
+						continue;
+					}
+					flushQueue();
+					drawLeaf(drawable, child, null);
 				}else{
 					//Step into Composite
+					flushQueue();
 					drawRecursively(child);
 				}
 			}
+			flushQueue();
 		} else {
 			// No transform for this group, offset each child.
 			TransformComponent compositeTransform = transformMapper.get(rootEntity);
@@ -141,7 +217,7 @@ public class Overlap2dRenderer extends IteratingSystem {
 				
 				if(childNodeComponent ==null){
 					//Finde the logic from mapper and draw it
-					drawableLogicMapper.getDrawable(entityType).draw(batch, child);
+					drawLeaf(drawableLogicMapper.getDrawable(entityType), child, null);
 				}else{
 					//Step into Composite
 					drawRecursively(child);
@@ -157,57 +233,147 @@ public class Overlap2dRenderer extends IteratingSystem {
 		nodeComponent.children.end();
 	}
 
-	/** Returns the transform for this group's coordinate system. 
-	 * @param rootEntity */
-	protected Matrix4 computeTransform (Entity rootEntity) {
-		CompositeTransformComponent curCompositeTransformComponent = compositeTransformMapper.get(rootEntity);
-		//NodeComponent nodeComponent = nodeMapper.get(rootEntity);
-		ParentNodeComponent parentNodeComponent = parentNodeMapper.get(rootEntity);
-		TransformComponent curTransform = transformMapper.get(rootEntity);
-		Affine2 worldTransform = curCompositeTransformComponent.worldTransform;
-		//TODO origin thing
-		float originX = 0;
-		float originY = 0;
-		float x = curTransform.x;
-		float y = curTransform.y;
-		float rotation = curTransform.rotation;
-		float scaleX = curTransform.scaleX;
-		float scaleY = curTransform.scaleY;
-
-		worldTransform.setToTrnRotScl(x + originX, y + originY, rotation, scaleX, scaleY);
-		if (originX != 0 || originY != 0) worldTransform.translate(-originX, -originY);
-
-		// Find the first parent that transforms.
-		
-		CompositeTransformComponent parentTransformComponent = null;
-		//NodeComponent parentNodeComponent;
-		
-		Entity parentEntity = null;
-		if(parentNodeComponent != null){
-			parentEntity = parentNodeComponent.parentEntity;
+	/**
+	 * Puts child into the draw queue, if it can be reordered with its neighbours.
+	 * @return false if child has to be drawn right away
+	 */
+	private boolean queue(Entity child, Drawable drawable) {
+		if(!(drawable instanceof BatchableDrawable)) return false;
+		BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(child);
+		ZIndexComponent zIndexComponent = zIndexMapper.get(child);
+		if(boundingBoxComponent == null || !boundingBoxComponent.bounded || zIndexComponent == null) return false;
+
+		if(!drawQueue.isEmpty() && drawQueue.getLayerIndex() != zIndexComponent.layerIndex) {
+			// layers are never mixed
+			flushQueue();
 		}
-//		if (parentEntity != null){
-//			
-//		}
-		
-//		while (parentEntity != null) {
-//			parentNodeComponent = nodeMapper.get(parentEntity);
-//			if (parentTransformComponent.transform) break;
-//			System.out.println("Gand");
-//			parentEntity = parentNodeComponent.parentEntity;
-//			parentTransformComponent = compositeTransformMapper.get(parentEntity);
-//			
-//		}
-		
-		if (parentEntity != null){
-			parentTransformComponent = compositeTransformMapper.get(parentEntity);
-			worldTransform.preMul(parentTransformComponent.worldTransform);
-			//MainItemComponent main = parentEntity.getComponent(MainItemComponent.class);
-			//System.out.println("NAME " + main.itemIdentifier);
+		BatchableDrawable batchableDrawable = (BatchableDrawable) drawable;
+		drawQueue.add(child, batchableDrawable, batchableDrawable.getTexture(child), boundingBoxComponent.rectangle, zIndexComponent.layerIndex);
+		return true;
+	}
+
+	private void flushQueue() {
+		if(!drawQueue.isEmpty()) {
+			drawQueue.flush(this);
+		}
+	}
+
+	/**
+	 * Draws single non composite entity, and counts texture switches
+	 * @param texture texture entity is drawn with, or null if not known yet
+	 */
+	void drawLeaf(Drawable drawable, Entity entity, Texture texture) {
+		if(texture == null && drawable instanceof BatchableDrawable) {
+			texture = ((BatchableDrawable) drawable).getTexture(entity);
+		}
+		// drawables with unknown textures are not counted, and don't reset the tracked texture
+		if(texture != null && texture != lastTexture) {
+			if(lastTexture != null) textureSwitchCount++;
+			lastTexture = texture;
+		}
+		drawable.draw(batch, entity);
+		drawnCount++;
+	}
+
+	private int getRenderCalls(Batch batch) {
+		if(batch instanceof PolygonSpriteBatch) return ((PolygonSpriteBatch) batch).renderCalls;
+		if(batch instanceof SpriteBatch) return ((SpriteBatch) batch).renderCalls;
+		return 0;
+	}
+
+	/** Sets viewBounds to the axis aligned rectangle covering everything the camera can see. */
+	private void updateViewBounds(Camera camera) {
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		Vector3[] points = camera.frustum.planePoints;
+		for (int i = 0; i < points.length; i++) {
+			if(points[i].x < minX) minX = points[i].x;
+			if(points[i].x > maxX) maxX = points[i].x;
+			if(points[i].y < minY) minY = points[i].y;
+			if(points[i].y > maxY) maxY = points[i].y;
+		}
+		viewBounds.set(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Culling stage, computes world bounds of all children of the composite and marks the ones outside of the view.
+	 * Composite bounds are the union of its visible children bounds, so whole composites can be skipped.
+	 * Leaf bounds are cached in {@link BoundingBoxComponent} until their transform changes.
+	 */
+	private void updateBounds(Entity compositeEntity) {
+		CompositeTransformComponent compositeTransformComponent = compositeTransformMapper.get(compositeEntity);
+		BoundingBoxComponent compositeBoundingBox = boundingBoxMapper.get(compositeEntity);
+		NodeComponent nodeComponent = nodeMapper.get(compositeEntity);
+
+		if(!compositeTransformComponent.transform) {
+			// children of non transforming composites are offset while drawing, so we don't cull them
+			uncull(compositeEntity);
+			return;
+		}
+
+		Affine2 worldTransform = compositeTransformComponent.worldTransform;
+
+		boolean bounded = true, empty = true;
+		float minX = 0, minY = 0, maxX = 0, maxY = 0;
+
+		Entity[] children = nodeComponent.children.begin();
+		for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+			Entity child = children[i];
+			MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
+			BoundingBoxComponent childBoundingBox = boundingBoxMapper.get(child);
+			if(!childMainItemComponent.visible) continue;
+			if(childBoundingBox == null) {
+				bounded = false;
+				continue;
+			}
+
+			if(nodeMapper.has(child)) {
+				updateBounds(child);
+			} else {
+				childBoundingBox.bounded = cullableTypes.contains(childMainItemComponent.entityType);
+				if(childBoundingBox.bounded) {
+					childBoundingBox.update(transformMapper.get(child), dimensionsMapper.get(child), worldTransform);
+				}
+			}
+
+			if(!childBoundingBox.bounded) {
+				childBoundingBox.culled = false;
+				bounded = false;
+				continue;
+			}
+
+			Rectangle rect = childBoundingBox.rectangle;
+			childBoundingBox.culled = frustumCulling && !rect.overlaps(viewBounds);
+			if(empty) {
+				minX = rect.x; minY = rect.y; maxX = rect.x + rect.width; maxY = rect.y + rect.height;
+				empty = false;
+			} else {
+				if(rect.x < minX) minX = rect.x;
+				if(rect.y < minY) minY = rect.y;
+				if(rect.x + rect.width > maxX) maxX = rect.x + rect.width;
+				if(rect.y + rect.height > maxY) maxY = rect.y + rect.height;
+			}
 		}
+		nodeComponent.children.end();
+
+		if(compositeBoundingBox != null) {
+			compositeBoundingBox.bounded = bounded;
+			compositeBoundingBox.rectangle.set(minX, minY, maxX - minX, maxY - minY);
+		}
+	}
 
-		curCompositeTransformComponent.computedTransform.set(worldTransform);
-		return curCompositeTransformComponent.computedTransform;
+	private void uncull(Entity entity) {
+		BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(entity);
+		if(boundingBoxComponent != null) {
+			boundingBoxComponent.bounded = false;
+			boundingBoxComponent.culled = false;
+		}
+		NodeComponent nodeComponent = nodeMapper.get(entity);
+		if(nodeComponent == null) return;
+		Entity[] children = nodeComponent.children.begin();
+		for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+			uncull(children[i]);
+		}
+		nodeComponent.children.end();
 	}
 
 	protected void applyTransform (Entity rootEntity, Batch batch) {
@@ -224,5 +390,53 @@ public class Overlap2dRenderer extends IteratingSystem {
 	public void setRayHandler(RayHandler rayHandler){
 		this.rayHandler = rayHandler;
 	}
+
+	public void setFrustumCulling(boolean frustumCulling) {
+		this.frustumCulling = frustumCulling;
+	}
+
+	public boolean isFrustumCulling() {
+		return frustumCulling;
+	}
+
+	/**
+	 * Allows or forbids culling of given entity type, use it for external item types that never draw outside of their dimensions
+	 */
+	public void setCullable(int entityType, boolean cullable) {
+		if(cullable) cullableTypes.add(entityType);
+		else cullableTypes.remove(entityType);
+	}
+
+	/** @return number of entities (whole composites count as one) skipped by frustum culling during last update */
+	public int getCulledCount() {
+		return culledCount;
+	}
+
+	/** @return number of non composite entities drawn during last update */
+	public int getDrawnCount() {
+		return drawnCount;
+	}
+
+	/**
+	 * Enables render mode that groups non overlapping images and nine patches of the same layer by texture,
+	 * reducing batch flushes caused by texture switches. Drawing order only changes where it can't be seen.
+	 */
+	public void setTextureSorting(boolean textureSorting) {
+		this.textureSorting = textureSorting;
+	}
+
+	public boolean isTextureSorting() {
+		return textureSorting;
+	}
+
+	/** @return number of texture changes between drawn entities during last update, entities with unknown texture are not counted */
+	public int getTextureSwitchCount() {
+		return textureSwitchCount;
+	}
+
+	/** @return number of batch flushes (render calls) during last update, only known for SpriteBatch and PolygonSpriteBatch */
+	public int getFlushCount() {
+		return flushCount;
+	}
 }
 
@@ -0,0 +1,12 @@
+package com.uwsoft.editor.renderer.systems.render.logic;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * Drawable that draws an entity with a single texture, using the default blending and without touching the batch transform.
+ * Renderer is allowed to reorder such drawables with others of the same layer, as long as they don't overlap.
+ */
+public interface BatchableDrawable extends Drawable {
+	public abstract Texture getTexture(Entity entity);
+}
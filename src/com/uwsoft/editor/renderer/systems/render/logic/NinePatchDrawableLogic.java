@@ -2,11 +2,11 @@ package com.uwsoft.editor.renderer.systems.render.logic;
 
 import com.badlogic.ashley.core.ComponentMapper;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.math.Matrix4;
 import com.uwsoft.editor.renderer.components.*;
 
-public class NinePatchDrawableLogic implements Drawable {
+public class NinePatchDrawableLogic implements BatchableDrawable {
 
 	private ComponentMapper<TintComponent> tintComponentComponentMapper;
 	private ComponentMapper<TransformComponent> transformMapper;
@@ -32,4 +32,9 @@ public class NinePatchDrawableLogic implements Drawable {
 		entityNinePatchComponent.ninePatch.draw(batch, entityTransformComponent.x, entityTransformComponent.y, entityDimensionsComponent.width, entityDimensionsComponent.height);
 	}
 
+	@Override
+	public Texture getTexture(Entity entity) {
+		return ninePatchMapper.get(entity).ninePatch.getTexture();
+	}
+
 }
@@ -17,6 +17,7 @@ public class ParticleDrawableLogic implements Drawable {
 	@Override
 	public void draw(Batch batch, Entity entity) {
 		ParticleComponent particleComponent = particleMapper.get(entity);
+		if(particleComponent.particleEffect == null) return;
 		Matrix4 matrix = batch.getTransformMatrix().scl(particleComponent.worldMultiplyer);
 		batch.setTransformMatrix(matrix);
 		particleComponent.particleEffect.draw(batch);
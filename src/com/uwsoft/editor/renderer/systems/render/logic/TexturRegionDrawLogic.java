@@ -2,13 +2,14 @@ package com.uwsoft.editor.renderer.systems.render.logic;
 
 import com.badlogic.ashley.core.ComponentMapper;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.uwsoft.editor.renderer.components.DimensionsComponent;
 import com.uwsoft.editor.renderer.components.TextureRegionComponent;
 import com.uwsoft.editor.renderer.components.TintComponent;
 import com.uwsoft.editor.renderer.components.TransformComponent;
 
-public class TexturRegionDrawLogic implements Drawable {
+public class TexturRegionDrawLogic implements BatchableDrawable {
 
 	private ComponentMapper<TintComponent> tintComponentComponentMapper;
 	private ComponentMapper<TextureRegionComponent> textureRegionMapper;
@@ -37,4 +38,9 @@ public class TexturRegionDrawLogic implements Drawable {
 				entityTransformComponent.rotation);
 	}
 
+	@Override
+	public Texture getTexture(Entity entity) {
+		return textureRegionMapper.get(entity).region.getTexture();
+	}
+
 }
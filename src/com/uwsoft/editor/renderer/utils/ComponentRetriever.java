@@ -20,12 +20,13 @@ package com.uwsoft.editor.renderer.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.ComponentType;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
 import com.uwsoft.editor.renderer.components.*;
 import com.uwsoft.editor.renderer.components.label.LabelComponent;
 import com.uwsoft.editor.renderer.components.light.LightObjectComponent;
@@ -42,27 +43,63 @@ import com.uwsoft.editor.renderer.components.spriter.SpriterDrawerComponent;
 /**
  * Component Retriever is a singleton single instance class that initialises list of
  * all component mappers on first access, and provides a retrieval methods to get {@link Component}
- * with provided class from provided {@link Entity} object
+ * with provided class from provided {@link Entity} object.
+ * Mappers are kept in a table keyed by identity of component class, so retrieval does not go through {@link ComponentType} map.
+ * Table is replaced as a whole when new type is added, so retrieval needs no locking.
  *
  * @author azakhary on 5/19/2015.
  */
 public class ComponentRetriever {
 
     /**
-     * single static instance of this class
+     * single static instance of this class, created when class is first accessed
      */
-    private static ComponentRetriever instance;
+    private static final ComponentRetriever instance = new ComponentRetriever();
 
     /**
-     * Unique map of mappers that can be accessed by component class
+     * Open addressing table of mappers, with linear probing from identity hash of component class
      */
-    private Map<Class, ComponentMapper<? extends Component>> mappers = new HashMap<Class, ComponentMapper<? extends Component>>();
+    private static final class MapperTable {
+        final Class<?>[] types;
+        final ComponentMapper<?>[] mappers;
+        final int mask;
+        int size;
+
+        MapperTable(int capacity) {
+            types = new Class<?>[capacity];
+            mappers = new ComponentMapper<?>[capacity];
+            mask = capacity - 1;
+        }
+
+        ComponentMapper<?> get(Class<?> type) {
+            int i = System.identityHashCode(type) & mask;
+            while (true) {
+                Class<?> key = types[i];
+                if(key == type) return mappers[i];
+                if(key == null) return null;
+                i = (i + 1) & mask;
+            }
+        }
+
+        void put(Class<?> type, ComponentMapper<?> mapper) {
+            int i = System.identityHashCode(type) & mask;
+            while (types[i] != null && types[i] != type) {
+                i = (i + 1) & mask;
+            }
+            if(types[i] == null) size++;
+            types[i] = type;
+            mappers[i] = mapper;
+        }
+    }
+
+    private volatile MapperTable mappers = new MapperTable(64);
 
     /**
      * Private constructor
      */
     private ComponentRetriever() {
-
+        // Important to initialize during creation, to populate mappers array
+        init();
     }
 
     /**
@@ -70,65 +107,61 @@ public class ComponentRetriever {
      * it might be a good idea to use Reflections library later to create this list from all classes in components package of runtime, all in favour?
      */
     private void init() {
-    	mappers.put(LightObjectComponent.class, ComponentMapper.getFor(LightObjectComponent.class));
+    	add(LightObjectComponent.class, ComponentMapper.getFor(LightObjectComponent.class));
     	
-    	mappers.put(ParticleComponent.class, ComponentMapper.getFor(ParticleComponent.class));
+    	add(ParticleComponent.class, ComponentMapper.getFor(ParticleComponent.class));
 
-        mappers.put(LabelComponent.class, ComponentMapper.getFor(LabelComponent.class));
+        add(LabelComponent.class, ComponentMapper.getFor(LabelComponent.class));
 
-    	mappers.put(PolygonComponent.class, ComponentMapper.getFor(PolygonComponent.class));
-    	mappers.put(PhysicsBodyComponent.class, ComponentMapper.getFor(PhysicsBodyComponent.class));
-        mappers.put(PhysicsBodyPropertiesComponent.class, ComponentMapper.getFor(PhysicsBodyPropertiesComponent.class));
+    	add(PolygonComponent.class, ComponentMapper.getFor(PolygonComponent.class));
+    	add(PhysicsBodyComponent.class, ComponentMapper.getFor(PhysicsBodyComponent.class));
+        add(PhysicsBodyPropertiesComponent.class, ComponentMapper.getFor(PhysicsBodyPropertiesComponent.class));
 
-        mappers.put(AnimationComponent.class, ComponentMapper.getFor(AnimationComponent.class));
-        mappers.put(SpriteAnimationComponent.class, ComponentMapper.getFor(SpriteAnimationComponent.class));
-        mappers.put(SpriteAnimationStateComponent.class, ComponentMapper.getFor(SpriteAnimationStateComponent.class));
-        
-        mappers.put(SpriterDrawerComponent.class, ComponentMapper.getFor(SpriterDrawerComponent.class));
-        mappers.put(SpriterComponent.class, ComponentMapper.getFor(SpriterComponent.class));
-        
-        mappers.put(CompositeTransformComponent.class, ComponentMapper.getFor(CompositeTransformComponent.class));
-        mappers.put(DimensionsComponent.class, ComponentMapper.getFor(DimensionsComponent.class));
-        mappers.put(LayerMapComponent.class, ComponentMapper.getFor(LayerMapComponent.class));
-        mappers.put(MainItemComponent.class, ComponentMapper.getFor(MainItemComponent.class));
-        mappers.put(NinePatchComponent.class, ComponentMapper.getFor(NinePatchComponent.class));
-        mappers.put(NodeComponent.class, ComponentMapper.getFor(NodeComponent.class));
-        mappers.put(ParentNodeComponent.class, ComponentMapper.getFor(ParentNodeComponent.class));
-        mappers.put(ScissorComponent.class, ComponentMapper.getFor(ScissorComponent.class));
-        mappers.put(TextureRegionComponent.class, ComponentMapper.getFor(TextureRegionComponent.class));
-        mappers.put(TintComponent.class, ComponentMapper.getFor(TintComponent.class));
-        mappers.put(TransformComponent.class, ComponentMapper.getFor(TransformComponent.class));
-        mappers.put(ViewPortComponent.class, ComponentMapper.getFor(ViewPortComponent.class));
-        mappers.put(ZIndexComponent.class, ComponentMapper.getFor(ZIndexComponent.class));
-        mappers.put(ScriptComponent.class, ComponentMapper.getFor(ScriptComponent.class));
-
-        mappers.put(PolygonComponent.class, ComponentMapper.getFor(PolygonComponent.class));
+        add(AnimationComponent.class, ComponentMapper.getFor(AnimationComponent.class));
+        add(SpriteAnimationComponent.class, ComponentMapper.getFor(SpriteAnimationComponent.class));
+        add(SpriteAnimationStateComponent.class, ComponentMapper.getFor(SpriteAnimationStateComponent.class));
         
+        add(SpriterDrawerComponent.class, ComponentMapper.getFor(SpriterDrawerComponent.class));
+        add(SpriterComponent.class, ComponentMapper.getFor(SpriterComponent.class));
         
+        add(BoundingBoxComponent.class, ComponentMapper.getFor(BoundingBoxComponent.class));
+        add(CompositeTransformComponent.class, ComponentMapper.getFor(CompositeTransformComponent.class));
+        add(DimensionsComponent.class, ComponentMapper.getFor(DimensionsComponent.class));
+        add(LayerMapComponent.class, ComponentMapper.getFor(LayerMapComponent.class));
+        add(MainItemComponent.class, ComponentMapper.getFor(MainItemComponent.class));
+        add(NinePatchComponent.class, ComponentMapper.getFor(NinePatchComponent.class));
+        add(NodeComponent.class, ComponentMapper.getFor(NodeComponent.class));
+        add(ParentNodeComponent.class, ComponentMapper.getFor(ParentNodeComponent.class));
+        add(ScissorComponent.class, ComponentMapper.getFor(ScissorComponent.class));
+        add(TextureRegionComponent.class, ComponentMapper.getFor(TextureRegionComponent.class));
+        add(TintComponent.class, ComponentMapper.getFor(TintComponent.class));
+        add(TransformComponent.class, ComponentMapper.getFor(TransformComponent.class));
+        add(ViewPortComponent.class, ComponentMapper.getFor(ViewPortComponent.class));
+        add(ZIndexComponent.class, ComponentMapper.getFor(ZIndexComponent.class));
+        add(ScriptComponent.class, ComponentMapper.getFor(ScriptComponent.class));
     }
 
     /**
-     * Short version of getInstance singleton variation, but with private access,
-     * as there is no reason to get instance of this class, but only use it's public methods
-     *
-     * @return ComponentRetriever only instance
+     * Stores mapper of component type, in a copy of the table that is at most half full.
+     * Readers always see either old or new complete table.
      */
-    private static synchronized ComponentRetriever self() {
-        if(instance == null) {
-            instance = new ComponentRetriever();
-
-            // Important to initialize during first creation, to populate mappers map
-            instance.init();
+    private synchronized void add(Class<? extends Component> type, ComponentMapper<? extends Component> mapper) {
+        MapperTable current = mappers;
+        int capacity = current.types.length;
+        if((current.size + 1) * 2 > capacity) capacity *= 2;
+        MapperTable updated = new MapperTable(capacity);
+        for (int i = 0; i < current.types.length; i++) {
+            if(current.types[i] != null) updated.put(current.types[i], current.mappers[i]);
         }
-
-        return instance;
+        updated.put(type, mapper);
+        mappers = updated;
     }
 
     /**
-     * @return returns Map of mappers, for internal use only
+     * @return mapper for provided type, or null if type was not added
      */
-    private Map<Class, ComponentMapper<? extends Component>> getMappers() {
-        return mappers;
+    private ComponentMapper<?> getMapper(Class<?> type) {
+        return mappers.get(type);
     }
 
     /**
@@ -141,28 +174,54 @@ public class ComponentRetriever {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Component> T get(Entity entity, Class<T> type) {
-        return (T)self().getMappers().get(type).get(entity);
+        ComponentMapper<?> mapper = instance.getMapper(type);
+        if(mapper == null) {
+            // not known yet, add it so next lookups are direct
+            ComponentMapper<T> added = ComponentMapper.getFor(type);
+            instance.add(type, added);
+            return added.get(entity);
+        }
+        return (T)mapper.get(entity);
     }
 
-
-    @SuppressWarnings("unchecked")
-    public static  Collection<Component> getComponents(Entity entity) {
+    /**
+     * @return new collection of all components of known types the entity has
+     */
+    public static Collection<Component> getComponents(Entity entity) {
         Collection<Component> components = new ArrayList<Component>();
-        for (ComponentMapper<? extends Component> mapper : self().getMappers().values()) {
-            if(mapper.get(entity) != null) components.add(mapper.get(entity));
+        ImmutableArray<Component> entityComponents = entity.getComponents();
+        for (int i = 0; i < entityComponents.size(); i++) {
+            Component component = entityComponents.get(i);
+            if(instance.getMapper(component.getClass()) != null) components.add(component);
         }
 
         return components;
     }
 
+    /**
+     * Same as {@link #getComponents(Entity)}, but fills provided array instead of allocating a new collection
+     *
+     * @param entity to get components of
+     * @param out array to add components to, it is not cleared
+     * @return provided array
+     */
+    public static Array<Component> getComponents(Entity entity, Array<Component> out) {
+        ImmutableArray<Component> entityComponents = entity.getComponents();
+        for (int i = 0; i < entityComponents.size(); i++) {
+            Component component = entityComponents.get(i);
+            if(instance.getMapper(component.getClass()) != null) out.add(component);
+        }
+
+        return out;
+    }
+
     /**
      * This is to add a new mapper type externally, in case of for example implementing the plugin system,
      * where components might be initialized on the fly
      *
      * @param type
      */
-    @SuppressWarnings("unchecked")
-    public static void addMapper(Class type) {
-        self().getMappers().put(type, ComponentMapper.getFor(type));
+    public static void addMapper(Class<? extends Component> type) {
+        instance.add(type, ComponentMapper.getFor(type));
     }
 }
@@ -0,0 +1,382 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Bounding volume hierarchy of axis aligned boxes, in the spirit of Box2D's b2DynamicTree.
+ * Leaves store enlarged ("fat") boxes, so objects moving a little don't need to be reinserted,
+ * and the tree is kept balanced with rotations, so queries are O(log n + result).
+ * Nodes are stored in flat arrays and reused, so moving objects and querying don't allocate.
+ */
+public class DynamicAabbTree<T> {
+
+    public static final int NULL_NODE = -1;
+
+    private final float margin;
+
+    private float[] minX, minY, maxX, maxY;
+    private int[] parent, child1, child2, height;
+    private Object[] userData;
+
+    private int capacity;
+    private int proxyCount;
+    private int freeList;
+    private int root = NULL_NODE;
+
+    private final IntArray stack = new IntArray();
+
+    /**
+     * @param margin how much leaf boxes are enlarged on each side
+     */
+    public DynamicAabbTree(float margin) {
+        this.margin = margin;
+        allocate(16);
+    }
+
+    /**
+     * Inserts new leaf for provided box
+     * @return proxy id that identifies the leaf until it is destroyed
+     */
+    public int createProxy(float x, float y, float w, float h, T data) {
+        int proxyId = allocateNode();
+        minX[proxyId] = x - margin;
+        minY[proxyId] = y - margin;
+        maxX[proxyId] = x + w + margin;
+        maxY[proxyId] = y + h + margin;
+        userData[proxyId] = data;
+        insertLeaf(proxyId);
+        proxyCount++;
+        return proxyId;
+    }
+
+    public void destroyProxy(int proxyId) {
+        removeLeaf(proxyId);
+        freeNode(proxyId);
+        proxyCount--;
+    }
+
+    /**
+     * Updates box of the leaf, reinserting it only if it left its enlarged box
+     * @return true if leaf was reinserted
+     */
+    public boolean moveProxy(int proxyId, float x, float y, float w, float h) {
+        if(minX[proxyId] <= x && minY[proxyId] <= y && maxX[proxyId] >= x + w && maxY[proxyId] >= y + h) {
+            return false;
+        }
+        removeLeaf(proxyId);
+        minX[proxyId] = x - margin;
+        minY[proxyId] = y - margin;
+        maxX[proxyId] = x + w + margin;
+        maxY[proxyId] = y + h + margin;
+        insertLeaf(proxyId);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getUserData(int proxyId) {
+        return (T) userData[proxyId];
+    }
+
+    /**
+     * Adds ids of all leaves whose enlarged boxes overlap provided box to the result, result is not cleared
+     */
+    public void query(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY, IntArray result) {
+        if(root == NULL_NODE) return;
+        stack.clear();
+        stack.add(root);
+        while (stack.size > 0) {
+            int node = stack.pop();
+            if(maxX[node] < queryMinX || minX[node] > queryMaxX || maxY[node] < queryMinY || minY[node] > queryMaxY) {
+                continue;
+            }
+            if(child1[node] == NULL_NODE) {
+                result.add(node);
+            } else {
+                stack.add(child1[node]);
+                stack.add(child2[node]);
+            }
+        }
+    }
+
+    /**
+     * @return number of leaves
+     */
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    /**
+     * @return height of the tree, 0 for empty or single leaf tree
+     */
+    public int getHeight() {
+        return root == NULL_NODE ? 0 : height[root];
+    }
+
+    private void allocate(int newCapacity) {
+        float[] oldMinX = minX, oldMinY = minY, oldMaxX = maxX, oldMaxY = maxY;
+        int[] oldParent = parent, oldChild1 = child1, oldChild2 = child2, oldHeight = height;
+        Object[] oldUserData = userData;
+
+        minX = new float[newCapacity];
+        minY = new float[newCapacity];
+        maxX = new float[newCapacity];
+        maxY = new float[newCapacity];
+        parent = new int[newCapacity];
+        child1 = new int[newCapacity];
+        child2 = new int[newCapacity];
+        height = new int[newCapacity];
+        userData = new Object[newCapacity];
+
+        if(oldMinX != null) {
+            System.arraycopy(oldMinX, 0, minX, 0, capacity);
+            System.arraycopy(oldMinY, 0, minY, 0, capacity);
+            System.arraycopy(oldMaxX, 0, maxX, 0, capacity);
+            System.arraycopy(oldMaxY, 0, maxY, 0, capacity);
+            System.arraycopy(oldParent, 0, parent, 0, capacity);
+            System.arraycopy(oldChild1, 0, child1, 0, capacity);
+            System.arraycopy(oldChild2, 0, child2, 0, capacity);
+            System.arraycopy(oldHeight, 0, height, 0, capacity);
+            System.arraycopy(oldUserData, 0, userData, 0, capacity);
+        }
+
+        // link new nodes into the free list
+        for (int i = capacity; i < newCapacity - 1; i++) {
+            parent[i] = i + 1;
+            height[i] = -1;
+        }
+        parent[newCapacity - 1] = NULL_NODE;
+        height[newCapacity - 1] = -1;
+        freeList = capacity;
+        capacity = newCapacity;
+    }
+
+    private int allocateNode() {
+        if(freeList == NULL_NODE) {
+            allocate(capacity * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        userData[node] = null;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        userData[node] = null;
+        freeList = node;
+    }
+
+    private void insertLeaf(int leaf) {
+        if(root == NULL_NODE) {
+            root = leaf;
+            parent[root] = NULL_NODE;
+            return;
+        }
+
+        // find the best sibling, by perimeter of the resulting boxes
+        float leafMinX = minX[leaf], leafMinY = minY[leaf], leafMaxX = maxX[leaf], leafMaxY = maxY[leaf];
+        int index = root;
+        while (child1[index] != NULL_NODE) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            float area = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+            float combinedArea = perimeter(Math.min(minX[index], leafMinX), Math.min(minY[index], leafMinY),
+                    Math.max(maxX[index], leafMaxX), Math.max(maxY[index], leafMaxY));
+
+            // cost of creating a new parent for this node and the new leaf
+            float cost = 2f * combinedArea;
+            // minimum cost of pushing the leaf further down the tree
+            float inheritanceCost = 2f * (combinedArea - area);
+
+            float cost1 = descendCost(c1, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+            float cost2 = descendCost(c2, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+
+            if(cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+        int sibling = index;
+
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        minX[newParent] = Math.min(leafMinX, minX[sibling]);
+        minY[newParent] = Math.min(leafMinY, minY[sibling]);
+        maxX[newParent] = Math.max(leafMaxX, maxX[sibling]);
+        maxY[newParent] = Math.max(leafMaxY, maxY[sibling]);
+        height[newParent] = height[sibling] + 1;
+
+        if(oldParent != NULL_NODE) {
+            if(child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        fixUpwards(parent[leaf]);
+    }
+
+    private float descendCost(int node, float leafMinX, float leafMinY, float leafMaxX, float leafMaxY) {
+        float combined = perimeter(Math.min(minX[node], leafMinX), Math.min(minY[node], leafMinY),
+                Math.max(maxX[node], leafMaxX), Math.max(maxY[node], leafMaxY));
+        if(child1[node] == NULL_NODE) {
+            return combined;
+        }
+        return combined - perimeter(minX[node], minY[node], maxX[node], maxY[node]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if(leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+
+        int leafParent = parent[leaf];
+        int grandParent = parent[leafParent];
+        int sibling = child1[leafParent] == leaf ? child2[leafParent] : child1[leafParent];
+
+        if(grandParent != NULL_NODE) {
+            // connect sibling to grand parent, and drop the parent
+            if(child1[grandParent] == leafParent) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(leafParent);
+            fixUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(leafParent);
+        }
+        parent[leaf] = NULL_NODE;
+    }
+
+    /**
+     * Walks from provided node to the root, balancing nodes and refitting their boxes and heights
+     */
+    private void fixUpwards(int index) {
+        while (index != NULL_NODE) {
+            index = balance(index);
+
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            minX[index] = Math.min(minX[c1], minX[c2]);
+            minY[index] = Math.min(minY[c1], minY[c2]);
+            maxX[index] = Math.max(maxX[c1], maxX[c2]);
+            maxY[index] = Math.max(maxY[c1], maxY[c2]);
+
+            index = parent[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if node A is imbalanced
+     * @return new root of the subtree
+     */
+    private int balance(int a) {
+        if(child1[a] == NULL_NODE || height[a] < 2) {
+            return a;
+        }
+
+        int b = child1[a];
+        int c = child2[a];
+        int balance = height[c] - height[b];
+
+        if(balance > 1) {
+            return rotate(a, c, b);
+        }
+        if(balance < -1) {
+            return rotate(a, b, c);
+        }
+        return a;
+    }
+
+    /**
+     * Lifts the higher child up in place of A
+     * @param a imbalanced node
+     * @param up its higher child, that takes place of A
+     * @param other its other child
+     */
+    private int rotate(int a, int up, int other) {
+        int f = child1[up];
+        int g = child2[up];
+
+        // swap A and its higher child
+        child1[up] = a;
+        parent[up] = parent[a];
+        parent[a] = up;
+
+        if(parent[up] != NULL_NODE) {
+            if(child1[parent[up]] == a) {
+                child1[parent[up]] = up;
+            } else {
+                child2[parent[up]] = up;
+            }
+        } else {
+            root = up;
+        }
+
+        // keep the higher grand child under the lifted node, move the lower one under A
+        int keep = height[f] > height[g] ? f : g;
+        int move = keep == f ? g : f;
+        child2[up] = keep;
+        if(child1[a] == up) {
+            child1[a] = move;
+        } else {
+            child2[a] = move;
+        }
+        parent[move] = a;
+
+        refit(a);
+        refit(up);
+        return up;
+    }
+
+    private void refit(int node) {
+        int c1 = child1[node];
+        int c2 = child2[node];
+        minX[node] = Math.min(minX[c1], minX[c2]);
+        minY[node] = Math.min(minY[c1], minY[c2]);
+        maxX[node] = Math.max(maxX[c1], maxX[c2]);
+        maxY[node] = Math.max(maxY[c1], maxY[c2]);
+        height[node] = 1 + Math.max(height[c1], height[c2]);
+    }
+
+    private static float perimeter(float minX, float minY, float maxX, float maxY) {
+        return 2f * ((maxX - minX) + (maxY - minY));
+    }
+}
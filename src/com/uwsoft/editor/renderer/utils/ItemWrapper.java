@@ -24,6 +24,7 @@ import com.uwsoft.editor.renderer.components.MainItemComponent;
 import com.uwsoft.editor.renderer.components.NodeComponent;
 import com.uwsoft.editor.renderer.components.ParentNodeComponent;
 import com.uwsoft.editor.renderer.components.ScriptComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
 import com.uwsoft.editor.renderer.scripts.IScript;
 
 import java.util.HashMap;
@@ -33,10 +34,16 @@ import java.util.HashMap;
  */
 public class ItemWrapper {
 
+    private static final ItemWrapper EMPTY = new ItemWrapper();
+
     private Entity entity;
 
     private NodeComponent nodeComponent;
-    private HashMap<String, Entity> childMap = new HashMap<String, Entity>();
+    private SceneIndex sceneIndex;
+    /** Children by identifier, built on first lookup when there is no scene index */
+    private HashMap<String, Entity> childMap;
+    /** Wrappers already returned by {@link #getChild(String)}, reused while they wrap the same child */
+    private HashMap<String, ItemWrapper> childWrappers;
 
     public ItemWrapper() {
         // empty wrapper is better then null pointer
@@ -45,19 +52,46 @@ public class ItemWrapper {
     public ItemWrapper(Entity entity) {
         this.entity = entity;
         nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
-        if(nodeComponent != null) {
-            for (Entity child : nodeComponent.children) {
-                MainItemComponent mainItemComponent = ComponentRetriever.get(child, MainItemComponent.class);
-                childMap.put(mainItemComponent.itemIdentifier, child);
-            }
-        }
+    }
+
+    /**
+     * Wrapper that finds children through scene index instead of going through all children
+     */
+    public ItemWrapper(Entity entity, SceneIndex sceneIndex) {
+        this(entity);
+        this.sceneIndex = sceneIndex;
     }
 
     public ItemWrapper getChild(String id) {
-        Entity entity = childMap.get(id);
-        if(entity == null) return new ItemWrapper();
+        Entity entity = findChild(id);
+        if(entity == null) return EMPTY;
+
+        if(childWrappers == null) childWrappers = new HashMap<String, ItemWrapper>();
+        ItemWrapper wrapper = childWrappers.get(id);
+        if(wrapper == null || wrapper.entity != entity) {
+            wrapper = new ItemWrapper(entity, sceneIndex);
+            childWrappers.put(id, wrapper);
+        }
+        return wrapper;
+    }
+
+    private Entity findChild(String id) {
+        if(nodeComponent == null) return null;
+        if(sceneIndex != null) return sceneIndex.getChild(entity, id);
 
-        return new ItemWrapper(entity);
+        if(childMap == null) {
+            // last child with the id wins
+            childMap = new HashMap<String, Entity>();
+            for (int i = 0; i < nodeComponent.children.size; i++) {
+                putChild(nodeComponent.children.get(i));
+            }
+        }
+        return childMap.get(id);
+    }
+
+    private void putChild(Entity child) {
+        MainItemComponent mainItemComponent = ComponentRetriever.get(child, MainItemComponent.class);
+        childMap.put(mainItemComponent.itemIdentifier, child);
     }
 
     public Component getComponent(Class clazz) {
@@ -68,9 +102,14 @@ public class ItemWrapper {
         if(nodeComponent != null) {
             ParentNodeComponent parentNodeComponent = child.getComponent(ParentNodeComponent.class);
             parentNodeComponent.parentEntity = entity;
-            nodeComponent.children.add(child);
+            nodeComponent.addChild(child);
+            // new parent means new world transform
+            child.getComponent(TransformComponent.class).dirty = true;
+
+            if(sceneIndex != null) sceneIndex.update(child);
+            if(childMap != null) putChild(child);
 
-            return  new ItemWrapper(child);
+            return  new ItemWrapper(child, sceneIndex);
         }
 
         return new ItemWrapper();
@@ -73,9 +73,36 @@ public class LibGdxLoader extends Loader<Sprite> implements Disposable{
 	 */
 	protected void generatePackedSprites(){
 		if(this.packer == null) return;
+		this.disposeNonPackedTextures();
+		this.createPackedSprites();
+	}
+	
+	/**
+	 * Decodes all images and packs them into pixmaps, without creating any textures, so it can be called on a loader thread.
+	 * {@link #finishPacking()} has to be called on the render thread afterwards.
+	 * @param file the previously loaded Spriter SCML file
+	 */
+	public void loadPixmaps(File file){
+		this.pack = true;
+		this.loadResources(file.getParent());
+		for(FileReference ref: this.resources.keySet()){
+			Pixmap pix = this.pixmaps.remove(ref);
+			packer.pack(data.getFile(ref).name, pix);
+			pix.dispose();
+		}
+	}
+	
+	/**
+	 * Uploads pixmaps packed by {@link #loadPixmaps(File)} and creates the sprites. Has to be called on the render thread.
+	 */
+	public void finishPacking(){
+		if(this.packer == null) return;
+		this.createPackedSprites();
+	}
+	
+	private void createPackedSprites(){
 		TextureAtlas tex = this.packer.generateTextureAtlas(TextureFilter.Linear, TextureFilter.Linear, false);
 		Set<FileReference> keys = this.resources.keySet();
-		this.disposeNonPackedTextures();
 		for(FileReference ref: keys){
 			TextureRegion texReg = tex.findRegion(data.getFile(ref).name);
 			texReg.setRegionWidth((int) data.getFile(ref).size.width);
@@ -0,0 +1,227 @@
+/*
+ * ******************************************************************************
+ *  * Copyright 2015 See AUTHORS file.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *   http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  *****************************************************************************
+ */
+
+
+package com.uwsoft.editor.renderer.utils;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+
+/**
+ * Index of entities in engine by item identifier path, tag and library link, kept up to date as entities are added
+ * and removed. Path is made of item identifiers from the scene root separated by "/", e.g. "hud/score/label",
+ * only entities whose identifier and identifiers of all parents are not empty have one.
+ * Queries don't allocate, returned sets are owned by the index and must not be modified.
+ *
+ * Identifiers, tags, library link or parent changed on an entity that is already in engine are not noticed,
+ * call {@link #update(Entity)} after such a change.
+ */
+public class SceneIndex implements EntityListener {
+
+    private static final ObjectSet<Entity> EMPTY = new ObjectSet<Entity>(1);
+
+    private static class Entry {
+        Entity parent;
+        String identifier;
+        String path;
+        String[] tags;
+        String libraryLink;
+    }
+
+    private final IdentityMap<Entity, Entry> entries = new IdentityMap<Entity, Entry>();
+    /** Entities sharing a path or identifier are kept in the order they were added, the last one is returned by lookups */
+    private final ObjectMap<String, Array<Entity>> paths = new ObjectMap<String, Array<Entity>>();
+    private final IdentityMap<Entity, ObjectMap<String, Array<Entity>>> children = new IdentityMap<Entity, ObjectMap<String, Array<Entity>>>();
+    private final ObjectMap<String, ObjectSet<Entity>> tags = new ObjectMap<String, ObjectSet<Entity>>();
+    private final ObjectMap<String, ObjectSet<Entity>> libraryLinks = new ObjectMap<String, ObjectSet<Entity>>();
+
+    private final StringBuilder pathBuilder = new StringBuilder();
+
+    @Override
+    public void entityAdded(Entity entity) {
+        MainItemComponent mainItemComponent = ComponentRetriever.get(entity, MainItemComponent.class);
+        if(mainItemComponent == null) return;
+
+        Entry entry = new Entry();
+        ParentNodeComponent parentNodeComponent = ComponentRetriever.get(entity, ParentNodeComponent.class);
+        entry.parent = parentNodeComponent != null ? parentNodeComponent.parentEntity : null;
+        entry.identifier = mainItemComponent.itemIdentifier;
+        entry.path = buildPath(entity);
+        entry.tags = mainItemComponent.tags;
+        entry.libraryLink = mainItemComponent.libraryLink;
+        entries.put(entity, entry);
+
+        if(entry.parent != null && !isEmpty(entry.identifier)) {
+            ObjectMap<String, Array<Entity>> siblings = children.get(entry.parent);
+            if(siblings == null) {
+                siblings = new ObjectMap<String, Array<Entity>>();
+                children.put(entry.parent, siblings);
+            }
+            addLast(siblings, entry.identifier, entity);
+        }
+        if(entry.path != null) {
+            addLast(paths, entry.path, entity);
+        }
+        if(entry.tags != null) {
+            for (int i = 0; i < entry.tags.length; i++) {
+                add(tags, entry.tags[i], entity);
+            }
+        }
+        add(libraryLinks, entry.libraryLink, entity);
+    }
+
+    @Override
+    public void entityRemoved(Entity entity) {
+        Entry entry = entries.remove(entity);
+        if(entry == null) return;
+
+        if(entry.parent != null && !isEmpty(entry.identifier)) {
+            ObjectMap<String, Array<Entity>> siblings = children.get(entry.parent);
+            if(siblings != null) removeValue(siblings, entry.identifier, entity);
+        }
+        children.remove(entity);
+        if(entry.path != null) {
+            removeValue(paths, entry.path, entity);
+        }
+        if(entry.tags != null) {
+            for (int i = 0; i < entry.tags.length; i++) {
+                remove(tags, entry.tags[i], entity);
+            }
+        }
+        remove(libraryLinks, entry.libraryLink, entity);
+    }
+
+    /**
+     * Indexes entity and all of its children again, must be called after their identifiers, tags, library links
+     * or parent were changed while they were in engine
+     */
+    public void update(Entity entity) {
+        if(entries.containsKey(entity)) {
+            entityRemoved(entity);
+            entityAdded(entity);
+        }
+        NodeComponent nodeComponent = ComponentRetriever.get(entity, NodeComponent.class);
+        if(nodeComponent != null) {
+            for (int i = 0; i < nodeComponent.children.size; i++) {
+                update(nodeComponent.children.get(i));
+            }
+        }
+    }
+
+    /**
+     * @param path item identifiers from scene root separated by "/", e.g. "hud/score/label"
+     * @return entity with provided path, or null. If several entities have the same path, the last added one that is still in engine is returned
+     */
+    public Entity getEntity(String path) {
+        return last(paths.get(path));
+    }
+
+    /**
+     * @return direct child of provided composite with provided item identifier, or null. If several children have the same identifier, the last added one that is still in engine is returned
+     */
+    public Entity getChild(Entity parent, String identifier) {
+        ObjectMap<String, Array<Entity>> siblings = children.get(parent);
+        return siblings != null ? last(siblings.get(identifier)) : null;
+    }
+
+    /**
+     * @return all entities in engine with provided tag, never null
+     */
+    public ObjectSet<Entity> getEntitiesByTag(String tag) {
+        ObjectSet<Entity> entities = tags.get(tag);
+        return entities != null ? entities : EMPTY;
+    }
+
+    /**
+     * @return all entities in engine that are instances of provided library item, never null
+     */
+    public ObjectSet<Entity> getLibraryInstances(String libraryLink) {
+        ObjectSet<Entity> entities = libraryLinks.get(libraryLink);
+        return entities != null ? entities : EMPTY;
+    }
+
+    /**
+     * Path is rebuilt from identifiers of entity and its parents, so it is correct regardless of order entities were added in
+     */
+    private String buildPath(Entity entity) {
+        pathBuilder.setLength(0);
+        Entity current = entity;
+        while (current != null) {
+            ParentNodeComponent parentNodeComponent = ComponentRetriever.get(current, ParentNodeComponent.class);
+            if(parentNodeComponent == null || parentNodeComponent.parentEntity == null) {
+                // scene root has no identifier in path
+                break;
+            }
+            MainItemComponent mainItemComponent = ComponentRetriever.get(current, MainItemComponent.class);
+            if(mainItemComponent == null || isEmpty(mainItemComponent.itemIdentifier)) {
+                return null;
+            }
+            if(pathBuilder.length() > 0) pathBuilder.insert(0, '/');
+            pathBuilder.insert(0, mainItemComponent.itemIdentifier);
+            current = parentNodeComponent.parentEntity;
+        }
+        return pathBuilder.length() > 0 ? pathBuilder.toString() : null;
+    }
+
+    private static void addLast(ObjectMap<String, Array<Entity>> index, String key, Entity entity) {
+        Array<Entity> entities = index.get(key);
+        if(entities == null) {
+            entities = new Array<Entity>(true, 1);
+            index.put(key, entities);
+        }
+        entities.add(entity);
+    }
+
+    private static void removeValue(ObjectMap<String, Array<Entity>> index, String key, Entity entity) {
+        Array<Entity> entities = index.get(key);
+        if(entities == null) return;
+        entities.removeValue(entity, true);
+        if(entities.size == 0) index.remove(key);
+    }
+
+    private static Entity last(Array<Entity> entities) {
+        return entities != null && entities.size > 0 ? entities.peek() : null;
+    }
+
+    private static void add(ObjectMap<String, ObjectSet<Entity>> index, String key, Entity entity) {
+        if(isEmpty(key)) return;
+        ObjectSet<Entity> entities = index.get(key);
+        if(entities == null) {
+            entities = new ObjectSet<Entity>();
+            index.put(key, entities);
+        }
+        entities.add(entity);
+    }
+
+    private static void remove(ObjectMap<String, ObjectSet<Entity>> index, String key, Entity entity) {
+        if(isEmpty(key)) return;
+        ObjectSet<Entity> entities = index.get(key);
+        if(entities != null) entities.remove(entity);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.uwsoft.editor.renderer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Sets up libGDX without a window or GPU, so scene loader and systems can be tested on any machine.
+ * Every GL call is a no-op, only reporting successful shader compilation and complete frame buffers,
+ * so shaders, meshes, textures and RayHandler can still be created.
+ */
+public class HeadlessEnvironment {
+
+    private static boolean initialized = false;
+
+    private HeadlessEnvironment() {
+
+    }
+
+    public static synchronized void init() {
+        if(initialized) return;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // we never render through the application loop
+        config.renderInterval = 1f;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+
+        GL20 gl = createNoopGL();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+
+        initialized = true;
+    }
+
+    private static GL20 createNoopGL() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                Class<?> type = method.getReturnType();
+
+                if(method.getDeclaringClass() == Object.class) {
+                    if(name.equals("equals")) return proxy == args[0];
+                    if(name.equals("hashCode")) return System.identityHashCode(proxy);
+                    return "NoopGL20";
+                }
+
+                if(name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+                    int pname = (Integer) args[1];
+                    IntBuffer params = (IntBuffer) args[2];
+                    params.put(params.position(), pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+                    return null;
+                }
+                if(name.equals("glCheckFramebufferStatus")) {
+                    return GL20.GL_FRAMEBUFFER_COMPLETE;
+                }
+                if(type == int.class) {
+                    // handles of generated objects must not be 0
+                    return name.startsWith("glGen") || name.startsWith("glCreate") ? 1 : 0;
+                }
+                if(type == boolean.class) return false;
+                if(type == float.class) return 0f;
+                if(type == String.class) return "";
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.uwsoft.editor.renderer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.data.CompositeItemVO;
+import com.uwsoft.editor.renderer.data.CompositeVO;
+import com.uwsoft.editor.renderer.data.LabelVO;
+import com.uwsoft.editor.renderer.data.MainItemVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.data.SimpleImageVO;
+
+/**
+ * Checks that a swapped in scene has its children in the same order as the scene loaded directly,
+ * though some of them are created on the worker and some during the swap
+ */
+public class PreparedSceneTest {
+
+	private static final String SCENE = "level";
+
+	private StubResources rm;
+
+	@Before
+	public void setUp() {
+		HeadlessEnvironment.init();
+
+		SceneVO sceneVO = new SceneVO();
+		sceneVO.sceneName = SCENE;
+		sceneVO.composite = createComposite("");
+
+		CompositeItemVO child = new CompositeItemVO();
+		child.itemIdentifier = "child";
+		child.composite = createComposite("child.");
+		sceneVO.composite.sComposites.add(child);
+
+		rm = new StubResources(sceneVO);
+		rm.scheduleScene(SCENE);
+		rm.prepareAssetsToLoad();
+		rm.loadAssets();
+	}
+
+	/**
+	 * Images are created on the worker, labels during the swap, and both kinds come before and after each other in item data order
+	 */
+	private CompositeVO createComposite(String prefix) {
+		CompositeVO composite = new CompositeVO();
+		for (int i = 0; i < 2; i++) {
+			SimpleImageVO image = new SimpleImageVO();
+			image.imageName = "image";
+			composite.sImages.add(identify(image, prefix + "image" + i));
+		}
+		for (int i = 0; i < 2; i++) {
+			LabelVO label = new LabelVO();
+			label.style = "font";
+			label.size = 12;
+			composite.sLabels.add(identify(label, prefix + "label" + i));
+		}
+		return composite;
+	}
+
+	private <T extends MainItemVO> T identify(T vo, String identifier) {
+		vo.itemIdentifier = identifier;
+		return vo;
+	}
+
+	private ArrayList<String> getChildOrder(Entity parent) {
+		ArrayList<String> order = new ArrayList<String>();
+		NodeComponent nodeComponent = parent.getComponent(NodeComponent.class);
+		for (int i = 0; i < nodeComponent.children.size; i++) {
+			Entity child = nodeComponent.children.get(i);
+			order.add(child.getComponent(MainItemComponent.class).itemIdentifier);
+			if(child.getComponent(NodeComponent.class) != null) order.addAll(getChildOrder(child));
+		}
+		return order;
+	}
+
+	@Test
+	public void swappedSceneHasChildrenInLoadOrder() {
+		SceneLoader loaded = new SceneLoader(rm);
+		loaded.loadScene(SCENE, new FitViewport(800, 450, new OrthographicCamera()));
+		ArrayList<String> expected = getChildOrder(loaded.getRoot());
+
+		SceneLoader swapped = new SceneLoader(rm);
+		PreparedScene prepared = swapped.prepareScene(SCENE, new FitViewport(800, 450, new OrthographicCamera()));
+		swapped.swapScene(prepared);
+
+		assertEquals(expected, getChildOrder(swapped.getRoot()));
+	}
+
+	@Test
+	public void leavesViewportAsItIsUntilSwap() {
+		SceneLoader sceneLoader = new SceneLoader(rm);
+		OrthographicCamera camera = new OrthographicCamera();
+		camera.position.set(1, 1, 0);
+		PreparedScene prepared = sceneLoader.prepareScene(SCENE, new FitViewport(800, 450, camera));
+		prepared.finish();
+		assertEquals(1, camera.position.x, 0);
+
+		sceneLoader.swapScene(prepared);
+		// viewport update centers the camera
+		assertEquals(400, camera.position.x, 0);
+	}
+}
@@ -0,0 +1,134 @@
+package com.uwsoft.editor.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.uwsoft.editor.renderer.components.label.LabelComponent;
+import com.uwsoft.editor.renderer.data.CompositeVO;
+import com.uwsoft.editor.renderer.data.LabelVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.resources.FontSizePair;
+
+/**
+ * Streams a scene with labels of different fonts far apart, and checks that fonts are loaded and unloaded with their chunks
+ */
+public class SceneStreamerTest {
+
+	private static final String SCENE = "world";
+	private static final FontSizePair NEAR_FONT = new FontSizePair("near", 12);
+	private static final FontSizePair FAR_FONT = new FontSizePair("far", 12);
+
+	private StubResources rm;
+	private SceneLoader sceneLoader;
+	private OrthographicCamera camera;
+
+	@Before
+	public void setUp() {
+		HeadlessEnvironment.init();
+
+		SceneVO sceneVO = new SceneVO();
+		sceneVO.sceneName = SCENE;
+		sceneVO.composite = new CompositeVO();
+		sceneVO.composite.sLabels.add(createLabel(NEAR_FONT, 100, 100));
+		sceneVO.composite.sLabels.add(createLabel(FAR_FONT, 10000, 100));
+
+		// the way initScene and initAllResources load a scene, with all of its assets
+		rm = new StubResources(sceneVO);
+		rm.scheduleScene(SCENE);
+		rm.prepareAssetsToLoad();
+		rm.loadAssets();
+
+		sceneLoader = new SceneLoader(rm);
+		camera = new OrthographicCamera();
+	}
+
+	private LabelVO createLabel(FontSizePair font, float x, float y) {
+		LabelVO labelVO = new LabelVO();
+		labelVO.style = font.fontName;
+		labelVO.size = font.fontSize;
+		labelVO.x = x;
+		labelVO.y = y;
+		labelVO.width = 100;
+		labelVO.height = 20;
+		return labelVO;
+	}
+
+	private void lookAt(float x, float y) {
+		camera.position.set(x, y, 0);
+		sceneLoader.getEngine().update(0.016f);
+	}
+
+	private int getLabelCount() {
+		return sceneLoader.getEngine().getEntitiesFor(Family.all(LabelComponent.class).get()).size();
+	}
+
+	@Test
+	public void loadsAssetsOfChunksAroundCameraOnly() {
+		assertTrue(rm.isLoaded(NEAR_FONT));
+		assertTrue(rm.isLoaded(FAR_FONT));
+
+		SceneStreamer streamer = sceneLoader.loadSceneStreamed(SCENE, new FitViewport(800, 450, camera), 1000);
+		lookAt(400, 225);
+		assertEquals(2, streamer.getChunkCount());
+		assertEquals(1, streamer.getLoadedChunkCount());
+		assertEquals(1, getLabelCount());
+		assertTrue(rm.isLoaded(NEAR_FONT));
+		assertFalse(rm.isLoaded(FAR_FONT));
+		assertEquals(1, rm.getDisposedFontCount());
+
+		lookAt(10000, 225);
+		assertEquals(1, streamer.getLoadedChunkCount());
+		assertEquals(1, getLabelCount());
+		assertFalse(rm.isLoaded(NEAR_FONT));
+		assertTrue(rm.isLoaded(FAR_FONT));
+		assertEquals(2, rm.getDisposedFontCount());
+
+		// font generated again when chunk comes back, the unloaded one stays disposed
+		lookAt(400, 225);
+		assertTrue(rm.isLoaded(NEAR_FONT));
+		assertEquals(3, rm.getDisposedFontCount());
+	}
+
+	@Test
+	public void loadsItemsReachingIntoViewFromFarChunks() {
+		// starts five chunks away, but is wide enough to cover the view
+		LabelVO wideLabel = createLabel(NEAR_FONT, -5000, 100);
+		wideLabel.width = 6000;
+		SceneVO sceneVO = new SceneVO();
+		sceneVO.sceneName = "wide";
+		sceneVO.composite = new CompositeVO();
+		sceneVO.composite.sLabels.add(wideLabel);
+		rm.addScene(sceneVO);
+
+		SceneStreamer streamer = sceneLoader.loadSceneStreamed("wide", new FitViewport(800, 450, camera), 1000);
+		lookAt(400, 225);
+		assertEquals(1, streamer.getLoadedChunkCount());
+		assertEquals(1, getLabelCount());
+
+		lookAt(10000, 225);
+		assertEquals(0, streamer.getLoadedChunkCount());
+	}
+
+	@Test
+	public void releasesAssetsWhenSceneIsCleared() {
+		sceneLoader.loadSceneStreamed(SCENE, new FitViewport(800, 450, camera), 1000);
+		lookAt(400, 225);
+		assertTrue(rm.isLoaded(NEAR_FONT));
+
+		SceneVO emptyScene = new SceneVO();
+		emptyScene.sceneName = "empty";
+		emptyScene.composite = new CompositeVO();
+		rm.addScene(emptyScene);
+		sceneLoader.loadScene("empty", new FitViewport(800, 450, camera));
+		assertEquals(null, sceneLoader.getSceneStreamer());
+		assertFalse(rm.isLoaded(NEAR_FONT));
+		assertFalse(rm.isLoaded(FAR_FONT));
+	}
+}
@@ -0,0 +1,53 @@
+package com.uwsoft.editor.renderer;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.uwsoft.editor.renderer.data.ProjectInfoVO;
+import com.uwsoft.editor.renderer.data.SceneVO;
+import com.uwsoft.editor.renderer.resources.FontSizePair;
+import com.uwsoft.editor.renderer.resources.ResourceManager;
+
+/**
+ * Resource manager with scene data made in memory, that creates fonts instead of generating them from files,
+ * and has an empty texture region for every image
+ */
+class StubResources extends ResourceManager {
+	private final TextureRegion region = new TextureRegion();
+	private int disposedFontCount;
+
+	StubResources(SceneVO sceneVO) {
+		projectVO = new ProjectInfoVO();
+		addScene(sceneVO);
+	}
+
+	void addScene(SceneVO sceneVO) {
+		loadedSceneVOs.put(sceneVO.sceneName, sceneVO);
+	}
+
+	@Override
+	public void loadFont(FontSizePair pair) {
+		bitmapFonts.put(pair, new BitmapFont() {
+			@Override
+			public void dispose() {
+				super.dispose();
+				disposedFontCount++;
+			}
+		});
+	}
+
+	@Override
+	public TextureRegion getTextureRegion(String name) {
+		return region;
+	}
+
+	boolean isLoaded(FontSizePair pair) {
+		return bitmapFonts.containsKey(pair);
+	}
+
+	/**
+	 * @return number of loaded fonts that were disposed since
+	 */
+	int getDisposedFontCount() {
+		return disposedFontCount;
+	}
+}
@@ -0,0 +1,86 @@
+package com.uwsoft.editor.renderer.systems;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.uwsoft.editor.renderer.HeadlessEnvironment;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+import com.uwsoft.editor.renderer.components.ViewPortComponent;
+import com.uwsoft.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+
+/**
+ * Checks that animation LOD is opt-in, and that enabled it skips entities far from the view without losing their time.
+ */
+public class AnimationLodSystemTest {
+
+	private Engine engine;
+	private AnimationLodSystem lodSystem;
+	private Entity far;
+
+	@Before
+	public void setUp() {
+		HeadlessEnvironment.init();
+
+		engine = new Engine();
+		lodSystem = new AnimationLodSystem();
+		engine.addSystem(lodSystem);
+
+		OrthographicCamera camera = new OrthographicCamera(100, 100);
+		camera.position.set(50, 50, 0);
+		camera.update();
+		ScreenViewport viewport = new ScreenViewport(camera);
+		Entity view = new Entity();
+		ViewPortComponent viewPortComponent = new ViewPortComponent();
+		viewPortComponent.viewPort = viewport;
+		view.add(viewPortComponent);
+		engine.addEntity(view);
+
+		far = new Entity();
+		far.add(new SpriteAnimationStateComponent());
+		TransformComponent transformComponent = new TransformComponent();
+		transformComponent.x = 10000;
+		far.add(transformComponent);
+		DimensionsComponent dimensionsComponent = new DimensionsComponent();
+		dimensionsComponent.width = 10;
+		dimensionsComponent.height = 10;
+		far.add(dimensionsComponent);
+		far.add(new BoundingBoxComponent());
+		engine.addEntity(far);
+	}
+
+	@Test
+	public void advancesEveryFrameUntilEnabled() {
+		for (int i = 0; i < 20; i++) {
+			engine.update(0.5f);
+			assertEquals(0.5f, AnimationLodSystem.advance(far, 0.5f), 0);
+		}
+	}
+
+	@Test
+	public void skipsFarEntitiesWhenEnabled() {
+		lodSystem.setEnabled(true);
+		float advanced = 0;
+		int skipped = 0;
+		for (int i = 0; i < 30; i++) {
+			engine.update(0.5f);
+			float delta = AnimationLodSystem.advance(far, 0.5f);
+			if(delta == AnimationLodSystem.SKIP) skipped++;
+			else advanced += delta;
+		}
+		assertEquals(28, skipped);
+		assertEquals(15f, advanced, 0.001f);
+		assertEquals(1, lodSystem.getTierCount(AnimationLodSystem.TIER_FAR));
+
+		lodSystem.setEnabled(false);
+		engine.update(0.5f);
+		assertEquals(0.5f, AnimationLodSystem.advance(far, 0.5f), 0);
+	}
+}
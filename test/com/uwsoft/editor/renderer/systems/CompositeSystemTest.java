@@ -0,0 +1,219 @@
+package com.uwsoft.editor.renderer.systems;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+
+/**
+ * Checks dimensions kept by CompositeSystem against full recalculation of every composite, over random changes of random trees.
+ */
+public class CompositeSystemTest {
+
+	private Engine engine;
+	private CompositeSystem compositeSystem;
+	private Random random;
+
+	private Entity root;
+	private ArrayList<Entity> composites;
+	private ArrayList<Entity> children;
+
+	@Before
+	public void setUp() {
+		engine = new Engine();
+		engine.addSystem(new TransformSystem());
+		compositeSystem = new CompositeSystem();
+		engine.addSystem(compositeSystem);
+		random = new Random(7);
+
+		composites = new ArrayList<Entity>();
+		children = new ArrayList<Entity>();
+		root = createComposite(null);
+		for (int i = 0; i < 20; i++) {
+			Entity composite = createComposite(composites.get(random.nextInt(composites.size())));
+			for (int j = 0; j < 5; j++) createLeaf(composite);
+		}
+		for (int i = 0; i < 50; i++) {
+			createLeaf(composites.get(random.nextInt(composites.size())));
+		}
+	}
+
+	@Test
+	public void matchesFullRecalculationAfterRandomChanges() {
+		for (int iteration = 0; iteration < 500; iteration++) {
+			int changes = random.nextInt(4);
+			for (int i = 0; i < changes; i++) {
+				changeRandomly();
+			}
+			engine.update(0.016f);
+
+			for (Entity composite : composites) {
+				DimensionsComponent expected = recalculate(composite);
+				DimensionsComponent actual = composite.getComponent(DimensionsComponent.class);
+				assertEquals("width at iteration " + iteration, expected.width, actual.width, 0);
+				assertEquals("height at iteration " + iteration, expected.height, actual.height, 0);
+			}
+		}
+	}
+
+	@Test
+	public void recalculatesNothingWhenNothingChanged() {
+		engine.update(0.016f);
+		engine.update(0.016f);
+		assertEquals(0, compositeSystem.getRecalculatedCount());
+	}
+
+	@Test
+	public void recalculatesOnlyAncestorsOfChangedChild() {
+		engine.update(0.016f);
+
+		Entity leaf = children.get(children.size() - 1);
+		leaf.getComponent(TransformComponent.class).x += 1000;
+		engine.update(0.016f);
+
+		int depth = 0;
+		for (Entity parent = leaf.getComponent(ParentNodeComponent.class).parentEntity; parent != null; depth++) {
+			ParentNodeComponent parentNodeComponent = parent.getComponent(ParentNodeComponent.class);
+			parent = parentNodeComponent == null ? null : parentNodeComponent.parentEntity;
+		}
+		assertEquals(depth, compositeSystem.getRecalculatedCount());
+	}
+
+	private void changeRandomly() {
+		Entity entity = children.get(random.nextInt(children.size()));
+		switch (random.nextInt(6)) {
+			case 0:
+				entity.getComponent(TransformComponent.class).x = random.nextFloat() * 400 - 100;
+				break;
+			case 1:
+				entity.getComponent(TransformComponent.class).y = random.nextFloat() * 400 - 100;
+				break;
+			case 2:
+				entity.getComponent(TransformComponent.class).scaleX = random.nextFloat() * 4 - 1;
+				break;
+			case 3:
+				if(entity.getComponent(NodeComponent.class) == null) {
+					entity.getComponent(DimensionsComponent.class).width = random.nextFloat() * 100;
+				}
+				break;
+			case 4:
+				createLeaf(composites.get(random.nextInt(composites.size())));
+				break;
+			case 5:
+				remove(entity);
+				break;
+		}
+	}
+
+	private Entity createComposite(Entity parent) {
+		Entity entity = createEntity(parent);
+		entity.add(new NodeComponent());
+		entity.add(new CompositeTransformComponent());
+		composites.add(entity);
+		return entity;
+	}
+
+	private Entity createLeaf(Entity parent) {
+		Entity entity = createEntity(parent);
+		DimensionsComponent dimensionsComponent = entity.getComponent(DimensionsComponent.class);
+		dimensionsComponent.width = random.nextFloat() * 100;
+		dimensionsComponent.height = random.nextFloat() * 100;
+		return entity;
+	}
+
+	private Entity createEntity(Entity parent) {
+		Entity entity = new Entity();
+		entity.add(new MainItemComponent());
+		TransformComponent transformComponent = new TransformComponent();
+		transformComponent.x = random.nextFloat() * 300;
+		transformComponent.y = random.nextFloat() * 300;
+		entity.add(transformComponent);
+		entity.add(new DimensionsComponent());
+		if(parent != null) {
+			ParentNodeComponent parentNodeComponent = new ParentNodeComponent();
+			parentNodeComponent.parentEntity = parent;
+			entity.add(parentNodeComponent);
+			parent.getComponent(NodeComponent.class).addChild(entity);
+			children.add(entity);
+		}
+		engine.addEntity(entity);
+		return entity;
+	}
+
+	private void remove(Entity entity) {
+		ParentNodeComponent parentNodeComponent = entity.getComponent(ParentNodeComponent.class);
+		parentNodeComponent.parentEntity.getComponent(NodeComponent.class).removeChild(entity);
+		removeSubtree(entity);
+	}
+
+	private void removeSubtree(Entity entity) {
+		NodeComponent nodeComponent = entity.getComponent(NodeComponent.class);
+		if(nodeComponent != null) {
+			for (Entity child : nodeComponent.children) removeSubtree(child);
+			composites.remove(entity);
+		}
+		children.remove(entity);
+		engine.removeEntity(entity);
+	}
+
+	/**
+	 * Dimensions the composite had with every composite below recalculated from scratch, the way CompositeSystem recalculates one
+	 */
+	private DimensionsComponent recalculate(Entity composite) {
+		float lowerX = 0, lowerY = 0, upperX = 0, upperY = 0;
+		NodeComponent nodeComponent = composite.getComponent(NodeComponent.class);
+		for (int i = 0; i < nodeComponent.children.size; i++) {
+			Entity child = nodeComponent.children.get(i);
+			TransformComponent transform = child.getComponent(TransformComponent.class);
+			DimensionsComponent dimensions = child.getComponent(NodeComponent.class) != null ? recalculate(child) : child.getComponent(DimensionsComponent.class);
+			float scaledWidth = dimensions.width * transform.scaleX;
+			float scaledHeight = dimensions.height * transform.scaleY;
+			if (i == 0) {
+				if (transform.scaleX > 0 && scaledWidth > 0) {
+					lowerX = transform.x;
+					upperX = transform.x + scaledWidth;
+				} else {
+					upperX = transform.x;
+					lowerX = transform.x + scaledWidth;
+				}
+				if (transform.scaleY > 0 && scaledHeight > 0) {
+					lowerY = transform.y;
+					upperY = transform.y + scaledHeight;
+				} else {
+					upperY = transform.y;
+					lowerY = transform.y + scaledHeight;
+				}
+			}
+			if (transform.scaleX > 0 && dimensions.width > 0) {
+				if (lowerX > transform.x) lowerX = transform.x;
+				if (upperX < transform.x + scaledWidth) upperX = transform.x + scaledWidth;
+			} else {
+				if (upperX < transform.x) upperX = transform.x;
+				if (lowerX > transform.x + scaledWidth) lowerX = transform.x + scaledWidth;
+			}
+			if (transform.scaleY > 0 && scaledHeight > 0) {
+				if (lowerY > transform.y) lowerY = transform.y;
+				if (upperY < transform.y + scaledHeight) upperY = transform.y + scaledHeight;
+			} else {
+				if (upperY < transform.y) upperY = transform.y;
+				if (lowerY > transform.y + scaledHeight) lowerY = transform.y + scaledHeight;
+			}
+		}
+		DimensionsComponent result = new DimensionsComponent();
+		result.width = upperX;
+		result.height = upperY;
+		return result;
+	}
+}
@@ -0,0 +1,100 @@
+package com.uwsoft.editor.renderer.systems;
+
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.LayerMapComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ZIndexComponent;
+import com.uwsoft.editor.renderer.data.LayerItemVO;
+
+/**
+ * Checks that LayerSystem re-sorts children after changes made through setters, and directly to the layer list.
+ */
+public class LayerSystemTest {
+
+	private Engine engine;
+	private LayerMapComponent layerMap;
+	private NodeComponent node;
+	private Entity bottom;
+	private Entity top;
+
+	@Before
+	public void setUp() {
+		engine = new Engine();
+		engine.addSystem(new LayerSystem());
+
+		Entity composite = new Entity();
+		composite.add(new CompositeTransformComponent());
+		layerMap = new LayerMapComponent();
+		layerMap.layers.add(new LayerItemVO("Bottom"));
+		layerMap.layers.add(new LayerItemVO("Top"));
+		composite.add(layerMap);
+		node = new NodeComponent();
+		composite.add(node);
+		engine.addEntity(composite);
+
+		top = createChild("Top", 0);
+		bottom = createChild("Bottom", 0);
+		engine.update(0.016f);
+	}
+
+	private Entity createChild(String layerName, int zIndex) {
+		Entity entity = new Entity();
+		ZIndexComponent zIndexComponent = new ZIndexComponent();
+		zIndexComponent.setLayerName(layerName);
+		zIndexComponent.applyZIndex(zIndex);
+		entity.add(zIndexComponent);
+		node.addChild(entity);
+		return entity;
+	}
+
+	private void assertOrder(Entity first, Entity second) {
+		assertSame(first, node.children.get(0));
+		assertSame(second, node.children.get(1));
+	}
+
+	@Test
+	public void sortsChildrenByLayer() {
+		assertOrder(bottom, top);
+	}
+
+	@Test
+	public void resortsAfterLayerNameIsSet() {
+		top.getComponent(ZIndexComponent.class).setLayerName("Bottom");
+		bottom.getComponent(ZIndexComponent.class).setLayerName("Top");
+		engine.update(0.016f);
+		assertOrder(top, bottom);
+	}
+
+	@Test
+	public void resortsAfterLayersAreRenamedInPlace() {
+		layerMap.layers.get(0).layerName = "Top";
+		layerMap.layers.get(1).layerName = "Bottom";
+		engine.update(0.016f);
+		assertOrder(top, bottom);
+	}
+
+	@Test
+	public void resortsAfterLayersAreSwappedInPlace() {
+		LayerItemVO first = layerMap.layers.get(0);
+		layerMap.layers.set(0, layerMap.layers.get(1));
+		layerMap.layers.set(1, first);
+		engine.update(0.016f);
+		assertOrder(top, bottom);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void resortsAfterDeprecatedLayerNameIsAssigned() {
+		top.getComponent(ZIndexComponent.class).layerName = "Bottom";
+		bottom.getComponent(ZIndexComponent.class).layerName = "Top";
+		engine.update(0.016f);
+		assertOrder(top, bottom);
+	}
+}
@@ -0,0 +1,262 @@
+package com.uwsoft.editor.renderer.systems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.uwsoft.editor.renderer.components.BoundingBoxComponent;
+import com.uwsoft.editor.renderer.components.CompositeTransformComponent;
+import com.uwsoft.editor.renderer.components.DimensionsComponent;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+import com.uwsoft.editor.renderer.components.TransformComponent;
+
+/**
+ * Checks SpatialIndexSystem region and point queries against brute force over all leaves, over random changes of random trees.
+ */
+public class SpatialIndexSystemTest {
+
+	private Engine engine;
+	private SpatialIndexSystem spatialIndex;
+	private Random random;
+
+	private Entity root;
+	private ArrayList<Entity> composites;
+	private ArrayList<Entity> leaves;
+
+	@Before
+	public void setUp() {
+		engine = new Engine();
+		engine.addSystem(new TransformSystem());
+		spatialIndex = new SpatialIndexSystem();
+		engine.addSystem(spatialIndex);
+		random = new Random(5);
+
+		composites = new ArrayList<Entity>();
+		leaves = new ArrayList<Entity>();
+		root = createComposite(null);
+		for (int i = 0; i < 10; i++) {
+			createComposite(composites.get(random.nextInt(composites.size())));
+		}
+		for (int i = 0; i < 100; i++) {
+			createLeaf(composites.get(random.nextInt(composites.size())));
+		}
+	}
+
+	@Test
+	public void matchesBruteForceAfterRandomChanges() {
+		Array<Entity> result = new Array<Entity>();
+		for (int iteration = 0; iteration < 300; iteration++) {
+			int changes = random.nextInt(5);
+			for (int i = 0; i < changes; i++) {
+				changeRandomly();
+			}
+			engine.update(0.016f);
+
+			assertEquals(leaves.size(), spatialIndex.getIndexedCount());
+
+			Rectangle rect = new Rectangle(random.nextFloat() * 600 - 100, random.nextFloat() * 600 - 100, random.nextFloat() * 200, random.nextFloat() * 200);
+			assertEquals("rect at iteration " + iteration, bruteForceRect(rect), toSet(spatialIndex.queryRect(rect, result)));
+
+			for (int i = 0; i < 10; i++) {
+				float x = random.nextFloat() * 600 - 100, y = random.nextFloat() * 600 - 100;
+				assertEquals("point at iteration " + iteration, bruteForcePoint(x, y), toSet(spatialIndex.queryPoint(x, y, result)));
+			}
+		}
+	}
+
+	@Test
+	public void picksTopMostLeafAndNeverComposites() {
+		Entity composite = createComposite(root);
+		Entity bottom = createLeaf(composite);
+		Entity top = createLeaf(composite);
+		for (Entity entity : new Entity[]{root, composite, bottom, top}) {
+			TransformComponent transformComponent = entity.getComponent(TransformComponent.class);
+			transformComponent.x = transformComponent.y = transformComponent.rotation = 0;
+			transformComponent.scaleX = transformComponent.scaleY = 1;
+		}
+		for (Entity leaf : new Entity[]{bottom, top}) {
+			leaf.getComponent(DimensionsComponent.class).width = 10;
+			leaf.getComponent(DimensionsComponent.class).height = 10;
+		}
+		composite.getComponent(TransformComponent.class).x = -1000;
+		composite.getComponent(TransformComponent.class).y = -1000;
+		engine.update(0.016f);
+
+		assertSame(top, spatialIndex.pick(-995, -995));
+
+		top.getComponent(MainItemComponent.class).visible = false;
+		assertSame(bottom, spatialIndex.pick(-995, -995));
+
+		composite.getComponent(MainItemComponent.class).visible = false;
+		assertNull(spatialIndex.pick(-995, -995));
+	}
+
+	private void changeRandomly() {
+		switch (random.nextInt(6)) {
+			case 0: {
+				Entity leaf = leaves.get(random.nextInt(leaves.size()));
+				TransformComponent transformComponent = leaf.getComponent(TransformComponent.class);
+				transformComponent.x += random.nextFloat() * 20 - 10;
+				transformComponent.rotation = random.nextFloat() * 360;
+				break;
+			}
+			case 1: {
+				Entity composite = composites.get(random.nextInt(composites.size()));
+				TransformComponent transformComponent = composite.getComponent(TransformComponent.class);
+				transformComponent.x = random.nextFloat() * 300;
+				transformComponent.scaleY = random.nextFloat() * 2 + 0.5f;
+				break;
+			}
+			case 2: {
+				Entity leaf = leaves.get(random.nextInt(leaves.size()));
+				leaf.getComponent(DimensionsComponent.class).width = random.nextFloat() * 50;
+				break;
+			}
+			case 3: {
+				Entity entity = random.nextBoolean() ? leaves.get(random.nextInt(leaves.size())) : composites.get(random.nextInt(composites.size()));
+				MainItemComponent mainItemComponent = entity.getComponent(MainItemComponent.class);
+				mainItemComponent.visible = !mainItemComponent.visible;
+				break;
+			}
+			case 4:
+				createLeaf(composites.get(random.nextInt(composites.size())));
+				break;
+			case 5: {
+				Entity leaf = leaves.remove(random.nextInt(leaves.size()));
+				leaf.getComponent(ParentNodeComponent.class).parentEntity.getComponent(NodeComponent.class).removeChild(leaf);
+				engine.removeEntity(leaf);
+				break;
+			}
+		}
+	}
+
+	private HashSet<Entity> bruteForceRect(Rectangle rect) {
+		HashSet<Entity> expected = new HashSet<Entity>();
+		Vector2 point = new Vector2();
+		for (Entity leaf : leaves) {
+			if(!isVisible(leaf)) continue;
+			Affine2 world = getWorld(leaf);
+			DimensionsComponent dimensionsComponent = leaf.getComponent(DimensionsComponent.class);
+			float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+			for (int i = 0; i < 4; i++) {
+				world.applyTo(point.set(i == 1 || i == 2 ? dimensionsComponent.width : 0, i >= 2 ? dimensionsComponent.height : 0));
+				minX = Math.min(minX, point.x);
+				minY = Math.min(minY, point.y);
+				maxX = Math.max(maxX, point.x);
+				maxY = Math.max(maxY, point.y);
+			}
+			if(new Rectangle(minX, minY, maxX - minX, maxY - minY).overlaps(rect)) expected.add(leaf);
+		}
+		return expected;
+	}
+
+	private HashSet<Entity> bruteForcePoint(float x, float y) {
+		HashSet<Entity> expected = new HashSet<Entity>();
+		Vector2 point = new Vector2();
+		for (Entity leaf : leaves) {
+			if(!isVisible(leaf)) continue;
+			Affine2 world = getWorld(leaf);
+			if(world.det() == 0) continue;
+			world.inv().applyTo(point.set(x, y));
+			if(leaf.getComponent(DimensionsComponent.class).hit(point.x, point.y)) expected.add(leaf);
+		}
+		return expected;
+	}
+
+	/**
+	 * World transform of entity local space, composed from scratch through all of its parents
+	 */
+	private Affine2 getWorld(Entity entity) {
+		TransformComponent transformComponent = entity.getComponent(TransformComponent.class);
+		Affine2 local = new Affine2()
+				.translate(transformComponent.x + transformComponent.originX, transformComponent.y + transformComponent.originY)
+				.rotate(transformComponent.rotation)
+				.scale(transformComponent.scaleX, transformComponent.scaleY)
+				.translate(-transformComponent.originX, -transformComponent.originY);
+		ParentNodeComponent parentNodeComponent = entity.getComponent(ParentNodeComponent.class);
+		if(parentNodeComponent == null) return local;
+
+		Entity parent = parentNodeComponent.parentEntity;
+		TransformComponent parentTransform = parent.getComponent(TransformComponent.class);
+		// composites are transformed without origin
+		Affine2 parentLocal = new Affine2().setToTrnRotScl(parentTransform.x, parentTransform.y, parentTransform.rotation, parentTransform.scaleX, parentTransform.scaleY);
+		ParentNodeComponent grandParentNode = parent.getComponent(ParentNodeComponent.class);
+		while (grandParentNode != null) {
+			TransformComponent grandParentTransform = grandParentNode.parentEntity.getComponent(TransformComponent.class);
+			parentLocal.preMul(new Affine2().setToTrnRotScl(grandParentTransform.x, grandParentTransform.y, grandParentTransform.rotation, grandParentTransform.scaleX, grandParentTransform.scaleY));
+			grandParentNode = grandParentNode.parentEntity.getComponent(ParentNodeComponent.class);
+		}
+		return parentLocal.mul(local);
+	}
+
+	private boolean isVisible(Entity entity) {
+		for (Entity current = entity; current != null; ) {
+			if(!current.getComponent(MainItemComponent.class).visible) return false;
+			ParentNodeComponent parentNodeComponent = current.getComponent(ParentNodeComponent.class);
+			current = parentNodeComponent != null ? parentNodeComponent.parentEntity : null;
+		}
+		return true;
+	}
+
+	private HashSet<Entity> toSet(Array<Entity> entities) {
+		HashSet<Entity> set = new HashSet<Entity>();
+		for (Entity entity : entities) set.add(entity);
+		return set;
+	}
+
+	private Entity createComposite(Entity parent) {
+		Entity entity = createEntity(parent);
+		entity.add(new NodeComponent());
+		entity.add(new CompositeTransformComponent());
+		composites.add(entity);
+		return entity;
+	}
+
+	private Entity createLeaf(Entity parent) {
+		Entity entity = createEntity(parent);
+		DimensionsComponent dimensionsComponent = entity.getComponent(DimensionsComponent.class);
+		dimensionsComponent.width = random.nextFloat() * 50;
+		dimensionsComponent.height = random.nextFloat() * 50;
+		TransformComponent transformComponent = entity.getComponent(TransformComponent.class);
+		transformComponent.originX = dimensionsComponent.width / 2;
+		transformComponent.originY = dimensionsComponent.height / 2;
+		leaves.add(entity);
+		return entity;
+	}
+
+	private Entity createEntity(Entity parent) {
+		Entity entity = new Entity();
+		entity.add(new MainItemComponent());
+		TransformComponent transformComponent = new TransformComponent();
+		transformComponent.x = random.nextFloat() * 300;
+		transformComponent.y = random.nextFloat() * 300;
+		transformComponent.rotation = random.nextFloat() * 360;
+		transformComponent.scaleX = random.nextFloat() * 2 + 0.5f;
+		entity.add(transformComponent);
+		entity.add(new DimensionsComponent());
+		entity.add(new BoundingBoxComponent());
+		if(parent != null) {
+			ParentNodeComponent parentNodeComponent = new ParentNodeComponent();
+			parentNodeComponent.parentEntity = parent;
+			entity.add(parentNodeComponent);
+			parent.getComponent(NodeComponent.class).addChild(entity);
+		}
+		engine.addEntity(entity);
+		return entity;
+	}
+}
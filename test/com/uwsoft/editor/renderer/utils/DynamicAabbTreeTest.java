@@ -0,0 +1,115 @@
+package com.uwsoft.editor.renderer.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Checks DynamicAabbTree queries against brute force over all enlarged boxes, over random inserts, removals and moves,
+ * and that the tree stays balanced for inserts in the worst (sorted) order.
+ */
+public class DynamicAabbTreeTest {
+
+	private static final float MARGIN = 0.5f;
+
+	private Random random = new Random(11);
+	private DynamicAabbTree<Integer> tree = new DynamicAabbTree<Integer>(MARGIN);
+	/** Enlarged box of every live proxy, as the tree should keep it */
+	private HashMap<Integer, Rectangle> fatBoxes = new HashMap<Integer, Rectangle>();
+	private ArrayList<Integer> proxies = new ArrayList<Integer>();
+	private int created;
+
+	@Test
+	public void matchesBruteForceAfterRandomChanges() {
+		for (int iteration = 0; iteration < 2000; iteration++) {
+			int operation = proxies.size() < 20 ? 0 : random.nextInt(4);
+			if(operation == 0) {
+				insert(random.nextFloat() * 1000, random.nextFloat() * 1000, random.nextFloat() * 30, random.nextFloat() * 30);
+			} else if(operation == 1) {
+				remove(proxies.get(random.nextInt(proxies.size())));
+			} else {
+				move(proxies.get(random.nextInt(proxies.size())));
+			}
+
+			assertEquals(fatBoxes.size(), tree.getProxyCount());
+			float x = random.nextFloat() * 1000, y = random.nextFloat() * 1000;
+			assertQuery(x, y, x + random.nextFloat() * 200, y + random.nextFloat() * 200);
+			assertQuery(x, y, x, y);
+		}
+	}
+
+	@Test
+	public void staysBalancedForSortedInserts() {
+		for (int i = 0; i < 1024; i++) {
+			insert(i * 10, 0, 5, 5);
+		}
+		assertTrue("height " + tree.getHeight(), tree.getHeight() <= 2 * 10);
+
+		// remove every other leaf, the rest must stay balanced too
+		for (int i = proxies.size() - 1; i >= 0; i -= 2) {
+			remove(proxies.get(i));
+		}
+		assertTrue("height " + tree.getHeight(), tree.getHeight() <= 2 * 9);
+		assertQuery(0, 0, 10240, 5);
+	}
+
+	@Test
+	public void keepsLeafInPlaceForSmallMoves() {
+		int proxy = insert(0, 0, 10, 10);
+		assertFalse(tree.moveProxy(proxy, MARGIN / 2, MARGIN / 2, 10, 10));
+		assertTrue(tree.moveProxy(proxy, MARGIN * 2, 0, 10, 10));
+		assertEquals(Integer.valueOf(0), tree.getUserData(proxy));
+	}
+
+	private int insert(float x, float y, float w, float h) {
+		int data = created++;
+		int proxy = tree.createProxy(x, y, w, h, data);
+		assertEquals(Integer.valueOf(data), tree.getUserData(proxy));
+		proxies.add(proxy);
+		fatBoxes.put(proxy, new Rectangle(x - MARGIN, y - MARGIN, w + MARGIN * 2, h + MARGIN * 2));
+		return proxy;
+	}
+
+	private void remove(int proxy) {
+		tree.destroyProxy(proxy);
+		fatBoxes.remove(proxy);
+		proxies.remove(Integer.valueOf(proxy));
+	}
+
+	private void move(int proxy) {
+		Rectangle fat = fatBoxes.get(proxy);
+		float x = fat.x + MARGIN + (random.nextFloat() - 0.5f) * (random.nextBoolean() ? MARGIN : 100);
+		float y = fat.y + MARGIN + (random.nextFloat() - 0.5f) * (random.nextBoolean() ? MARGIN : 100);
+		float w = random.nextFloat() * 30, h = random.nextFloat() * 30;
+		boolean contained = fat.x <= x && fat.y <= y && fat.x + fat.width >= x + w && fat.y + fat.height >= y + h;
+		boolean reinserted = tree.moveProxy(proxy, x, y, w, h);
+		assertEquals(!contained, reinserted);
+		if(reinserted) fat.set(x - MARGIN, y - MARGIN, w + MARGIN * 2, h + MARGIN * 2);
+	}
+
+	private void assertQuery(float minX, float minY, float maxX, float maxY) {
+		HashSet<Integer> expected = new HashSet<Integer>();
+		for (Integer proxy : fatBoxes.keySet()) {
+			Rectangle fat = fatBoxes.get(proxy);
+			if(fat.x <= maxX && fat.x + fat.width >= minX && fat.y <= maxY && fat.y + fat.height >= minY) expected.add(proxy);
+		}
+
+		IntArray result = new IntArray();
+		tree.query(minX, minY, maxX, maxY, result);
+		HashSet<Integer> actual = new HashSet<Integer>();
+		for (int i = 0; i < result.size; i++) actual.add(result.get(i));
+
+		assertEquals(result.size, actual.size());
+		assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,79 @@
+package com.uwsoft.editor.renderer.utils;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.uwsoft.editor.renderer.components.MainItemComponent;
+import com.uwsoft.editor.renderer.components.NodeComponent;
+import com.uwsoft.editor.renderer.components.ParentNodeComponent;
+
+/**
+ * Checks SceneIndex and ItemWrapper lookups of items that share an identifier.
+ */
+public class SceneIndexTest {
+
+	private Engine engine;
+	private SceneIndex sceneIndex;
+	private Entity root;
+	private Entity hud;
+
+	@Before
+	public void setUp() {
+		engine = new Engine();
+		sceneIndex = new SceneIndex();
+		engine.addEntityListener(sceneIndex);
+
+		root = createEntity(null, "");
+		hud = createEntity(root, "hud");
+	}
+
+	private Entity createEntity(Entity parent, String identifier) {
+		Entity entity = new Entity();
+		MainItemComponent mainItemComponent = new MainItemComponent();
+		mainItemComponent.itemIdentifier = identifier;
+		entity.add(mainItemComponent);
+		entity.add(new NodeComponent());
+		if(parent != null) {
+			ParentNodeComponent parentNodeComponent = new ParentNodeComponent();
+			parentNodeComponent.parentEntity = parent;
+			entity.add(parentNodeComponent);
+			parent.getComponent(NodeComponent.class).addChild(entity);
+		}
+		engine.addEntity(entity);
+		return entity;
+	}
+
+	@Test
+	public void keepsRemainingItemWithSamePath() {
+		Entity first = createEntity(hud, "score");
+		Entity second = createEntity(hud, "score");
+		assertSame(second, sceneIndex.getEntity("hud/score"));
+		assertSame(second, sceneIndex.getChild(hud, "score"));
+
+		engine.removeEntity(second);
+		assertSame(first, sceneIndex.getEntity("hud/score"));
+		assertSame(first, sceneIndex.getChild(hud, "score"));
+
+		engine.removeEntity(first);
+		assertNull(sceneIndex.getEntity("hud/score"));
+		assertNull(sceneIndex.getChild(hud, "score"));
+	}
+
+	@Test
+	public void reusesChildWrappers() {
+		Entity score = createEntity(hud, "score");
+		ItemWrapper indexed = new ItemWrapper(root, sceneIndex);
+		ItemWrapper plain = new ItemWrapper(root);
+
+		assertSame(indexed.getChild("hud"), indexed.getChild("hud"));
+		assertSame(plain.getChild("hud"), plain.getChild("hud"));
+		assertSame(score, indexed.getChild("hud").getChild("score").getEntity());
+		assertSame(score, plain.getChild("hud").getChild("score").getEntity());
+		assertNull(plain.getChild("missing").getEntity());
+	}
+}